@@ -0,0 +1,54 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the benchmarks of the application's hot paths (loading, format
+ * checking, saving, and searching and filtering users through
+ * UserQueryEngine.execute(), as the Dashboard does) as a performance baseline.
+ * Each benchmark is measured for throughput, and for latency as a sampled
+ * distribution reported with percentiles, with the GC profiler reporting the
+ * allocation rate and garbage collections.
+ * 
+ * Run with java -cp target/benchmarks.jar benchmarks.BenchmarkRunner [size],
+ * where size (default 100000) sets the number of users generated for every
+ * benchmark.
+ */
+public final class BenchmarkRunner {
+
+	private BenchmarkRunner() {
+	}
+
+	public static void main(String[] args) throws RunnerException {
+
+		String size = args.length > 0 ? args[0] : "100000";
+
+		ChainedOptionsBuilder options = new OptionsBuilder()
+				.include("LoadFileBenchmark")
+				.include("WriteDurabilityBenchmark.writeFile")
+				.include("SearchBenchmark.indexSearch")
+				.include("FilterBenchmark.(sortedIndexView|roleAndStatusBuckets)")
+				.param("rows", size)
+				.param("users", size)
+				.param("durability", "PER_BATCH")
+				.mode(Mode.Throughput)
+				.mode(Mode.SampleTime)
+				.timeUnit(TimeUnit.MILLISECONDS)
+				// shorter iterations than the benchmarks' own, so the whole baseline runs in minutes
+				.warmupIterations(3)
+				.warmupTime(TimeValue.seconds(1))
+				.measurementIterations(5)
+				.measurementTime(TimeValue.seconds(2))
+				.addProfiler(GCProfiler.class);
+		new Runner(options.build()).run();
+	}
+
+}
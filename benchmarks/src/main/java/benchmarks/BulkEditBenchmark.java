@@ -0,0 +1,148 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frankdesilets.User_Manager.Role;
+import frankdesilets.User_Manager.User;
+import frankdesilets.User_Manager.UserRepository;
+import frankdesilets.User_Manager.UserSortField;
+import javafx.collections.ObservableList;
+
+/**
+ * Measures the bulk actions of the Dashboard, as run by Controller through
+ * UserRepository.setRoleAndStatus() and UserRepository.removeAll(), and compares
+ * each with changing or removing the selected users one at a time.
+ * 
+ * The batch is spread evenly across the list, as a selection made by scrolling
+ * would be. The single append of the batch to the change log is measured by
+ * WriteDurabilityBenchmark and is not repeated here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class BulkEditBenchmark {
+
+	@Param({ "100000" })
+	private int users;
+
+	@Param({ "1", "100", "1000", "5000" })
+	private int batchSize;
+
+	private UserRepository repository;
+	private List<User> batch; // the selected users
+	private boolean isManager; // whether the batch was last moved to Manager
+
+	@Setup(Level.Trial)
+	public void createUsers() {
+		repository = createRepository(users);
+		batch = selectBatch(repository, batchSize);
+	}
+
+	/*
+	 * The batch is moved between two roles, so every invocation moves every user
+	 * of the batch.
+	 */
+	@Benchmark
+	public int bulkSetRole() {
+		isManager = !isManager;
+		repository.setRoleAndStatus(batch, isManager ? Role.MANAGER : Role.LEVEL_1_ENGINEER, null);
+		return repository.getModificationCount();
+	}
+
+	@Benchmark
+	public int perUserSetRole() {
+		isManager = !isManager;
+		Role role = isManager ? Role.MANAGER : Role.LEVEL_1_ENGINEER;
+		for (User currentUser : batch) {
+			repository.update(currentUser, currentUser.getEmailID(), currentUser.getFirstName(),
+					currentUser.getLastName(), role, currentUser.getStatus());
+		}
+		return repository.getModificationCount();
+	}
+
+	/**
+	 * The users of the delete benchmarks, restored before each invocation.
+	 */
+	@State(Scope.Thread)
+	public static class DeleteState {
+
+		private UserRepository repository;
+		private List<User> batch;
+
+		@Setup(Level.Trial)
+		public void createUsers(BulkEditBenchmark benchmark) {
+			repository = createRepository(benchmark.users);
+			batch = selectBatch(repository, benchmark.batchSize);
+		}
+
+		@Setup(Level.Invocation)
+		public void restoreBatch() {
+			repository.addAll(batch);
+		}
+	}
+
+	@Benchmark
+	public int bulkDelete(DeleteState state) {
+		state.repository.removeAll(state.batch);
+		return state.repository.size();
+	}
+
+	@Benchmark
+	public int perUserDelete(DeleteState state) {
+		for (User currentUser : state.batch) {
+			state.repository.remove(currentUser);
+		}
+		return state.repository.size();
+	}
+
+	/**
+	 * Returns a repository of generated users in role order, with the sorted index
+	 * of last names built, as it is once the Dashboard has been filtered.
+	 * 
+	 * @param userCount
+	 * @return
+	 */
+	private static UserRepository createRepository(int userCount) {
+		ObservableList<User> userList = UserFileGenerator.generateUsers(userCount);
+		userList.sort((first, second) -> first.getRole().compareTo(second.getRole()));
+		UserRepository repository = new UserRepository(userList);
+		repository.getSortedUsers(UserSortField.LAST_NAME, false);
+		return repository;
+	}
+
+	/**
+	 * Returns a batch of users spread evenly across a repository's list.
+	 * 
+	 * @param repository
+	 * @param batchSize
+	 * @return
+	 */
+	private static List<User> selectBatch(UserRepository repository, int batchSize) {
+		List<User> userList = repository.getUserList();
+		int interval = userList.size() / batchSize;
+		ArrayList<User> batch = new ArrayList<User>(batchSize);
+		for (int i = 0; i < batchSize; i++) {
+			batch.add(userList.get(i * interval));
+		}
+		return batch;
+	}
+
+}
@@ -0,0 +1,80 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import frankdesilets.User_Manager.ColumnarUserStore;
+import frankdesilets.User_Manager.User;
+import frankdesilets.User_Manager.UserFileIO;
+import javafx.collections.ObservableList;
+
+/**
+ * Compares the heap footprint of users loaded from a storage file as an
+ * ObservableList<User> with the footprint of the same users held in a
+ * ColumnarUserStore. The number of users defaults to 1000000 and can be passed
+ * as the first argument.
+ *
+ * The users are loaded from a generated file, so every user has its own
+ * Strings, as it would when the application loads its storage file. Heap usage
+ * is measured after forcing garbage collection, so results are approximate.
+ *
+ * Run with: java -Xmx4g -cp target/benchmarks.jar benchmarks.ColumnarStoreFootprint 1000000
+ */
+public class ColumnarStoreFootprint {
+
+	private static final String FILE_NAME = "benchmarkUserList.txt";
+
+	public static void main(String[] args) throws IOException {
+
+		int users = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+		Path storageDirectory = Files.createTempDirectory("userbenchmark");
+		Path file = storageDirectory.resolve(FILE_NAME);
+		try {
+			UserFileGenerator.generate(file, users);
+			UserFileIO fileIO = new UserFileIO(5, true, storageDirectory.toString());
+
+			long baseline = usedHeap();
+			ObservableList<User> userList = fileIO.loadFile(FILE_NAME);
+			long withList = usedHeap();
+			report("ObservableList<User>", users, withList - baseline);
+
+			ColumnarUserStore store = new ColumnarUserStore(userList);
+			Reference.reachabilityFence(userList);
+			userList = null;
+			long withStore = usedHeap();
+			report("ColumnarUserStore", users, withStore - baseline);
+			System.out.printf("ColumnarUserStore arrays: %.1f MB%n", megabytes(store.getFootprintBytes()));
+
+			Reference.reachabilityFence(store);
+		} finally {
+			Files.deleteIfExists(file);
+			Files.deleteIfExists(storageDirectory);
+		}
+	}
+
+	private static void report(String name, int users, long bytes) {
+		System.out.printf("%s, %d users: %.1f MB (%d bytes per user)%n", name, users, megabytes(bytes),
+				bytes / users);
+	}
+
+	/**
+	 * Returns the heap in use after requesting garbage collection.
+	 *
+	 * @return
+	 */
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static double megabytes(long bytes) {
+		return bytes / (1024.0 * 1024.0);
+	}
+
+}
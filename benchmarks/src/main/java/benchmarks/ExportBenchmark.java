@@ -0,0 +1,71 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frankdesilets.User_Manager.ExportFormat;
+import frankdesilets.User_Manager.User;
+import frankdesilets.User_Manager.UserExporter;
+
+/**
+ * Measures exporting every user with a UserExporter in each format. Run with
+ * "-prof gc" to see that the memory allocated per export does not grow with
+ * the number of users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class ExportBenchmark {
+
+	@Param({ "100000", "1000000" })
+	private int users;
+
+	@Param({ "CSV", "JSON_LINES", "SNAPSHOT" })
+	private ExportFormat format;
+
+	private Path exportDirectory;
+	private File exportFile;
+	private List<User> userList;
+	private UserExporter exporter;
+
+	@Setup(Level.Trial)
+	public void createUsers() throws IOException {
+		userList = UserFileGenerator.generateUsers(users);
+		exportDirectory = Files.createTempDirectory("userbenchmark");
+		exportFile = exportDirectory.resolve("export." + format.getExtension()).toFile();
+		exporter = new UserExporter(format);
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteFiles() throws IOException {
+		Files.deleteIfExists(exportFile.toPath());
+		Files.deleteIfExists(exportDirectory);
+	}
+
+	@Benchmark
+	public int export() throws IOException {
+		return exporter.export(userList, exportFile);
+	}
+
+}
@@ -0,0 +1,123 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frankdesilets.User_Manager.Role;
+import frankdesilets.User_Manager.Status;
+import frankdesilets.User_Manager.User;
+import frankdesilets.User_Manager.UserQuery;
+import frankdesilets.User_Manager.UserQueryEngine;
+import frankdesilets.User_Manager.UserRepository;
+import frankdesilets.User_Manager.UserSortField;
+import javafx.collections.ObservableList;
+
+/**
+ * Measures the filters of the Filter Users form, run through
+ * UserQueryEngine.execute() with the queries Controller.filterUsers() builds,
+ * and compares each with the approach it replaced.
+ * 
+ * Sorting by a property is served from a maintained sorted index, compared with
+ * copying and sorting every user (and reversing them for reverse lexicographic
+ * order). Filtering by role and status is built from the role buckets, compared
+ * with a single pass over every user. The previous filter, which called
+ * contains() on the results for every remaining user, was quadratic and is not
+ * reproduced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xms4g", "-Xmx4g" })
+public class FilterBenchmark {
+
+	@Param({ "10000", "100000", "1000000" })
+	private int users;
+
+	private ObservableList<User> userList;
+	private UserQueryEngine queryEngine;
+	private UserQuery sortQuery; // users in reverse lexicographic order by last name
+	private UserQuery roleAndStatusQuery; // Level 2 Engineers that are Active Employees, then every other user
+
+	@Setup(Level.Trial)
+	public void createUsers() {
+		userList = UserFileGenerator.generateUsers(users);
+		queryEngine = new UserQueryEngine(new UserRepository(userList), ForkJoinPool.commonPool());
+
+		sortQuery = new UserQuery();
+		sortQuery.setSortField(UserSortField.LAST_NAME);
+		sortQuery.setDescending(true);
+		roleAndStatusQuery = new UserQuery();
+		roleAndStatusQuery.setRole(Role.LEVEL_2_ENGINEER);
+		roleAndStatusQuery.setStatus(Status.ACTIVE_EMPLOYEE);
+		roleAndStatusQuery.setOnlyMatching(false);
+
+		// the sorted index is built once, as it is on the first filter by last name
+		queryEngine.execute(sortQuery);
+	}
+
+	/*
+	 * A reverse lexicographic view is read in full, as the TableView would when
+	 * scrolled through every row.
+	 */
+	@Benchmark
+	public int sortedIndexView() {
+		List<User> view = queryEngine.execute(sortQuery);
+		int length = 0;
+		for (User currentUser : view) {
+			length += currentUser.getLastName().length();
+		}
+		return length;
+	}
+
+	@Benchmark
+	public int copyAndSort() {
+		ArrayList<User> results = new ArrayList<User>(userList);
+		Collections.sort(results, Comparator.comparing(User::getLastName));
+		Collections.reverse(results);
+		int length = 0;
+		for (User currentUser : results) {
+			length += currentUser.getLastName().length();
+		}
+		return length;
+	}
+
+	@Benchmark
+	public List<User> roleAndStatusBuckets() {
+		return queryEngine.execute(roleAndStatusQuery);
+	}
+
+	@Benchmark
+	public List<User> roleAndStatusScan() {
+		ArrayList<User> matchingUsers = new ArrayList<User>();
+		ArrayList<User> remainingUsers = new ArrayList<User>();
+		for (User currentUser : userList) {
+			if (currentUser.getRole() == Role.LEVEL_2_ENGINEER && currentUser.getStatus() == Status.ACTIVE_EMPLOYEE) {
+				matchingUsers.add(currentUser);
+			} else {
+				remainingUsers.add(currentUser);
+			}
+		}
+		matchingUsers.addAll(remainingUsers);
+		return matchingUsers;
+	}
+
+}
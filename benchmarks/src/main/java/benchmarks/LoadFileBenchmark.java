@@ -0,0 +1,71 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frankdesilets.User_Manager.User;
+import frankdesilets.User_Manager.UserFileIO;
+import javafx.collections.ObservableList;
+
+/**
+ * Measures the time taken to load a user storage file with
+ * UserFileIO.loadFile() and to check its format with
+ * UserFileIO.isCorrectFormat(). With rows = 1000000 the reported score is the
+ * load time per million rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class LoadFileBenchmark {
+
+	private static final String FILE_NAME = "benchmarkUserList.txt";
+
+	@Param({ "1000000" })
+	private int rows;
+
+	private Path storageDirectory;
+	private UserFileIO fileIO;
+
+	@Setup(Level.Trial)
+	public void generateFile() throws IOException {
+		storageDirectory = Files.createTempDirectory("userbenchmark");
+		UserFileGenerator.generate(storageDirectory.resolve(FILE_NAME), rows);
+		fileIO = new UserFileIO(5, true, storageDirectory.toString());
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteFile() throws IOException {
+		Files.deleteIfExists(storageDirectory.resolve(FILE_NAME));
+		Files.deleteIfExists(storageDirectory);
+	}
+
+	@Benchmark
+	public ObservableList<User> loadFile() {
+		return fileIO.loadFile(FILE_NAME);
+	}
+
+	@Benchmark
+	public boolean isCorrectFormat() {
+		return fileIO.isCorrectFormat(FILE_NAME);
+	}
+
+}
@@ -0,0 +1,79 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frankdesilets.User_Manager.MappedUserFile;
+import frankdesilets.User_Manager.User;
+import frankdesilets.User_Manager.UserFileIO;
+import javafx.collections.ObservableList;
+
+/**
+ * Compares the time taken to open a user storage file and display its first
+ * page of users through a MappedUserFile (mapping the file, locating its rows,
+ * and decoding one page) with loading every user with UserFileIO.loadFile().
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class MappedFileBenchmark {
+
+	private static final String FILE_NAME = "benchmarkUserList.txt";
+	private static final int PAGE_SIZE = 50; // roughly the number of rows visible in the Dashboard
+
+	@Param({ "1000000" })
+	private int rows;
+
+	private Path storageDirectory;
+	private UserFileIO fileIO;
+
+	@Setup(Level.Trial)
+	public void generateFile() throws IOException {
+		storageDirectory = Files.createTempDirectory("userbenchmark");
+		UserFileGenerator.generate(storageDirectory.resolve(FILE_NAME), rows);
+		fileIO = new UserFileIO(5, true, storageDirectory.toString());
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteFile() throws IOException {
+		Files.deleteIfExists(storageDirectory.resolve(FILE_NAME));
+		Files.deleteIfExists(storageDirectory);
+	}
+
+	@Benchmark
+	public List<User> mapFileAndDecodeFirstPage() {
+		MappedUserFile mappedFile = fileIO.mapFile(FILE_NAME);
+		List<User> page = new ArrayList<User>(PAGE_SIZE);
+		for (int i = 0; i < PAGE_SIZE && i < mappedFile.size(); i++) {
+			page.add(mappedFile.getUser(i));
+		}
+		return page;
+	}
+
+	@Benchmark
+	public ObservableList<User> loadFile() {
+		return fileIO.loadFile(FILE_NAME);
+	}
+
+}
@@ -0,0 +1,83 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frankdesilets.User_Manager.User;
+import frankdesilets.User_Manager.UserFileIO;
+import javafx.collections.ObservableList;
+
+/**
+ * Measures how loading a user storage file with
+ * UserFileIO.loadFileParallel() scales with the number of threads, compared with
+ * the sequential UserFileIO.loadFile(). The threads parameter sets the
+ * parallelism of the ForkJoinPool used; scaling is limited by the number of
+ * cores available.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xms3g", "-Xmx3g" })
+public class ParallelLoadBenchmark {
+
+	private static final String FILE_NAME = "benchmarkUserList.txt";
+
+	@Param({ "5000000" })
+	private int rows;
+
+	@Param({ "1", "2", "4", "8" })
+	private int threads;
+
+	private Path storageDirectory;
+	private UserFileIO fileIO;
+	private ForkJoinPool pool;
+
+	@Setup(Level.Trial)
+	public void generateFile() throws IOException {
+		storageDirectory = Files.createTempDirectory("userbenchmark");
+		UserFileGenerator.generate(storageDirectory.resolve(FILE_NAME), rows);
+		fileIO = new UserFileIO(5, true, storageDirectory.toString());
+		pool = new ForkJoinPool(threads);
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteFile() throws IOException {
+		pool.shutdown();
+		Files.deleteIfExists(storageDirectory.resolve(FILE_NAME));
+		Files.deleteIfExists(storageDirectory);
+	}
+
+	@Benchmark
+	public ObservableList<User> loadFileParallel() {
+		return fileIO.loadFileParallel(FILE_NAME, pool);
+	}
+
+	/*
+	 * The sequential load does not depend on the threads parameter, and only needs
+	 * to be compared with a single thread count (-p threads=1).
+	 */
+	@Benchmark
+	public ObservableList<User> loadFile() {
+		return fileIO.loadFile(FILE_NAME);
+	}
+
+}
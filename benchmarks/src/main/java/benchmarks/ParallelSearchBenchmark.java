@@ -0,0 +1,85 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frankdesilets.User_Manager.User;
+import frankdesilets.User_Manager.UserQuery;
+import frankdesilets.User_Manager.UserQueryEngine;
+import frankdesilets.User_Manager.UserRepository;
+
+/**
+ * Compares searches that check every user (text too short to be looked up in
+ * the search index) run by a UserQueryEngine on a single thread with the same
+ * searches checked in parallel on a fork-join pool with one thread per
+ * available processor.
+ * 
+ * The speedup is bounded by the number of processors: on a machine with one
+ * processor the engine falls back to checking users on the calling thread and
+ * both benchmarks measure the same work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xms4g", "-Xmx4g" })
+public class ParallelSearchBenchmark {
+
+	@Param({ "100000", "1000000" })
+	private int users;
+
+	/*
+	 * "ar" matches part of many names and emailIDs, "zq" matches almost nothing,
+	 * so the cost of checking users is measured with and without building large
+	 * results.
+	 */
+	@Param({ "ar", "zq" })
+	private String query;
+
+	private ForkJoinPool pool;
+	private UserQueryEngine sequentialEngine;
+	private UserQueryEngine parallelEngine;
+	private UserQuery userQuery;
+
+	@Setup(Level.Trial)
+	public void createUsers() {
+		UserRepository repository = new UserRepository(UserFileGenerator.generateUsers(users));
+		pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		sequentialEngine = new UserQueryEngine(repository);
+		parallelEngine = new UserQueryEngine(repository, pool);
+		userQuery = new UserQuery();
+		userQuery.setText(query);
+	}
+
+	@TearDown(Level.Trial)
+	public void shutdownPool() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public List<User> sequentialScan() {
+		return sequentialEngine.execute(userQuery);
+	}
+
+	@Benchmark
+	public List<User> parallelScan() {
+		return parallelEngine.execute(userQuery);
+	}
+
+}
@@ -0,0 +1,101 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frankdesilets.User_Manager.User;
+import frankdesilets.User_Manager.UserQuery;
+import frankdesilets.User_Manager.UserQueryEngine;
+import frankdesilets.User_Manager.UserRepository;
+import javafx.collections.ObservableList;
+
+/**
+ * Compares searching for users through UserQueryEngine.execute(), which finds
+ * the text in the repository's trigram search index, with the linear scan
+ * previously performed by Controller.searchUsers(), which lower-cased every
+ * property of every user.
+ * 
+ * keyScan checks every user through UserQueryEngine.executeWithin(), as the
+ * engine does for text that cannot be looked up in the index, matching the
+ * search keys held by each user. Run
+ * with -prof gc, its allocation per operation (gc.alloc.rate.norm) is only the
+ * results list, while linearScan allocates five lower-cased strings per user.
+ * 
+ * The scan is reproduced without its check for users already in the results
+ * list (a contains() call per user), which made it quadratic and would not
+ * finish at 1M users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xms4g", "-Xmx4g" })
+public class SearchBenchmark {
+
+	@Param({ "10000", "100000", "1000000" })
+	private int users;
+
+	/*
+	 * "garcia" matches a last name shared by many users, "mary.smith1" a handful of
+	 * emailIDs.
+	 */
+	@Param({ "garcia", "mary.smith1" })
+	private String query;
+
+	private ObservableList<User> userList;
+	private UserQueryEngine queryEngine;
+	private UserQuery textQuery; // the users containing the query text
+
+	@Setup(Level.Trial)
+	public void createUsers() {
+		userList = UserFileGenerator.generateUsers(users);
+		queryEngine = new UserQueryEngine(new UserRepository(userList), ForkJoinPool.commonPool());
+		textQuery = new UserQuery();
+		textQuery.setText(query);
+	}
+
+	@Benchmark
+	public List<User> indexSearch() {
+		return queryEngine.execute(textQuery);
+	}
+
+	@Benchmark
+	public List<User> keyScan() {
+		return queryEngine.executeWithin(userList, textQuery);
+	}
+
+	@Benchmark
+	public List<User> linearScan() {
+
+		ArrayList<User> results = new ArrayList<User>();
+		String toFindLowerCase = query.toLowerCase();
+		for (int i = 0; i < userList.size(); i++) {
+			User currentAccount = userList.get(i);
+			if ((currentAccount.getEmailID().toLowerCase().contains(toFindLowerCase))
+					|| (currentAccount.getFirstName().toLowerCase().contains(toFindLowerCase))
+					|| (currentAccount.getLastName().toLowerCase().contains(toFindLowerCase))
+					|| (currentAccount.getRole().toString().toLowerCase().contains(toFindLowerCase))
+					|| (currentAccount.getStatus().toString().toLowerCase().contains(toFindLowerCase))) {
+				results.add(currentAccount);
+			}
+		}
+		return results;
+	}
+
+}
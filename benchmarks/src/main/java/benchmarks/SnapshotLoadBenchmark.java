@@ -0,0 +1,74 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frankdesilets.User_Manager.User;
+import frankdesilets.User_Manager.UserFileIO;
+import javafx.collections.ObservableList;
+
+/**
+ * Compares the startup time of loading a user storage file in the
+ * comma-separated text format with loading the same users from a file in the
+ * binary snapshot format, both with UserFileIO.loadFile().
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class SnapshotLoadBenchmark {
+
+	private static final String TEXT_FILE_NAME = "benchmarkUserList.txt";
+	private static final String SNAPSHOT_FILE_NAME = "benchmarkUserList_Snapshot.txt";
+
+	@Param({ "1000000" })
+	private int rows;
+
+	private Path storageDirectory;
+	private UserFileIO fileIO;
+
+	@Setup(Level.Trial)
+	public void generateFiles() throws IOException {
+		storageDirectory = Files.createTempDirectory("userbenchmark");
+		UserFileGenerator.generate(storageDirectory.resolve(TEXT_FILE_NAME), rows);
+		Files.copy(storageDirectory.resolve(TEXT_FILE_NAME), storageDirectory.resolve(SNAPSHOT_FILE_NAME));
+		fileIO = new UserFileIO(5, true, storageDirectory.toString());
+		fileIO.convertToSnapshot(SNAPSHOT_FILE_NAME);
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteFiles() throws IOException {
+		Files.deleteIfExists(storageDirectory.resolve(TEXT_FILE_NAME));
+		Files.deleteIfExists(storageDirectory.resolve(SNAPSHOT_FILE_NAME));
+		Files.deleteIfExists(storageDirectory);
+	}
+
+	@Benchmark
+	public ObservableList<User> loadText() {
+		return fileIO.loadFile(TEXT_FILE_NAME);
+	}
+
+	@Benchmark
+	public ObservableList<User> loadSnapshot() {
+		return fileIO.loadFile(SNAPSHOT_FILE_NAME);
+	}
+
+}
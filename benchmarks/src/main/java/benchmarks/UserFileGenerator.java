@@ -0,0 +1,93 @@
+package benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import frankdesilets.User_Manager.Role;
+import frankdesilets.User_Manager.Status;
+import frankdesilets.User_Manager.User;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * Generates synthetic user storage files for benchmarking. Generated files use
+ * the same format as the files written by UserFileIO: one user per line, with
+ * properties separated by delimiter ','. Users are generated deterministically,
+ * so files of the same size are identical between runs. The same users can be
+ * generated in memory for benchmarks that do not read a file.
+ */
+public final class UserFileGenerator {
+
+	private static final String[] FIRST_NAMES = { "James", "Mary", "John", "Patricia", "Robert", "Jennifer",
+			"Michael", "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica" };
+	private static final String[] LAST_NAMES = { "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+			"Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson" };
+
+	private static final Role[] ROLES = { Role.SENIOR_MANAGER, Role.MANAGER, Role.LEVEL_3_ENGINEER,
+			Role.LEVEL_2_ENGINEER, Role.LEVEL_1_ENGINEER };
+	private static final Status[] STATUSES = { Status.ACTIVE_EMPLOYEE, Status.INACTIVE_EMPLOYEE,
+			Status.DISABLED_ACCOUNT };
+
+	private UserFileGenerator() {
+	}
+
+	/**
+	 * Writes the given number of users to a file, sorted in descending order by
+	 * Role as UserFileIO.writeFile() would write them.
+	 * 
+	 * @param file
+	 * @param rows
+	 * @throws IOException
+	 */
+	public static void generate(Path file, int rows) throws IOException {
+
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			for (int i = 0; i < rows; i++) {
+				User user = createUser(i, rows);
+				writer.write(user.getEmailID() + "," + user.getFirstName() + "," + user.getLastName() + ","
+						+ user.getRole() + "," + user.getStatus());
+				if (i != rows - 1) {
+					writer.write("\n");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns a list of the given number of users, sorted in descending order by
+	 * Role, containing the same users as a generated file of the same size.
+	 * 
+	 * @param rows
+	 * @return
+	 */
+	public static ObservableList<User> generateUsers(int rows) {
+
+		ArrayList<User> users = new ArrayList<User>(rows);
+		for (int i = 0; i < rows; i++) {
+			users.add(createUser(i, rows));
+		}
+		return FXCollections.observableList(users);
+	}
+
+	/**
+	 * Returns the user on the given row of a generated list. Each role receives an
+	 * equal share of the rows, the last role the remainder.
+	 * 
+	 * @param row
+	 * @param rows
+	 * @return
+	 */
+	private static User createUser(int row, int rows) {
+
+		int roleIndex = Math.min(row / Math.max(rows / ROLES.length, 1), ROLES.length - 1);
+		String firstName = FIRST_NAMES[row % FIRST_NAMES.length];
+		String lastName = LAST_NAMES[(row / FIRST_NAMES.length) % LAST_NAMES.length];
+		return new User(firstName.toLowerCase() + "." + lastName.toLowerCase() + row + "@companydomain.com", firstName,
+				lastName, ROLES[roleIndex], STATUSES[row % STATUSES.length]);
+	}
+
+}
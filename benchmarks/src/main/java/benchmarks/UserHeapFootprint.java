@@ -0,0 +1,98 @@
+package benchmarks;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import frankdesilets.User_Manager.User;
+import frankdesilets.User_Manager.UserEditComboBox;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+
+/**
+ * Compares the heap footprint of a list of users with and without a
+ * UserEditComboBox allocated for every user, as was done before the action
+ * column's ComboBoxes were moved into a shared TableCell factory. The number of
+ * users defaults to 100000 and can be passed as the first argument.
+ * 
+ * Heap usage is measured after forcing garbage collection, so results are
+ * approximate. The ComboBoxes can only be created once the JavaFX toolkit has
+ * started, which requires a display; without one only the users are measured.
+ * 
+ * Run with: java -cp target/benchmarks.jar benchmarks.UserHeapFootprint 100000
+ */
+public class UserHeapFootprint {
+
+	public static void main(String[] args) throws InterruptedException {
+
+		int users = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+
+		long baseline = usedHeap();
+		ObservableList<User> userList = UserFileGenerator.generateUsers(users);
+		long withUsers = usedHeap();
+		System.out.printf("%d users: %.1f MB (%d bytes per user)%n", users, megabytes(withUsers - baseline),
+				(withUsers - baseline) / users);
+
+		if (!startToolkit()) {
+			System.out.println("The JavaFX toolkit could not be started (no display), "
+					+ "so the per-user UserEditComboBox footprint was not measured.");
+			return;
+		}
+
+		// one ComboBox is created for each user, on the JavaFX Application Thread
+		List<UserEditComboBox> editComboBoxes = new ArrayList<UserEditComboBox>(users);
+		CountDownLatch created = new CountDownLatch(1);
+		Platform.runLater(() -> {
+			for (int i = 0; i < users; i++) {
+				editComboBoxes.add(new UserEditComboBox());
+			}
+			created.countDown();
+		});
+		created.await();
+		long withComboBoxes = usedHeap();
+		System.out.printf("%d users with a UserEditComboBox each: %.1f MB (%d bytes per user)%n", users,
+				megabytes(withComboBoxes - baseline), (withComboBoxes - baseline) / users);
+
+		// the lists are kept reachable until every measurement is taken
+		Reference.reachabilityFence(userList);
+		Reference.reachabilityFence(editComboBoxes);
+		Platform.exit();
+	}
+
+	/**
+	 * Starts the JavaFX toolkit, returning false if it cannot be started.
+	 * 
+	 * @return
+	 * @throws InterruptedException
+	 */
+	private static boolean startToolkit() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		try {
+			Platform.startup(started::countDown);
+		} catch (RuntimeException | UnsatisfiedLinkError e) {
+			System.out.println(e.getMessage());
+			return false;
+		}
+		return started.await(10, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Returns the heap in use after requesting garbage collection.
+	 * 
+	 * @return
+	 */
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static double megabytes(long bytes) {
+		return bytes / (1024.0 * 1024.0);
+	}
+
+}
@@ -0,0 +1,96 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frankdesilets.User_Manager.Durability;
+import frankdesilets.User_Manager.User;
+import frankdesilets.User_Manager.UserFileIO;
+import javafx.collections.ObservableList;
+
+/**
+ * Measures the cost of each Durability level: writing a whole storage file with
+ * UserFileIO.writeFile(), and appending a batch of change log records with
+ * UserFileIO.appendChanges().
+ * 
+ * The change log is compacted once it reaches 1000 records, so every 100th
+ * batch of the append benchmark rewrites a small (100 user) storage file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xms1g", "-Xmx1g" })
+public class WriteDurabilityBenchmark {
+
+	private static final String WRITE_FILE_NAME = "benchmarkUserList.txt";
+	private static final String APPEND_FILE_NAME = "benchmarkUserList_Append.txt";
+	private static final int BATCH_SIZE = 10; // the number of records appended together
+
+	@Param({ "100000" })
+	private int rows;
+
+	@Param({ "NONE", "PER_BATCH", "PER_WRITE" })
+	private Durability durability;
+
+	private Path storageDirectory;
+	private UserFileIO fileIO;
+	private ObservableList<User> accountList; // the users written by writeFile()
+	private List<User> appendAccountList; // the users written when the append benchmark's log is compacted
+	private List<String> records; // the batch of records appended
+
+	@Setup(Level.Trial)
+	public void generateFiles() throws IOException {
+		storageDirectory = Files.createTempDirectory("userbenchmark");
+		UserFileGenerator.generate(storageDirectory.resolve(WRITE_FILE_NAME), rows);
+		UserFileGenerator.generate(storageDirectory.resolve(APPEND_FILE_NAME), 100);
+		fileIO = new UserFileIO(5, true, storageDirectory.toString());
+		fileIO.setDurability(durability);
+		accountList = fileIO.loadFile(WRITE_FILE_NAME);
+		appendAccountList = new ArrayList<User>(fileIO.loadFile(APPEND_FILE_NAME));
+
+		records = new ArrayList<String>(BATCH_SIZE);
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			records.add("ADD,appended" + i + "@companydomain.com,First,Last,Level 1 Engineer,Active Employee");
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteFiles() throws IOException {
+		Files.deleteIfExists(storageDirectory.resolve(WRITE_FILE_NAME));
+		Files.deleteIfExists(storageDirectory.resolve(WRITE_FILE_NAME + ".log"));
+		Files.deleteIfExists(storageDirectory.resolve(APPEND_FILE_NAME));
+		Files.deleteIfExists(storageDirectory.resolve(APPEND_FILE_NAME + ".log"));
+		Files.deleteIfExists(storageDirectory);
+	}
+
+	@Benchmark
+	public void writeFile() {
+		fileIO.writeFile(WRITE_FILE_NAME, accountList);
+	}
+
+	@Benchmark
+	public void appendChanges() {
+		fileIO.appendChanges(APPEND_FILE_NAME, records, () -> appendAccountList);
+	}
+
+}
@@ -0,0 +1,378 @@
+package frankdesilets.User_Manager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+
+/**
+ * An object of this class is a compact, column-oriented store of users, used as
+ * an alternative to holding a User object per user when the user table is very
+ * large.
+ * 
+ * The emailID, first name, and last name of every user are encoded as UTF-8 into
+ * a single shared byte array (the arena), with the offset of each property kept
+ * in an int array. Roles and statuses are stored as one byte each (the ordinal
+ * of the enum constant). This avoids the object header, String objects, and
+ * references of each User.
+ * 
+ * Users are produced on demand as lightweight, read-only views of a row, for
+ * example for the rows displayed by a TableView (see asObservableList()). A view
+ * holds only its row: each property is decoded from the columns when its getter
+ * is called, and its setters throw an UnsupportedOperationException. Recently
+ * produced views are cached, so a row that is redrawn is given the same User.
+ * The store is for display only, and should not be shown in editable cells.
+ * Users can only be appended to the store.
+ * 
+ * The store is a library building block, and is not used by the application
+ * itself: the Dashboard edits the users of the main user list in place, and
+ * displays a large storage file while it loads through a PagedUserList, which
+ * decodes rows from the mapped file without holding them all.
+ */
+public class ColumnarUserStore {
+
+	private static final Role[] ROLES = Role.values(); // the role of each stored ordinal
+	private static final Status[] STATUSES = Status.values(); // the status of each stored ordinal
+	private static final int STRING_PROPERTIES = 3; // emailID, first name, and last name
+	private static final int VIEW_CACHE_SIZE = 1024; // the number of cached views, a power of two
+
+	private byte[] arena; // the UTF-8 encoded emailID, first name, and last name of every user
+	private int arenaSize; // the number of bytes used in the arena
+	/*
+	 * The start offset in the arena of each string property, STRING_PROPERTIES per
+	 * user, followed by the end offset of the last property.
+	 */
+	private int[] offsets;
+	private byte[] roles; // the role ordinal of each user
+	private byte[] statuses; // the status ordinal of each user
+	private int size; // the number of users
+
+	private User[] viewCache; // recently produced views, indexed by row modulo VIEW_CACHE_SIZE
+	private int[] viewCacheRows; // the row of each cached view
+	private UserView userView; // the ObservableList view of the store, created when first requested
+
+	/**
+	 * Creates an empty store.
+	 */
+	public ColumnarUserStore() {
+		this(16);
+	}
+
+	/**
+	 * Creates an empty store with space for the given number of users.
+	 * 
+	 * @param initialCapacity
+	 */
+	public ColumnarUserStore(int initialCapacity) {
+		int capacity = Math.max(initialCapacity, 1);
+		arena = new byte[capacity * 32];
+		offsets = new int[capacity * STRING_PROPERTIES + 1];
+		roles = new byte[capacity];
+		statuses = new byte[capacity];
+		viewCache = new User[VIEW_CACHE_SIZE];
+		viewCacheRows = new int[VIEW_CACHE_SIZE];
+	}
+
+	/**
+	 * Creates a store containing the given users, in the same order.
+	 * 
+	 * @param users
+	 */
+	public ColumnarUserStore(List<User> users) {
+		this(users.size());
+		for (User currentUser : users) {
+			add(currentUser);
+		}
+		trimToSize();
+	}
+
+	/**
+	 * Appends a user's properties to the store.
+	 * 
+	 * @param toAdd
+	 */
+	public void add(User toAdd) {
+		add(toAdd.getEmailID(), toAdd.getFirstName(), toAdd.getLastName(), toAdd.getRole(), toAdd.getStatus());
+	}
+
+	/**
+	 * Appends a user with the given properties to the store.
+	 * 
+	 * @param emailID
+	 * @param firstName
+	 * @param lastName
+	 * @param role
+	 * @param status
+	 */
+	public void add(String emailID, String firstName, String lastName, Role role, Status status) {
+
+		if (size == roles.length) {
+			int capacity = size * 2;
+			offsets = Arrays.copyOf(offsets, capacity * STRING_PROPERTIES + 1);
+			roles = Arrays.copyOf(roles, capacity);
+			statuses = Arrays.copyOf(statuses, capacity);
+		}
+
+		int property = size * STRING_PROPERTIES;
+		appendString(emailID, property);
+		appendString(firstName, property + 1);
+		appendString(lastName, property + 2);
+		roles[size] = (byte) role.ordinal();
+		statuses[size] = (byte) status.ordinal();
+		size++;
+
+		if (userView != null) {
+			userView.fireAdded(size - 1);
+		}
+	}
+
+	/**
+	 * Returns the number of users in the store.
+	 * 
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of bytes used by the store's arrays, excluding cached
+	 * views.
+	 * 
+	 * @return
+	 */
+	public long getFootprintBytes() {
+		return arena.length + (long) offsets.length * Integer.BYTES + roles.length + statuses.length;
+	}
+
+	/*
+	 * The following methods return a single property of the user in a row, without
+	 * producing a User.
+	 */
+
+	public String getEmailID(int row) {
+		return getString(row, 0);
+	}
+
+	public String getFirstName(int row) {
+		return getString(row, 1);
+	}
+
+	public String getLastName(int row) {
+		return getString(row, 2);
+	}
+
+	public Role getRole(int row) {
+		checkRow(row);
+		return ROLES[roles[row]];
+	}
+
+	public Status getStatus(int row) {
+		checkRow(row);
+		return STATUSES[statuses[row]];
+	}
+
+	/**
+	 * Returns a read-only view of the user in a row (see RowView). The view is
+	 * created, or taken from the cache if it was recently created.
+	 * 
+	 * @param row
+	 * @return
+	 */
+	public User getUser(int row) {
+
+		checkRow(row);
+		int slot = row & (VIEW_CACHE_SIZE - 1);
+		User cachedView = viewCache[slot];
+		if (cachedView != null && viewCacheRows[slot] == row) {
+			return cachedView;
+		}
+
+		User view = new RowView(row);
+		viewCache[slot] = view;
+		viewCacheRows[slot] = row;
+		return view;
+	}
+
+	/**
+	 * Returns an unmodifiable ObservableList of the users in the store, which can
+	 * be set as the items of a TableView. Users are produced as they are requested
+	 * by the list (see getUser()), and additions to the store are reported to the
+	 * list's listeners.
+	 * 
+	 * @return
+	 */
+	public ObservableList<User> asObservableList() {
+		if (userView == null) {
+			userView = new UserView();
+		}
+		return userView;
+	}
+
+	/**
+	 * Shrinks the store's arrays to the space used by its users. Every column
+	 * keeps space for at least one user, so the columns always have the same
+	 * capacity (which add() relies on).
+	 */
+	public void trimToSize() {
+		int capacity = Math.max(size, 1);
+		arena = Arrays.copyOf(arena, arenaSize);
+		offsets = Arrays.copyOf(offsets, capacity * STRING_PROPERTIES + 1);
+		roles = Arrays.copyOf(roles, capacity);
+		statuses = Arrays.copyOf(statuses, capacity);
+	}
+
+	/**
+	 * Encodes a string property into the arena and records its end offset (the
+	 * start offset of the next property).
+	 * 
+	 * @param value
+	 * @param property
+	 */
+	private void appendString(String value, int property) {
+
+		byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+		if (arenaSize + encoded.length > arena.length) {
+			arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + encoded.length));
+		}
+		System.arraycopy(encoded, 0, arena, arenaSize, encoded.length);
+		arenaSize += encoded.length;
+		offsets[property + 1] = arenaSize;
+	}
+
+	/**
+	 * Decodes a string property of the user in a row from the arena.
+	 * 
+	 * @param row
+	 * @param propertyIndex
+	 * @return
+	 */
+	private String getString(int row, int propertyIndex) {
+		checkRow(row);
+		int property = row * STRING_PROPERTIES + propertyIndex;
+		return new String(arena, offsets[property], offsets[property + 1] - offsets[property],
+				StandardCharsets.UTF_8);
+	}
+
+	private void checkRow(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row " + row + " is out of bounds for " + size + " users.");
+		}
+	}
+
+	/**
+	 * A read-only view of the user in a row of the store. No property is copied
+	 * into the view: each getter reads the store's columns, so a view costs an
+	 * object header, a reference and a row number until its properties are read.
+	 */
+	private class RowView extends User {
+
+		private int row; // the row of the viewed user
+
+		private RowView(int row) {
+			super(null, null, null, null, null);
+			this.row = row;
+		}
+
+		@Override
+		public String getEmailID() {
+			return ColumnarUserStore.this.getEmailID(row);
+		}
+
+		@Override
+		public String getFirstName() {
+			return ColumnarUserStore.this.getFirstName(row);
+		}
+
+		@Override
+		public String getLastName() {
+			return ColumnarUserStore.this.getLastName(row);
+		}
+
+		@Override
+		public Role getRole() {
+			return ColumnarUserStore.this.getRole(row);
+		}
+
+		@Override
+		public Status getStatus() {
+			return ColumnarUserStore.this.getStatus(row);
+		}
+
+		/*
+		 * The search keys are normalized from the stored properties, as the fields of
+		 * the User are not set.
+		 */
+
+		@Override
+		String getEmailIDKey() {
+			return SearchKeys.normalize(getEmailID());
+		}
+
+		@Override
+		String getFirstNameKey() {
+			return SearchKeys.normalize(getFirstName());
+		}
+
+		@Override
+		String getLastNameKey() {
+			return SearchKeys.normalize(getLastName());
+		}
+
+		/*
+		 * The store's users cannot be changed.
+		 */
+
+		@Override
+		public void setEmailID(String emailID) {
+			throw new UnsupportedOperationException("Users in a ColumnarUserStore are read-only.");
+		}
+
+		@Override
+		public void setFirstName(String firstName) {
+			throw new UnsupportedOperationException("Users in a ColumnarUserStore are read-only.");
+		}
+
+		@Override
+		public void setLastName(String lastName) {
+			throw new UnsupportedOperationException("Users in a ColumnarUserStore are read-only.");
+		}
+
+		@Override
+		public void setRole(Role role) {
+			throw new UnsupportedOperationException("Users in a ColumnarUserStore are read-only.");
+		}
+
+		@Override
+		public void setStatus(Status status) {
+			throw new UnsupportedOperationException("Users in a ColumnarUserStore are read-only.");
+		}
+
+	}
+
+	/**
+	 * The ObservableList view of the store.
+	 */
+	private class UserView extends ObservableListBase<User> {
+
+		@Override
+		public User get(int index) {
+			return getUser(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		private void fireAdded(int row) {
+			beginChange();
+			nextAdd(row, row + 1);
+			endChange();
+		}
+
+	}
+
+}
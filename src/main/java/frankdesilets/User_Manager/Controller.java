@@ -2,23 +2,36 @@ package frankdesilets.User_Manager;
 
 import java.awt.event.*;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.URL;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 
 import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
-import javafx.event.Event;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.AnchorPane;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.util.Duration;
 
 /**
@@ -51,10 +64,23 @@ public class Controller implements Initializable {
 	 * METHODS
 	 * 
 	 * 	addUser()
+	 * 	importUsers()
+	 * 	finishImport()
+	 * 	exportUsers()
+	 * 	finishExport()
+	 * 	reloadUsers()
+	 * 	finishReload()
+	 * 	showReloadStatus()
 	 * 	deleteUser()
+	 * 	setRoleOfSelectedUsers()
+	 * 	setStatusOfSelectedUsers()
+	 * 	deleteSelectedUsers()
+	 * 	finishBulkAction()
 	 * 	editUser()
 	 * 	cancelEditUser()
 	 * 	searchUser()
+	 * 	runSearch()
+	 * 	cancelSearch()
 	 * 	filterUsers()
 	 * 	clearSearchAndFilter()
 	 * 
@@ -64,9 +90,12 @@ public class Controller implements Initializable {
 	 * 	switchToEditUserForm()
 	 * 
 	 * 	populateAccountList()
+	 * 	displayPagedUserList()
+	 * 	finishPopulatingAccountList()
+	 * 	updatePendingWrites()
 	 * 	updateTotalUsers()
 	 * 	updateCurrentStatus()
-	 * 	getUserIndexFromEmailID()
+	 * 	updateSelectedUsers()
 	 *  toggleFilterForm()
 	 * 	resetFilterForm()
 	 * 
@@ -74,13 +103,9 @@ public class Controller implements Initializable {
 	 * 	isAddUserFormInputUnderCharLimit()
 	 * 	isEditUserFormInputUnderCharLimit()
 	 * 	isEmailAcceptable()
-	 * 	isEmailCorrectFormat()
 	 * 	resetAddUserFormErrorStyle()
 	 * 	resetEditUserFormErrorStyle()
 	 * 
-	 * 	setEditBoxOnAction()
-	 * 	userEditBoxOnAction()
-	 * 
 	 * 	initialize()
 	 * 	initializeMainAnchorPane()
 	 * 	initializeDashboard()
@@ -89,13 +114,7 @@ public class Controller implements Initializable {
 	 * 	initializeEditUserForm()
 	 * 
 	 * 	quit()
-	 * 
-	 * CLASSES
-	 * 
-	 * 	LexicographicFirstNameComparator
-	 * 	LexicographicLastNameComparator
-	 * 	LexicographicEmailIDComparator
-	 * 	NullTableViewSelectionModel
+	 * 	shutdownPersistence()
 	 */
 	
 
@@ -117,6 +136,27 @@ public class Controller implements Initializable {
 	 * IO.
 	 */
 	private final int USER_PROPERTY_COUNT = 5;
+	/*
+	 * The time in milliseconds that typing in the search TextField must pause for
+	 * before a search is run.
+	 */
+	private final int SEARCH_DEBOUNCE_MILLIS = 150;
+	/*
+	 * The maximum time in seconds to wait for pending changes to be written to the
+	 * storage .txt file when the application exits.
+	 */
+	private final int PERSISTENCE_SHUTDOWN_SECONDS = 10;
+	/*
+	 * The size in bytes of the storage .txt file (several thousand users) at or above
+	 * which every user is loaded in the background, while the Dashboard is
+	 * displayed from the mapped file a page at a time.
+	 */
+	private final long PAGED_LOAD_THRESHOLD = 1 << 19;
+	/*
+	 * The number of imported users added to the system together, each batch
+	 * written to the storage .txt file in a single write.
+	 */
+	private final int IMPORT_BATCH_SIZE = UserImporter.DEFAULT_BATCH_SIZE;
 
 	
 	// *----------*
@@ -133,7 +173,49 @@ public class Controller implements Initializable {
 	 * application launch.
 	 */
 	private ObservableList<User> mainUserList;
+	/*
+	 * The repository holding the main user list alongside an index of users by
+	 * emailID. Users are added, edited, and deleted through the repository.
+	 */
+	private UserRepository userRepository;
+	/*
+	 * Runs the searches and filters of the Dashboard against the repository,
+	 * checking large numbers of users in parallel on the common fork-join pool.
+	 */
+	private UserQueryEngine queryEngine;
 	private UserFileIO fileIO; // the IO object used to read and write users to the storage .txt file
+	/*
+	 * The service that writes user changes to the storage .txt file's change log on
+	 * a background thread, so the UI does not wait for the disk.
+	 */
+	private UserPersistenceService persistenceService;
+	/*
+	 * Displays the users of a large storage .txt file, decoded a page at a time,
+	 * while every user is loaded in the background. Null once the main user list is
+	 * loaded.
+	 */
+	private PagedUserList pagedUserList;
+
+	/*
+	 * The following variables are used to run searches. A search is run once typing
+	 * in the search TextField pauses, on a background thread, so typing stays
+	 * responsive with large user lists.
+	 */
+	private PauseTransition searchDebounce; // restarted on each keystroke, runs the search when it finishes
+	private ExecutorService searchExecutor; // the single background thread that searches are run on
+	private Task<List<User>> currentSearchTask; // the most recently started search, or null
+	private String previousSearchText; // the search text of the last completed search, or null
+	private List<User> previousSearchResults; // the results of the last completed search
+	// the repository modification count when the last completed search was started
+	private int previousSearchModificationCount;
+
+	/*
+	 * The following variables are used to reload users when the storage .txt file
+	 * is modified by another program while the application is open.
+	 */
+	private StorageFileWatcher storageFileWatcher; // notified when the storage .txt file is modified
+	private boolean isReloadRunning; // signifies if a reload is loading the storage .txt file
+	private boolean isReloadPending; // signifies if a reload was requested while it could not run
 
 	@FXML
 	private AnchorPane mainAnchorPane; // the Anchor Pane containing the majority of the UI
@@ -148,12 +230,15 @@ public class Controller implements Initializable {
 	 * The following JavaFX container and controls are associated with the Dashboard
 	 * view of the application. The Dashboard displays users and their properties in
 	 * a TableView, and provides controls to add, delete, edit, filter, or search
-	 * for users.
+	 * for users. Several users can be selected in the TableView and edited or
+	 * deleted together through the bulk action bar below it.
 	 */
 	// *----------
 	@FXML
 	private VBox dashboard; // the container containing the elements for the Dashboard
 	@FXML
+	private HBox dashboardHeader; // the Dashboard header, containing the filter, search, and add user controls
+	@FXML
 	private TableView<User> userTableView; // the TableView that displays users
 	@FXML
 	private TableColumn<User, String> emailColumn; // the TableView column that displays a user's EmailID
@@ -167,13 +252,33 @@ public class Controller implements Initializable {
 	private TableColumn<User, String> statusColumn; // the TableView column that displays a user's status
 
 	/*
-	 * The TableView column that displays a user's UserEditComboBox (the ComboBox
-	 * used to edit or delete a user)
+	 * The TableView column that displays a UserEditComboBox (the ComboBox used to
+	 * edit or delete a user) in each row, through a UserEditTableCell.
 	 */
 	@FXML
-	private TableColumn<User, UserEditComboBox> actionColumn;
+	private TableColumn<User, User> actionColumn;
 	@FXML
 	private TextField searchTextField; // the TextField used to search for a user
+	@FXML
+	private Button importButton; // the Button used to import users from a .csv file, disabled during an import
+	@FXML
+	private Button exportButton; // the Button used to export the displayed users, disabled during an import
+	@FXML
+	private Button reloadButton; // the Button used to reload users from the storage .txt file
+
+	/*
+	 * The bar below the user TableView containing the controls that set the role
+	 * or status of, or delete, every selected user. It is disabled when no user is
+	 * selected.
+	 */
+	@FXML
+	private HBox bulkActionBar;
+	@FXML
+	private Label selectedUsersLabel; // displays the number of selected users
+	@FXML
+	private ChoiceBox<Role> bulkRoleSelection; // the ChoiceBox used to select the role to give the selected users
+	@FXML
+	private ChoiceBox<Status> bulkStatusSelection; // the ChoiceBox used to select the status to give the selected users
 	// ----------*
 
 	
@@ -198,14 +303,14 @@ public class Controller implements Initializable {
 
 	/*
 	 * The ChoiceBox used to select which role to filter by. It is only enabled if
-	 * Role is the property being filtered.
+	 * Role (or Role and Status) is the property being filtered.
 	 */
 	@FXML
 	private ChoiceBox<Role> filterUserRoleSelection;
 
 	/*
 	 * The ChoiceBox used to select which status to filter by. It is only enabled if
-	 * Status is the property being filtered.
+	 * Status (or Role and Status) is the property being filtered.
 	 */
 	@FXML
 	private ChoiceBox<Status> filterUserStatusSelection;
@@ -332,6 +437,8 @@ public class Controller implements Initializable {
 	@FXML
 	private Label totalUsersLabel;
 	@FXML
+	private Label pendingWritesLabel; // displays the number of changes not yet written to the storage .txt file
+	@FXML
 	private Label currentStatusLabel;
 	// ----------*
 
@@ -367,16 +474,12 @@ public class Controller implements Initializable {
 		/*
 		 * The first name of the user is capitalized.
 		 */
-		String firstNameTextFieldInput = addUserFirstNameEntry.getText();
-		String firstNameCapitalized = firstNameTextFieldInput.substring(0, 1).toUpperCase()
-				+ firstNameTextFieldInput.substring(1);
+		String firstNameCapitalized = UserValidator.capitalize(addUserFirstNameEntry.getText());
 
 		/*
 		 * The last name of the user is capitalized.
 		 */
-		String lastNameTextFieldInput = addUserLastNameEntry.getText();
-		String lastNameCapitalized = lastNameTextFieldInput.substring(0, 1).toUpperCase()
-				+ lastNameTextFieldInput.substring(1);
+		String lastNameCapitalized = UserValidator.capitalize(addUserLastNameEntry.getText());
 
 		/*
 		 * A new user is created with information retrieved from the input controls,
@@ -384,13 +487,16 @@ public class Controller implements Initializable {
 		 */
 		User newAccount = new User(addUserEmailEntry.getText().toLowerCase(), firstNameCapitalized, lastNameCapitalized,
 				(Role) addUserRoleEntry.getSelectionModel().getSelectedItem(),
-				(Status) addUserStatusEntry.getSelectionModel().getSelectedItem(), false);
-		// the new user is added to the list and the storage .txt file is updated
-		mainUserList.add(newAccount);
-		fileIO.writeFile(STORAGE_FILE_NAME, mainUserList);
+				(Status) addUserStatusEntry.getSelectionModel().getSelectedItem());
+		/*
+		 * The new user is added to the list in role order and the addition is recorded
+		 * in the storage .txt file's change log.
+		 */
+		userRepository.add(newAccount);
+		persistenceService.recordAddition(newAccount);
 
-		populateAccountList(); // the account list is re-populated from the .txt file
-		setEditBoxOnAction(); // the UserEditComboBox of each user is reset their onAction
+		cancelSearch(); // a pending search is cancelled, as the main user list is displayed
+		userTableView.setItems(mainUserList); // the user TableView is set to display the main user list
 		updateTotalUsers(); // the total number of users label is updated
 		switchToDashboard(); // the view is switched to the dashboard, resetting the form
 
@@ -407,20 +513,337 @@ public class Controller implements Initializable {
 	}
 
 	/**
-	 * Deletes a user from the system. Called when "Delete User" is selected from an
-	 * UserEditComboBox associated with a user in the user TableView.
+	 * Imports users in bulk from a .csv file chosen by the user of the application,
+	 * called when the "Import" button is pressed in the Dashboard. The file is read
+	 * and checked by a UserImporter on a background thread; each batch of accepted
+	 * users is added on the JavaFX Application Thread, as the user list is
+	 * displayed, and written to the storage .txt file in a single write.
+	 * 
+	 * The current status label displays the progress of the import and, once it
+	 * finishes, the number of users imported and lines rejected. Rejected lines are
+	 * printed with the reason they were rejected.
+	 */
+	@FXML
+	private void importUsers() {
+
+		FileChooser fileChooser = new FileChooser();
+		fileChooser.setTitle("Import Users");
+		fileChooser.getExtensionFilters().addAll(new FileChooser.ExtensionFilter("CSV Files", "*.csv", "*.txt"),
+				new FileChooser.ExtensionFilter("All Files", "*.*"));
+		File importFile = fileChooser.showOpenDialog(userTableView.getScene().getWindow());
+		if (importFile == null) {
+			return; // the dialog was closed without choosing a file
+		}
+
+		UserImporter importer = new UserImporter(userRepository, persistenceService, INPUT_CHAR_LIMIT);
+		importer.setBatchSize(IMPORT_BATCH_SIZE);
+		/*
+		 * Each batch is committed on the JavaFX Application Thread, and the import
+		 * waits for the commit to finish before reading on.
+		 */
+		importer.setCommitter(commit -> {
+			FutureTask<Void> commitTask = new FutureTask<Void>(commit, null);
+			Platform.runLater(commitTask);
+			try {
+				commitTask.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				throw new RuntimeException(e.getCause());
+			}
+		});
+
+		Task<UserImporter.ImportResult> importTask = new Task<UserImporter.ImportResult>() {
+			@Override
+			protected UserImporter.ImportResult call() throws IOException {
+				return importer.importFile(importFile, progress -> updateMessage("Importing Users: "
+						+ progress.getImportedCount() + " imported, " + progress.getRejectedCount() + " rejected"));
+			}
+		};
+
+		/*
+		 * While the import runs, the current status label displays its progress and
+		 * the Import button is disabled.
+		 */
+		importButton.setDisable(true);
+		exportButton.setDisable(true); // the displayed users change as each batch is added
+		reloadButton.setDisable(true);
+		currentStatusLabel.setStyle("-fx-text-fill: #9f9f9f");
+		currentStatusLabel.setText("Importing Users...");
+		importTask.messageProperty().addListener((observable, oldMessage, newMessage) -> {
+			currentStatusLabel.setText(newMessage);
+			updateTotalUsers(); // the total users label is updated as each batch is added
+		});
+
+		importTask.setOnSucceeded(e -> {
+			UserImporter.ImportResult result = importTask.getValue();
+			for (UserImporter.RejectedRow currentRow : result.getRejectedRows()) {
+				System.out.println("Rejected " + currentRow + " " + currentRow.getLine());
+			}
+			if (result.getRejectedCount() > result.getRejectedRows().size()) {
+				System.out.println((result.getRejectedCount() - result.getRejectedRows().size())
+						+ " more line(s) rejected.");
+			}
+			if (result.getRejectedCount() > 0) {
+				System.out.println();
+			}
+			finishImport(
+					"Imported " + result.getImportedCount() + " User(s), " + result.getRejectedCount() + " Rejected",
+					result.getRejectedCount() == 0 ? "green" : "orange");
+		});
+		importTask.setOnFailed(e -> {
+			System.out.println(importTask.getException().getMessage());
+			System.out.println();
+			finishImport("Import Failed", "red");
+		});
+
+		Thread importThread = new Thread(importTask, "User Import");
+		importThread.setDaemon(true);
+		importThread.start();
+	}
+
+	/**
+	 * Re-enables the Import button and displays the main user list with the
+	 * imported users, displaying a message in the current status label for 3
+	 * seconds. Called when an import finishes or fails.
+	 * 
+	 * @param message
+	 * @param color
+	 */
+	private void finishImport(String message, String color) {
+
+		importButton.setDisable(false);
+		exportButton.setDisable(false);
+		reloadButton.setDisable(false);
+		cancelSearch(); // a pending search is cancelled, as the main user list is displayed
+		userTableView.setItems(mainUserList); // the user TableView is set to display the main user list
+		resetFilterForm(); // the filter user form is reset
+		updateTotalUsers(); // the total number of users label is updated
+
+		currentStatusLabel.setStyle("-fx-text-fill: " + color);
+		currentStatusLabel.setText(message);
+		Timeline timeline = new Timeline();
+		timeline.getKeyFrames().add(new KeyFrame(Duration.seconds(3), e -> updateCurrentStatus()));
+		timeline.setCycleCount(1);
+		Platform.runLater(timeline::play);
+	}
+
+	/**
+	 * Exports the users displayed in the user TableView (the current search or
+	 * filter results, or every user) to a file chosen by the user of the
+	 * application, in the format of the chosen file type. Called when the "Export"
+	 * button is pressed in the Dashboard.
+	 * 
+	 * The users are streamed to the file by a UserExporter on a background thread.
+	 * While the export runs, the Dashboard controls and the "Edit" column are
+	 * unavailable, as the users being written cannot be changed, and the current
+	 * status label displays its progress.
+	 */
+	@FXML
+	private void exportUsers() {
+
+		FileChooser fileChooser = new FileChooser();
+		fileChooser.setTitle("Export Users");
+		for (ExportFormat currentFormat : ExportFormat.values()) {
+			fileChooser.getExtensionFilters().add(
+					new FileChooser.ExtensionFilter(currentFormat.toString(), "*." + currentFormat.getExtension()));
+		}
+		fileChooser.setInitialFileName("users." + ExportFormat.CSV.getExtension());
+		File exportFile = fileChooser.showSaveDialog(userTableView.getScene().getWindow());
+		if (exportFile == null) {
+			return; // the dialog was closed without choosing a file
+		}
+
+		/*
+		 * The format is taken from the chosen file's extension, or from the chosen
+		 * file type if the file has no known extension.
+		 */
+		ExportFormat format = ExportFormat.forFileName(exportFile.getName());
+		if (format == null) {
+			int filterIndex = fileChooser.getExtensionFilters().indexOf(fileChooser.getSelectedExtensionFilter());
+			format = filterIndex < 0 ? ExportFormat.CSV : ExportFormat.values()[filterIndex];
+		}
+
+		List<User> displayedUsers = userTableView.getItems();
+		UserExporter exporter = new UserExporter(format);
+		Task<Integer> exportTask = new Task<Integer>() {
+			@Override
+			protected Integer call() throws IOException {
+				exporter.setProgressListener(exportedCount -> updateMessage(
+						"Exporting Users: " + exportedCount + " of " + displayedUsers.size()));
+				return exporter.export(displayedUsers, exportFile);
+			}
+		};
+
+		cancelSearch(); // a pending search is cancelled, as it would replace the displayed users
+		dashboardHeader.setDisable(true);
+		actionColumn.setVisible(false);
+		updateSelectedUsers(); // the bulk action bar is disabled
+		currentStatusLabel.setStyle("-fx-text-fill: #9f9f9f");
+		currentStatusLabel.setText("Exporting Users...");
+		exportTask.messageProperty()
+				.addListener((observable, oldMessage, newMessage) -> currentStatusLabel.setText(newMessage));
+
+		exportTask.setOnSucceeded(e -> finishExport("Exported " + exportTask.getValue() + " User(s)", "green"));
+		exportTask.setOnFailed(e -> {
+			System.out.println(exportTask.getException().getMessage());
+			System.out.println();
+			finishExport("Export Failed", "red");
+		});
+
+		Thread exportThread = new Thread(exportTask, "User Export");
+		exportThread.setDaemon(true);
+		exportThread.start();
+	}
+
+	/**
+	 * Re-enables the Dashboard controls and the "Edit" column, displaying a message
+	 * in the current status label for 3 seconds. Called when an export finishes or
+	 * fails.
+	 * 
+	 * @param message
+	 * @param color
+	 */
+	private void finishExport(String message, String color) {
+
+		dashboardHeader.setDisable(false);
+		actionColumn.setVisible(true);
+		updateSelectedUsers(); // the bulk action bar is enabled if users are selected
+
+		currentStatusLabel.setStyle("-fx-text-fill: " + color);
+		currentStatusLabel.setText(message);
+		Timeline timeline = new Timeline();
+		timeline.getKeyFrames().add(new KeyFrame(Duration.seconds(3), e -> updateCurrentStatus()));
+		timeline.setCycleCount(1);
+		Platform.runLater(timeline::play);
+	}
+
+	/**
+	 * Reloads the users from the storage .txt file, applying only the differences
+	 * from the main user list. Called when the "Reload" button is pressed in the
+	 * Dashboard, and when the storage file watcher sees the file modified by
+	 * another program. The file is otherwise only read on initialization, as the
+	 * main user list is updated in place as users are added, edited, and deleted.
+	 * 
+	 * Any pending changes are written first, so they are included in the loaded
+	 * users and not undone. The file is loaded, and compared with the main user
+	 * list by emailID, on a background thread, and only the users added, edited,
+	 * or removed are changed in the main user list, on the JavaFX Application
+	 * Thread. If users were modified in the meantime, the file is loaded again.
+	 * 
+	 * A reload is postponed while another is running or the displayed users cannot
+	 * be changed (while users are loaded, imported, or exported), and runs once
+	 * they finish.
+	 */
+	@FXML
+	private void reloadUsers() {
+
+		if (isReloadRunning || dashboardHeader.isDisabled() || importButton.isDisabled()) {
+			isReloadPending = true;
+			return;
+		}
+		isReloadRunning = true;
+		isReloadPending = false;
+		reloadButton.setDisable(true);
+
+		UserRepository repository = userRepository;
+		UserPersistenceService service = persistenceService;
+		int modificationCount = repository.getModificationCount(); // the users are modified on this thread
+		Task<UserChanges> reloadTask = new Task<UserChanges>() {
+			@Override
+			protected UserChanges call() throws IOException {
+				if (!service.flush(PERSISTENCE_SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+					throw new IOException("Pending changes could not be written to " + STORAGE_FILE_NAME + ".");
+				}
+				List<User> loadedUsers = fileIO.loadFile(STORAGE_FILE_NAME);
+				// a file that cannot be loaded is not mistaken for a file without users
+				if (fileIO.hasLoadFailed()) {
+					throw new IOException(STORAGE_FILE_NAME + " could not be reloaded.");
+				}
+				return repository.diff(loadedUsers);
+			}
+		};
+
+		reloadTask.setOnSucceeded(e -> {
+			isReloadRunning = false;
+			reloadButton.setDisable(false);
+			if (userRepository.getModificationCount() != modificationCount) {
+				reloadUsers(); // the changes were found before the latest modification
+				return;
+			}
+			finishReload(reloadTask.getValue());
+		});
+		reloadTask.setOnFailed(e -> {
+			System.out.println(reloadTask.getException().getMessage());
+			System.out.println();
+			isReloadRunning = false;
+			reloadButton.setDisable(false);
+			showReloadStatus("Reload Failed", "red");
+		});
+
+		Thread reloadThread = new Thread(reloadTask, "User Reload");
+		reloadThread.setDaemon(true);
+		reloadThread.start();
+	}
+
+	/**
+	 * Applies the differences between the main user list and the reloaded users,
+	 * and displays the main user list if any user changed, displaying the changes
+	 * in the current status label for 3 seconds. Called when a reload finishes.
+	 * 
+	 * @param changes
+	 */
+	private void finishReload(UserChanges changes) {
+
+		if (!changes.isEmpty()) {
+			userRepository.applyChanges(changes);
+			cancelSearch(); // a pending search is cancelled, as the main user list is displayed
+			userTableView.getSelectionModel().clearSelection();
+			userTableView.setItems(mainUserList); // the user TableView is set to display the main user list
+			updateTotalUsers(); // the total number of users label is updated
+			resetFilterForm(); // the filter user form is reset
+		}
+		showReloadStatus("Reloaded: " + changes, "green");
+	}
+
+	/**
+	 * Displays a message in the current status label for 3 seconds, and runs a
+	 * reload postponed while the last one ran. Called when a reload finishes or
+	 * fails.
+	 * 
+	 * @param message
+	 * @param color
+	 */
+	private void showReloadStatus(String message, String color) {
+
+		currentStatusLabel.setStyle("-fx-text-fill: " + color);
+		currentStatusLabel.setText(message);
+		Timeline timeline = new Timeline();
+		timeline.getKeyFrames().add(new KeyFrame(Duration.seconds(3), e -> updateCurrentStatus()));
+		timeline.setCycleCount(1);
+		Platform.runLater(timeline::play);
+
+		if (isReloadPending) {
+			reloadUsers();
+		}
+	}
+
+	/**
+	 * Deletes a user from the system. Called when "Delete User" is selected from the
+	 * UserEditComboBox in a user's row of the user TableView.
 	 * 
 	 * @param toDelete
 	 */
 	private void deleteUser(User toDelete) {
 
 		/*
-		 * The new user is deleted from the main user list and the storage .txt file is
-		 * updated.
+		 * The user is deleted from the main user list and the deletion is recorded in
+		 * the storage .txt file's change log.
 		 */
-		mainUserList.remove(toDelete);
-		fileIO.writeFile(STORAGE_FILE_NAME, mainUserList);
-		populateAccountList(); // the account list is re-populated from the .txt file
+		userRepository.remove(toDelete);
+		persistenceService.recordDeletion(toDelete);
+		cancelSearch(); // a pending search is cancelled, as the main user list is displayed
+		userTableView.setItems(mainUserList); // the user TableView is set to display the main user list
 		updateTotalUsers(); // the total number of users label is updated
 		resetFilterForm(); // the filter user form is reset
 
@@ -436,6 +859,100 @@ public class Controller implements Initializable {
 		Platform.runLater(timeline::play);
 	}
 
+	/**
+	 * Sets the role of every selected user to the role selected in the bulk action
+	 * bar. Called when the "Set Role" button is pressed in the Dashboard.
+	 * 
+	 * The users are moved to their new role in a single change to the main user
+	 * list, and the updates are written to the storage .txt file's change log in a
+	 * single write.
+	 */
+	@FXML
+	private void setRoleOfSelectedUsers() {
+
+		Role selectedRole = bulkRoleSelection.getSelectionModel().getSelectedItem();
+		if (selectedRole == null) {
+			bulkRoleSelection.setStyle("-fx-border-color: #ff9c9c"); // a role must be selected
+			return;
+		}
+
+		// the selection is copied, as it is cleared when the users are moved
+		List<User> selectedUsers = new ArrayList<User>(userTableView.getSelectionModel().getSelectedItems());
+		// only the users whose role was changed are written
+		List<User> updatedUsers = userRepository.setRoleAndStatus(selectedUsers, selectedRole, null);
+		persistenceService.recordUpdates(updatedUsers);
+		finishBulkAction(updatedUsers.size() + " User(s) Updated", "green");
+	}
+
+	/**
+	 * Sets the status of every selected user to the status selected in the bulk
+	 * action bar. Called when the "Set Status" button is pressed in the Dashboard.
+	 * 
+	 * The updates are written to the storage .txt file's change log in a single
+	 * write.
+	 */
+	@FXML
+	private void setStatusOfSelectedUsers() {
+
+		Status selectedStatus = bulkStatusSelection.getSelectionModel().getSelectedItem();
+		if (selectedStatus == null) {
+			bulkStatusSelection.setStyle("-fx-border-color: #ff9c9c"); // a status must be selected
+			return;
+		}
+
+		List<User> selectedUsers = new ArrayList<User>(userTableView.getSelectionModel().getSelectedItems());
+		// only the users whose status was changed are written
+		List<User> updatedUsers = userRepository.setRoleAndStatus(selectedUsers, null, selectedStatus);
+		persistenceService.recordUpdates(updatedUsers);
+		finishBulkAction(updatedUsers.size() + " User(s) Updated", "green");
+	}
+
+	/**
+	 * Deletes every selected user. Called when the "Delete Selected" button is
+	 * pressed in the Dashboard.
+	 * 
+	 * The users are removed in a single change to the main user list, and the
+	 * deletions are written to the storage .txt file's change log in a single
+	 * write.
+	 */
+	@FXML
+	private void deleteSelectedUsers() {
+
+		List<User> selectedUsers = new ArrayList<User>(userTableView.getSelectionModel().getSelectedItems());
+		userRepository.removeAll(selectedUsers);
+		persistenceService.recordDeletions(selectedUsers);
+		finishBulkAction(selectedUsers.size() + " User(s) Deleted", "red");
+	}
+
+	/**
+	 * Displays the main user list after a bulk action, clearing the selection and
+	 * the bulk action bar, and displays a message in the current status label for
+	 * 3 seconds.
+	 * 
+	 * @param message
+	 * @param color
+	 */
+	private void finishBulkAction(String message, String color) {
+
+		cancelSearch(); // a pending search is cancelled, as the main user list is displayed
+		userTableView.getSelectionModel().clearSelection();
+		userTableView.setItems(mainUserList); // the user TableView is set to display the main user list
+		updateTotalUsers(); // the total number of users label is updated
+		resetFilterForm(); // the filter user form is reset
+
+		bulkRoleSelection.getSelectionModel().clearSelection();
+		bulkRoleSelection.setStyle(null);
+		bulkStatusSelection.getSelectionModel().clearSelection();
+		bulkStatusSelection.setStyle(null);
+
+		currentStatusLabel.setStyle("-fx-text-fill: " + color);
+		currentStatusLabel.setText(message);
+		Timeline timeline = new Timeline();
+		timeline.getKeyFrames().add(new KeyFrame(Duration.seconds(3), e -> updateCurrentStatus()));
+		timeline.setCycleCount(1);
+		Platform.runLater(timeline::play);
+	}
+
 	/**
 	 * Edits a current user in the system with form input, called when the "Save
 	 * Changes" button is pressed in the Edit User form.
@@ -459,83 +976,81 @@ public class Controller implements Initializable {
 		 * The user to edit is retrieved by matching the email in the current user
 		 * emailID label with an account.
 		 */
+		User toEdit = userRepository.getUser(editUserEmailDisplay.getText());
+		// the user may have been removed from the storage .txt file by another program
+		if (toEdit == null) {
+			switchToDashboard();
+			return;
+		}
+		String previousEmailID = toEdit.getEmailID(); // the emailID before editing, as it may be changed
 
-		User toEdit = mainUserList.get(getUserIndexFromEmailID(editUserEmailDisplay.getText()));
+		/*
+		 * The user's updated properties. Each property is left unchanged unless there
+		 * is input in its control.
+		 */
+		String updatedFirstName = toEdit.getFirstName();
+		String updatedLastName = toEdit.getLastName();
+		String updatedEmailID = toEdit.getEmailID();
+		Role updatedRole = toEdit.getRole();
+		Status updatedStatus = toEdit.getStatus();
 
 		/*
 		 * If there is input in the first name TextField, the input is capitalized and
 		 * set to be the user's new first name.
 		 */
 		if (editUserFirstNameEntry.getText() != "") {
-			String firstNameTextFieldInput = editUserFirstNameEntry.getText();
-			String firstNameCapitalized = firstNameTextFieldInput.substring(0, 1).toUpperCase()
-					+ firstNameTextFieldInput.substring(1);
-			toEdit.setFirstName(firstNameCapitalized);
+			updatedFirstName = UserValidator.capitalize(editUserFirstNameEntry.getText());
 		}
 		/*
 		 * If there is input in the last name TextField, the input is capitalized and
 		 * set to be the user's new last name.
 		 */
 		if (editUserLastNameEntry.getText() != "") {
-			String lastNameTextFieldInput = editUserLastNameEntry.getText();
-			String lastNameCapitalized = lastNameTextFieldInput.substring(0, 1).toUpperCase()
-					+ lastNameTextFieldInput.substring(1);
-
-			toEdit.setLastName(lastNameCapitalized);
+			updatedLastName = UserValidator.capitalize(editUserLastNameEntry.getText());
 		}
 		/*
 		 * If there is input in the emailID TextField, the input is changed to lowercase
 		 * and set to be the user's new emailID.
 		 */
 		if (editUserEmailEntry.getText() != "") {
-			toEdit.setEmailID(editUserEmailEntry.getText().toLowerCase());
+			updatedEmailID = editUserEmailEntry.getText().toLowerCase();
 		}
 		/*
 		 * If there is a selection in the role ChoiceBox, the selection is set to be the
 		 * user's new role.
 		 */
 		if (!editUserRoleEntry.getSelectionModel().isEmpty()) {
-			toEdit.setRole((Role) editUserRoleEntry.getSelectionModel().getSelectedItem());
+			updatedRole = (Role) editUserRoleEntry.getSelectionModel().getSelectedItem();
 		}
 		/*
 		 * If there is a selection in the status ChoiceBox, the selection is set to be
 		 * the user's new status.
 		 */
 		if (!editUserStatusEntry.getSelectionModel().isEmpty()) {
-			toEdit.setStatus((Status) editUserStatusEntry.getSelectionModel().getSelectedItem());
+			updatedStatus = (Status) editUserStatusEntry.getSelectionModel().getSelectedItem();
 		}
 
-		fileIO.writeFile(STORAGE_FILE_NAME, mainUserList); // the storage .txt file is updated
+		/*
+		 * The user is updated through the repository, which re-keys the user if the
+		 * emailID was changed and moves the user if the role was changed.
+		 */
+		userRepository.update(toEdit, updatedEmailID, updatedFirstName, updatedLastName, updatedRole, updatedStatus);
+		// the update is recorded in the storage .txt file's change log
+		persistenceService.recordUpdate(previousEmailID, toEdit);
 
-		populateAccountList(); // the account list is re-populated from the .txt file
-		setEditBoxOnAction(); // the UserEditComboBox of each user is reset their onAction
-		updateTotalUsers(); // the total number of users label is updated
-		// the selection of the edited user's UserEditComboBox is cleared
-		toEdit.getEditComboBox().getSelectionModel().clearSelection();
+		cancelSearch(); // a pending search is cancelled, as the main user list is displayed
+		userTableView.setItems(mainUserList); // the user TableView is set to display the main user list
 		switchToDashboard(); // the view is switched to the dashboard, resetting the form
 
 	}
 
 	/**
-	 * Cancels the editing of a user, clears the form, switches the display to the
-	 * dashboard, and resets the edit box of the account being edited. Called when
-	 * the "Cancel" button is pressed in the Edit User form.
+	 * Cancels the editing of a user, clears the form, and switches the display to
+	 * the dashboard. Called when the "Cancel" button is pressed in the Edit User
+	 * form.
 	 */
 	@FXML
 	private void cancelEditUser() {
-
-		/*
-		 * The user that was being edited is retrieved by matching the email in the
-		 * current user emailID label with an account
-		 */
-		int userIndex = getUserIndexFromEmailID(editUserEmailDisplay.getText());
-		User userToResetEditBox = mainUserList.get(userIndex);
-
-		/*
-		 * The selection of the user's UserEditComboBox is cleared and the view is
-		 * switched to the dashboard, resetting the form.
-		 */
-		userToResetEditBox.getEditComboBox().getSelectionModel().clearSelection();
 		switchToDashboard();
 	}
 
@@ -543,7 +1058,9 @@ public class Controller implements Initializable {
 	 * Populates the Dashboard TableView with a list of users that have any property
 	 * containing an occurrence of the text from the search TextField.
 	 * 
-	 * This method is called when the text in the search TextField is edited.
+	 * This method is called when the text in the search TextField is edited. The
+	 * search itself is run by runSearch() once typing has paused for
+	 * SEARCH_DEBOUNCE_MILLIS.
 	 */
 	@FXML
 	private void searchUsers() {
@@ -553,55 +1070,100 @@ public class Controller implements Initializable {
 
 		String toFind = searchTextField.getText(); // the search input text
 
-		// the list of users containing an occurrence of the search text in any property
-		ObservableList<User> sortResults = FXCollections.observableArrayList();
-
 		/*
-		 * If the search input text is empty the TableView list is reset to show all
-		 * users, the placeholder text that displays when there are no users in the
-		 * system is reset to display appropriate information, and the method returns.
+		 * If the search input text is empty any pending search is cancelled, the
+		 * TableView list is reset to show all users, the placeholder text that displays
+		 * when there are no users in the system is reset to display appropriate
+		 * information, and the method returns.
 		 */
 		if (toFind.isEmpty()) {
+			cancelSearch();
 			userTableView.setItems(mainUserList);
 			userTableView.setPlaceholder(new Label("Add users to the system via the \"Add User\" tab above."));
 			return;
 		}
 
+		// the search is (re)scheduled to run once typing has paused
+		searchDebounce.playFromStart();
+	}
+
+	/**
+	 * Searches for users with any property containing the text from the search
+	 * TextField on a background thread, and displays the results in the Dashboard
+	 * TableView. Any search still running is cancelled, as its results are stale.
+	 * 
+	 * If the search text contains the text of the previous search and no users have
+	 * been modified since, only the previous results are searched, as every user
+	 * matching the new text also matched the previous text (for example, when
+	 * "jo" is extended to "joh").
+	 * 
+	 * Called when the search debounce finishes.
+	 */
+	private void runSearch() {
+
+		String toFind = searchTextField.getText(); // the search input text
+		if (toFind.isEmpty()) {
+			return;
+		}
+
+		cancelSearch(); // the previous search is cancelled if it is still running
+
+		int modificationCount = userRepository.getModificationCount();
+		List<User> searchWithin = null; // the previous results to search, or null to search every user
+		if (previousSearchText != null && previousSearchModificationCount == modificationCount
+				&& SearchKeys.normalize(toFind).contains(SearchKeys.normalize(previousSearchText))) {
+			searchWithin = previousSearchResults;
+		}
+
 		/*
-		 * The search input is checked for occurrences in each user in each property. If
-		 * any of a user's properties contains the search input, the user is a match and
-		 * is added to the results list.
-		 * 
-		 * Case sensitivity in matching is disabled by converting the user property
-		 * being matched and the search input to lower case.
+		 * The search is run by the query engine on the background search thread. Case
+		 * and accents are ignored in matching. Matches are looked up in the search
+		 * index rather than checking every user where possible.
 		 */
-		String toFindLowerCase = toFind.toLowerCase();
-		for (int i = 0; i < mainUserList.size(); i++) {
-			User currentAccount = mainUserList.get(i); // the current user being checked
-			if (!sortResults.contains(currentAccount)) {
-				/*
-				 * If any of the current user's properties contains the search input, the user
-				 * is a match and is added to the results list.
-				 */
-				if ((currentAccount.getEmailID().toLowerCase().contains(toFindLowerCase))
-						|| (currentAccount.getFirstName().toLowerCase().contains(toFindLowerCase))
-						|| (currentAccount.getLastName().toLowerCase().contains(toFindLowerCase))
-						|| (currentAccount.getRole().toString().toLowerCase().contains(toFindLowerCase))
-						|| (currentAccount.getStatus().toString().toLowerCase().contains(toFindLowerCase))) {
-					sortResults.add(currentAccount);
+		UserQuery query = new UserQuery();
+		query.setText(toFind);
+		final List<User> previousResults = searchWithin;
+		Task<List<User>> searchTask = new Task<List<User>>() {
+			@Override
+			protected List<User> call() {
+				if (previousResults != null) {
+					return queryEngine.executeWithin(previousResults, query);
 				}
+				return queryEngine.execute(query);
 			}
-		}
+		};
 
 		/*
-		 * The placeholder text in the TableView is set to display
-		 * "No accounts matching search criteria.", as the only time this would display
-		 * is when there are no users in the results list, implying that there were no
-		 * users matching the search input.
+		 * When the search completes (and was not cancelled), its results are recorded
+		 * for narrowing the next search and displayed in the TableView. The
+		 * placeholder text is set to display "No accounts matching search criteria.",
+		 * as the only time this would display is when there are no users in the
+		 * results list, implying that there were no users matching the search input.
 		 */
-		userTableView.setPlaceholder(new Label("No accounts matching search criteria."));
-		userTableView.setItems(sortResults);
+		searchTask.setOnSucceeded(e -> {
+			previousSearchText = toFind;
+			previousSearchResults = searchTask.getValue();
+			previousSearchModificationCount = modificationCount;
+			userTableView.setPlaceholder(new Label("No accounts matching search criteria."));
+			userTableView.setItems(FXCollections.observableList(searchTask.getValue()));
+		});
 
+		currentSearchTask = searchTask;
+		searchExecutor.execute(searchTask);
+	}
+
+	/**
+	 * Cancels a scheduled search and interrupts a running search, so that its
+	 * results are not displayed. Called when the TableView is set to display other
+	 * users, and before a new search is run.
+	 */
+	private void cancelSearch() {
+
+		searchDebounce.stop();
+		if (currentSearchTask != null) {
+			currentSearchTask.cancel(true);
+			currentSearchTask = null;
+		}
 	}
 
 	/**
@@ -613,143 +1175,78 @@ public class Controller implements Initializable {
 	private void filterUsers() {
 
 		/*
-		 * The list of users matching filter criteria to display in the Dashboard
-		 * TableView.
+		 * The query for the users matching the filter criteria, run by the query
+		 * engine.
 		 */
-
-		ObservableList<User> filterResults = FXCollections.observableArrayList();
+		UserQuery query = new UserQuery();
 
 		/*
 		 * Used to determine the user property to filter. Its value is set by the index
 		 * of the selection of the filter selection ChoiceBox.
 		 * 
-		 * 0 = EmailID 1 = First Name 2 = Last Name 3 = Role 4 = Status
+		 * 0 = EmailID 1 = First Name 2 = Last Name 3 = Role 4 = Status 5 = Role and Status
 		 */
 		int filterBySelectionIndex = filterUserFilterBy.getSelectionModel().getSelectedIndex();
 		/*
-		 * The appropriate controls are accessed and the results list is populated
-		 * depending on the above selection.
+		 * The query is described by the appropriate controls depending on the above
+		 * selection.
 		 */
 		switch (filterBySelectionIndex) {
-		// the user property to filter the list by is EmailID
+		/*
+		 * The user property to filter the list by is EmailID, First Name, or Last Name.
+		 * The results are a view of every user in lexicographic order by the property,
+		 * taken from the repository's sorted index for the property without sorting or
+		 * copying the users. If the RadioButton filterUserAscending is selected, the view
+		 * is in reverse lexicographic order.
+		 */
 		case 0:
-
-			// the results list is populated with every user
-			for (int i = 0; i < mainUserList.size(); i++) {
-				filterResults.add(mainUserList.get(i));
-			}
-			/*
-			 * The list is sorted lexicographically by EmailID. If the RadioButton
-			 * filterUserAscending is selected, the list is sorted in reverse lexicographic
-			 * order.
-			 */
-			Collections.sort(filterResults, new LexicographicEmailIDComparator());
-			if (filterUserAscending.isSelected()) {
-				Collections.reverse(filterResults);
-			}
-
+			query.setSortField(UserSortField.EMAIL_ID);
+			query.setDescending(filterUserAscending.isSelected());
 			break;
-		// the user property to filter the list by is First Name
 		case 1:
-
-			// the results list is populated with every user
-			for (int i = 0; i < mainUserList.size(); i++) {
-				filterResults.add(mainUserList.get(i));
-			}
-			/*
-			 * The list is sorted lexicographically by First Name. If the RadioButton
-			 * filterUserAscending is selected, the list is sorted in reverse lexicographic
-			 * order.
-			 */
-			Collections.sort(filterResults, new LexicographicFirstNameComparator());
-			if (filterUserAscending.isSelected()) {
-				Collections.reverse(filterResults);
-			}
-
+			query.setSortField(UserSortField.FIRST_NAME);
+			query.setDescending(filterUserAscending.isSelected());
 			break;
-		// the user property to filter the list by is Last Name
 		case 2:
-
-			// the results list is populated with every user
-			for (int i = 0; i < mainUserList.size(); i++) {
-				filterResults.add(mainUserList.get(i));
-			}
-			/*
-			 * The list is sorted lexicographically by Last Name. If the RadioButton
-			 * filterUserAscending is selected, the list is sorted in reverse lexicographic
-			 * order.
-			 */
-			Collections.sort(filterResults, new LexicographicLastNameComparator());
-			if (filterUserAscending.isSelected()) {
-				Collections.reverse(filterResults);
-			}
-
+			query.setSortField(UserSortField.LAST_NAME);
+			query.setDescending(filterUserAscending.isSelected());
 			break;
-		// the user property to filter the list by is Role
+		/*
+		 * The user property to filter the list by is Role, Status, or both. Users
+		 * matching the selected role and/or status are listed first, followed by the
+		 * remaining accounts unless a CheckBox used to toggle displaying only the
+		 * selected role or status is selected. The results are built from the
+		 * repository's role buckets in linear time.
+		 */
 		case 3:
-
-			// the role to filter the list by is retrieved from the role selection ChoiceBox
-			Role roleToMatch = (Role) filterUserRoleSelection.getSelectionModel().getSelectedItem();
-			// users that are of the above role type are added to the results list
-			for (int i = 0; i < mainUserList.size(); i++) {
-				if (mainUserList.get(i).getRole().equals(roleToMatch)) {
-					filterResults.add(mainUserList.get(i));
-				}
-			}
-
-			/*
-			 * The remaining accounts are added to the results list, unless the CheckBox
-			 * used to toggle displaying only the selected role is selected.
-			 */
-			if (!filterUserOnlyRole.isSelected()) {
-				for (int i = 0; i < mainUserList.size(); i++) {
-					/*
-					 * Every account in the main user list that is not already in the results list
-					 * is added to the results list.
-					 */
-					if (!filterResults.contains(mainUserList.get(i))) {
-						filterResults.add(mainUserList.get(i));
-					}
-				}
-			}
-
+			query.setRole(filterUserRoleSelection.getSelectionModel().getSelectedItem());
+			query.setOnlyMatching(filterUserOnlyRole.isSelected());
 			break;
-		// the user property to filter the list by is Status
 		case 4:
-
-			// The status to filter the list by is retrieved from the status selection
-			// ChoiceBox.
-			Status statusToMatch = (Status) filterUserStatusSelection.getSelectionModel().getSelectedItem();
-			// users that are of the above status type are added to the results list
-			for (int i = 0; i < mainUserList.size(); i++) {
-				if (mainUserList.get(i).getStatus().equals(statusToMatch)) {
-					filterResults.add(mainUserList.get(i));
-				}
-			}
-
-			/*
-			 * The remaining accounts are added to the results list, unless the CheckBox
-			 * used to toggle displaying only the selected status is selected.
-			 */
-			if (!filterUserOnlyStatus.isSelected()) {
-				for (int i = 0; i < mainUserList.size(); i++) {
-					/*
-					 * Every account in the main user list that is not already in the results list
-					 * is added to the results list.
-					 */
-					if (!filterResults.contains(mainUserList.get(i))) {
-						filterResults.add(mainUserList.get(i));
-					}
-				}
-			}
-
+			query.setStatus(filterUserStatusSelection.getSelectionModel().getSelectedItem());
+			query.setOnlyMatching(filterUserOnlyStatus.isSelected());
+			break;
+		case 5:
+			query.setRole(filterUserRoleSelection.getSelectionModel().getSelectedItem());
+			query.setStatus(filterUserStatusSelection.getSelectionModel().getSelectedItem());
+			query.setOnlyMatching(filterUserOnlyRole.isSelected() || filterUserOnlyStatus.isSelected());
 			break;
 		}
 
+		/*
+		 * The list of users matching filter criteria to display in the Dashboard
+		 * TableView. A view of a sorted index is displayed as it is.
+		 */
+		List<User> queryResults = queryEngine.execute(query);
+		ObservableList<User> filterResults = queryResults instanceof ObservableList
+				? (ObservableList<User>) queryResults
+				: FXCollections.observableList(queryResults);
+
 		/*
 		 * This placeholder will display if no accounts are added to the results list,
 		 * implying that there were no accounts matching the search criteria.
 		 */
+		cancelSearch(); // a pending search is cancelled, as the filter results are displayed
 		userTableView.setPlaceholder(new Label("No accounts matching filter criteria."));
 		userTableView.setItems(filterResults); // the user TableView is set to display the filter results list
 		switchToDashboard(); // the view is switched to the dashboard, resetting the form
@@ -765,6 +1262,7 @@ public class Controller implements Initializable {
 	private void clearSearchAndFilter() {
 
 		searchTextField.clear(); // the TextField used for searching for a user is cleared
+		cancelSearch(); // a pending search is cancelled
 		// the placeholder text for the user TableView is reset
 		userTableView.setPlaceholder(new Label("Add users to the system via the \"Add User\" button above."));
 		userTableView.setItems(mainUserList); // the user TableView is set to display the main user list
@@ -841,8 +1339,9 @@ public class Controller implements Initializable {
 
 	/**
 	 * Switches the display to the Edit User form. Called when "Edit User" is
-	 * selected from an UserEditComboBox associated with a user in the user
-	 * TableView.
+	 * selected from the UserEditComboBox in a user's row of the user TableView.
+	 * 
+	 * @param currentUser
 	 */
 	private void switchToEditUserForm(User currentUser) {
 
@@ -869,17 +1368,147 @@ public class Controller implements Initializable {
 
 	/**
 	 * Loads accounts from the storage file into a main user list and makes them
-	 * visible in the user TableView. Called in various places to populate the main
-	 * user list.
+	 * visible in the user TableView. Called on initialization; afterwards the main
+	 * user list is updated in place as users are added, edited, or deleted, and the
+	 * file is only read again when the "Reload" button is pressed.
 	 */
 	private void populateAccountList() {
 
-		mainUserList = fileIO.loadFile(STORAGE_FILE_NAME); // loads accounts from the storage .txt file into the main
-															// user list
+		// a small storage .txt file is loaded immediately
+		if (fileIO.getStorageFile(STORAGE_FILE_NAME).length() < PAGED_LOAD_THRESHOLD) {
+			// loads accounts from the storage .txt file into the main user list, and builds the repository
+			finishPopulatingAccountList(new UserRepository(fileIO.loadFile(STORAGE_FILE_NAME)));
+			return;
+		}
+
+		/*
+		 * The Dashboard controls and the "Edit" column are unavailable until the main
+		 * user list is loaded, and the table is empty until the paged user list is
+		 * displayed.
+		 */
+		userTableView.setItems(FXCollections.observableArrayList());
+		dashboardHeader.setDisable(true);
+		actionColumn.setVisible(false);
+		updateSelectedUsers();
+		updateTotalUsers();
+
+		/*
+		 * Every user is loaded, and the repository built, on a background thread. The
+		 * file is first mapped on the same thread, which finds the start of every row,
+		 * so the JavaFX Application Thread never waits for the file to be read. A file
+		 * without pending changes in its change log is then displayed from the mapped
+		 * file a page at a time until the main user list replaces it. If loading fails,
+		 * the system is started with no users, as it is when the storage .txt file
+		 * cannot be read.
+		 */
+		boolean isPaged = !fileIO.hasChangeLog(STORAGE_FILE_NAME);
+		Task<UserRepository> loadTask = new Task<UserRepository>() {
+			@Override
+			protected UserRepository call() {
+				if (isPaged) {
+					MappedUserFile mappedFile = fileIO.mapFile(STORAGE_FILE_NAME);
+					if (mappedFile != null) {
+						// displayed before the load finishes, as runLater() runs in order
+						Platform.runLater(() -> displayPagedUserList(mappedFile));
+					}
+				}
+				return new UserRepository(fileIO.loadFile(STORAGE_FILE_NAME));
+			}
+		};
+		loadTask.setOnSucceeded(e -> finishPopulatingAccountList(loadTask.getValue()));
+		loadTask.setOnFailed(e -> {
+			System.out.println(loadTask.getException().getMessage());
+			System.out.println();
+			finishPopulatingAccountList(new UserRepository(FXCollections.observableArrayList()));
+		});
+		Thread loadThread = new Thread(loadTask, "User Loading");
+		loadThread.setDaemon(true);
+		loadThread.start();
+	}
+
+	/**
+	 * Displays the users of the mapped storage file a page at a time while the main
+	 * user list is loaded, so the Dashboard shows the correct number of users before
+	 * any user is loaded. The paged users are only copies for display.
+	 * 
+	 * @param mappedFile
+	 */
+	private void displayPagedUserList(MappedUserFile mappedFile) {
+
+		pagedUserList = new PagedUserList(mappedFile);
+		/*
+		 * An incorrectly formatted row fails the load, and the table is emptied as it
+		 * is when loadFile() fails. The table is not changed while it is reading the
+		 * row, so this is done later on the JavaFX Application Thread.
+		 */
+		pagedUserList.setLoadFailedListener(() -> Platform.runLater(() -> {
+			if (pagedUserList != null) {
+				userTableView.setItems(FXCollections.observableArrayList());
+				updateTotalUsers();
+			}
+		}));
+		userTableView.setItems(pagedUserList); // the user TableView is set to display the paged user list
+		updateTotalUsers(); // the total users label is updated
+	}
+
+	/**
+	 * Displays the main user list once it is loaded, replacing the paged user list
+	 * if it was displayed, and starts the persistence service and the storage file
+	 * watcher.
+	 * 
+	 * @param loadedRepository
+	 */
+	private void finishPopulatingAccountList(UserRepository loadedRepository) {
+
+		userRepository = loadedRepository; // the emailID index is built
+		queryEngine = new UserQueryEngine(userRepository, ForkJoinPool.commonPool());
+		mainUserList = userRepository.getUserList();
+		pagedUserList = null;
 		userTableView.setItems(mainUserList); // the user TableView is set to display the main user list
+		dashboardHeader.setDisable(false);
+		actionColumn.setVisible(true);
+		updateSelectedUsers();
+
+		/*
+		 * Changes are written by the persistence service. When the change log is
+		 * compacted, the service writes a copy of the users taken from the repository.
+		 * The pending writes label is updated on the JavaFX Application Thread.
+		 */
+		persistenceService = new UserPersistenceService(fileIO, STORAGE_FILE_NAME, userRepository::copyUsers);
+		persistenceService.setPendingWriteListener(count -> Platform.runLater(() -> updatePendingWrites(count)));
 
 		updateTotalUsers(); // the total users label is updated
-		setEditBoxOnAction(); // every UserEditComboBox's onAction is reset
+
+		/*
+		 * The storage .txt file is watched for modifications by other programs, which
+		 * are reloaded. The application's own writes are ignored.
+		 */
+		storageFileWatcher = new StorageFileWatcher(fileIO.getStorageFile(STORAGE_FILE_NAME), () -> {
+			if (fileIO.isChangedExternally(STORAGE_FILE_NAME)) {
+				Platform.runLater(this::reloadUsers);
+			}
+		});
+		try {
+			storageFileWatcher.start();
+		} catch (IOException e) {
+			System.out.println(e.getMessage());
+			System.out.println();
+		}
+		// a modification made while the users were loaded is reloaded
+		if (fileIO.isChangedExternally(STORAGE_FILE_NAME)) {
+			reloadUsers();
+		}
+	}
+
+	/**
+	 * Updates the pending writes label with the number of changes waiting to be
+	 * written to the storage .txt file. The label is empty when every change has
+	 * been written.
+	 * 
+	 * @param pendingWriteCount
+	 */
+	private void updatePendingWrites(int pendingWriteCount) {
+		pendingWritesLabel.setText(pendingWriteCount == 0 ? "" : "Saving " + pendingWriteCount + " change(s)...");
 	}
 
 	/**
@@ -890,9 +1519,12 @@ public class Controller implements Initializable {
 
 		/*
 		 * The total users label is set to display the current number of users in the
-		 * system, calculated by retrieving the size of the main user list.
+		 * system, calculated by retrieving the size of the main user list (or of the
+		 * paged user list, while the main user list is loaded, unless it failed to
+		 * load or is not yet displayed).
 		 */
-		int totalAccounts = mainUserList.size();
+		int totalAccounts = mainUserList != null ? mainUserList.size()
+				: pagedUserList == null || pagedUserList.hasLoadFailed() ? 0 : pagedUserList.size();
 		totalUsersLabel.setText("Users: " + totalAccounts);
 	}
 
@@ -924,25 +1556,20 @@ public class Controller implements Initializable {
 	}
 
 	/**
-	 * Gets the index of user in the main user list from an emailID.
-	 * 
-	 * @param emailID
-	 * @return
+	 * Updates the selected users label with the number of users selected in the
+	 * user TableView, and enables the bulk action bar if any user is selected.
+	 * Called when the selection changes, and when the Dashboard controls are
+	 * enabled or disabled.
 	 */
-	private int getUserIndexFromEmailID(String emailID) {
+	private void updateSelectedUsers() {
 
+		int selectedCount = userTableView.getSelectionModel().getSelectedIndices().size();
+		selectedUsersLabel.setText(selectedCount == 0 ? "No Users Selected" : selectedCount + " User(s) Selected");
 		/*
-		 * If the emailID being searched for matches an account, the index of that
-		 * account in the main user list is returned.
+		 * The bar is also disabled while the Dashboard controls are, as the displayed
+		 * users are then copies (while loading) or being exported.
 		 */
-		for (int i = 0; i < mainUserList.size(); i++) {
-			if (mainUserList.get(i).getEmailID().equals(emailID)) {
-				return i;
-			}
-		}
-
-		return -1; // returns -1 if no accounts match the emailID being searched for
-
+		bulkActionBar.setDisable(selectedCount == 0 || dashboardHeader.isDisabled());
 	}
 
 	/**
@@ -963,6 +1590,7 @@ public class Controller implements Initializable {
 		 * 2 = Last Name 
 		 * 3 = Role 
 		 * 4 = Status
+		 * 5 = Role and Status
 		 */
 		int filterBySelectionIndex = filterUserFilterBy.getSelectionModel().getSelectedIndex();
 		/*
@@ -1103,6 +1731,30 @@ public class Controller implements Initializable {
 			filterUserOnlyStatus.setSelected(false);
 			filterUserOnlyStatus.setDisable(false);
 			break;
+		// the user properties to filter the list by are Role and Status
+		case 5:
+			// role and status selection are both enabled
+			filterUserRoleSelection.setDisable(false);
+			filterUserStatusSelection.setDisable(false);
+
+			/*
+			 * The ascending and descending selection radio buttons are disabled as they are
+			 * not applicable to filtering by role and status.
+			 */
+			filterUserAscending.setSelected(false);
+			filterUserAscending.setDisable(true);
+			filterUserDescending.setSelected(false);
+			filterUserDescending.setDisable(true);
+
+			/*
+			 * Both CheckBoxes are enabled and de-selected. Selecting either displays only
+			 * the users of both the selected role and the selected status.
+			 */
+			filterUserOnlyRole.setSelected(false);
+			filterUserOnlyRole.setDisable(false);
+			filterUserOnlyStatus.setSelected(false);
+			filterUserOnlyStatus.setDisable(false);
+			break;
 		}
 	}
 
@@ -1393,7 +2045,7 @@ public class Controller implements Initializable {
 		/*
 		 * Ensures correct formatting for an email address.
 		 */
-		if (!isEmailCorrectFormat(attemptedEmail)) {
+		if (!UserValidator.isEmailCorrectFormat(attemptedEmail)) {
 			label.setText("Incorrectly formatted email.");
 			textField.setStyle("-fx-border-color: #ff9c9c");
 			label.setVisible(true);
@@ -1403,65 +2055,18 @@ public class Controller implements Initializable {
 		/*
 		 * Ensures that the email is not already in use in another account.
 		 * 
-		 * The email being checked is compared against the email of each existing
-		 * account. If it matches the email of an existing account, the input error
-		 * label is made visible, the error text is set to "The email [attemptedEmail]
-		 * is already in use with another account. Please try a different one.", and red
-		 * error styling is added to the control.
-		 */
-		for (int i = 0; i < mainUserList.size(); i++) {
-			if (attemptedEmail.equals(mainUserList.get(i).getEmailID())) {
-				label.setText("The email \"" + attemptedEmail
-						+ "\" is already in use with another account. Please try a different one.");
-				label.setVisible(true);
-				textField.clear();
-				textField.setStyle("-fx-border-color: #ff9c9c");
-				return false;
-			}
-		}
-
-		return true;
-	}
-
-	/**
-	 * Checks an inputed email for correct format. Correct format is determined by
-	 * the presence of one period (.) and one at (@) sign.
-	 * 
-	 * @param emailToCheck
-	 * @return
-	 */
-	private boolean isEmailCorrectFormat(String emailToCheck) {
-
-		/*
-		 * The email is checked to ensure it contains exactly one period, returning
-		 * false if not.
+		 * The email being checked is looked up in the repository's emailID index. If
+		 * it matches the email of an existing account, the input error label is made
+		 * visible, the error text is set to "The email [attemptedEmail] is already in
+		 * use with another account. Please try a different one.", and red error
+		 * styling is added to the control.
 		 */
-		int periodCounter = 0;
-		for (int i = 0; i < emailToCheck.length(); i++) {
-			if (emailToCheck.charAt(i) == '.') {
-				periodCounter++;
-			}
-		}
-		// if there not exactly one period in the String, the email is incorrectly
-		// formatted
-		if (periodCounter != 1) {
-			return false;
-		}
-
-		/*
-		 * The email is checked to ensure it contains exactly one at sign, returning
-		 * false if not.
-		 */
-		int atCounter = 0;
-		for (int i = 0; i < emailToCheck.length(); i++) {
-			if (emailToCheck.charAt(i) == '@') {
-				atCounter++;
-			}
-
-		}
-		// if there not exactly one at sign in the String, the email is incorrectly
-		// formatted
-		if (atCounter != 1) {
+		if (userRepository.containsEmailID(attemptedEmail)) {
+			label.setText("The email \"" + attemptedEmail
+					+ "\" is already in use with another account. Please try a different one.");
+			label.setVisible(true);
+			textField.clear();
+			textField.setStyle("-fx-border-color: #ff9c9c");
 			return false;
 		}
 
@@ -1502,51 +2107,6 @@ public class Controller implements Initializable {
 		editUserInputError.setVisible(false);
 	}
 
-	/**
-	 * Sets the onAction method for each user's UserEditComboBox.
-	 */
-	private void setEditBoxOnAction() {
-
-		/*
-		 * The UserEditComboBox for each user is retrieved and set the UserEditComboBox
-		 * onAction method.
-		 */
-		for (int i = 0; i < mainUserList.size(); i++) {
-			UserEditComboBox currentEditBox = mainUserList.get(i).getEditComboBox();
-			currentEditBox.setOnAction(e -> {
-				userEditBoxOnAction(e);
-			});
-		}
-	}
-
-	/**
-	 * The onAction method for user UserEditComboBoxes. Called when a selection is
-	 * made in a user's UserEditComboBox from the Dashboard. Action is determined
-	 * depending on which selection is made.
-	 * 
-	 * @param e
-	 */
-	private void userEditBoxOnAction(Event e) {
-
-		/*
-		 * The user the UserEditComboBox is associated with is retrieved.
-		 */
-		UserEditComboBox currentEditBox = (UserEditComboBox) e.getSource();
-		User currentUser = currentEditBox.getAssociatedAccount();
-		// the index of the selection of the UserEditComboBox
-		int selectionIndex = currentEditBox.getSelectionModel().getSelectedIndex();
-		switch (selectionIndex) {
-		// If index 0 is selected (Edit User), the view switched to the Edit User form
-		case 0:
-			switchToEditUserForm(currentUser);
-			break;
-		// If index 1 is selected (Delete User), the user is deleted
-		case 1:
-			deleteUser(currentUser);
-			break;
-		}
-	}
-
 	/**
 	 * Called to initialize the controller after its root element has been
 	 * completely processed.
@@ -1587,7 +2147,14 @@ public class Controller implements Initializable {
 		lastNameColumn.setCellValueFactory(new PropertyValueFactory<User, String>("lastName"));
 		roleColumn.setCellValueFactory(new PropertyValueFactory<User, String>("role"));
 		statusColumn.setCellValueFactory(new PropertyValueFactory<User, String>("status"));
-		actionColumn.setCellValueFactory(new PropertyValueFactory<User, UserEditComboBox>("editComboBox"));
+		/*
+		 * The action column displays the row's user through a UserEditTableCell, which
+		 * shows a UserEditComboBox used to edit or delete the user. Cells (and their
+		 * ComboBoxes) are only created for visible rows, and are reused as the
+		 * TableView is scrolled.
+		 */
+		actionColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<User>(cellData.getValue()));
+		actionColumn.setCellFactory(column -> new UserEditTableCell(this::switchToEditUserForm, this::deleteUser));
 
 		// reordering is disabled for each column
 		firstNameColumn.setReorderable(false);
@@ -1598,10 +2165,12 @@ public class Controller implements Initializable {
 		actionColumn.setReorderable(false);
 
 		/*
-		 * The TableView is set to disallow row selection via a custom
-		 * TableViewSelectionModel object.
+		 * Several rows can be selected (with Shift or Ctrl/Cmd, or every row with
+		 * Ctrl/Cmd+A) and edited or deleted together through the bulk action bar.
 		 */
-		userTableView.setSelectionModel(new NullTableViewSelectionModel(userTableView));
+		userTableView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+		userTableView.getSelectionModel().getSelectedIndices()
+				.addListener((ListChangeListener<Integer>) change -> updateSelectedUsers());
 		// horizontal scrolling is disabled
 		userTableView.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
 
@@ -1611,6 +2180,18 @@ public class Controller implements Initializable {
 		 */
 		userTableView.setPlaceholder(new Label("Add users to the system via the \"Add User\" button above."));
 
+		/*
+		 * Searches are run once typing in the search TextField has paused, on a single
+		 * background (daemon) thread.
+		 */
+		searchDebounce = new PauseTransition(Duration.millis(SEARCH_DEBOUNCE_MILLIS));
+		searchDebounce.setOnFinished(e -> runSearch());
+		searchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread searchThread = new Thread(runnable, "User Search");
+			searchThread.setDaemon(true);
+			return searchThread;
+		});
+
 		// styling when the TableView is focused is made a softer color
 		userTableView.setFocusTraversable(false);
 		userTableView.setStyle("-fx-faint-focus-color: transparent");
@@ -1626,11 +2207,10 @@ public class Controller implements Initializable {
 		ObservableList<Status> statusChoices = FXCollections.observableArrayList();
 		statusChoices.addAll(Status.ACTIVE_EMPLOYEE, Status.INACTIVE_EMPLOYEE, Status.DISABLED_ACCOUNT);
 
-		/*
-		 * The ComboBoxes associated with each user that allow for editing and deletion
-		 * are set an onAction method.
-		 */
-		setEditBoxOnAction();
+		// the bulk action bar's role and status selection ChoiceBoxes are set their list of options
+		bulkRoleSelection.setItems(roleChoices);
+		bulkStatusSelection.setItems(statusChoices);
+		updateSelectedUsers();
 
 		// the Filter Users, Add User, and Edit User forms are initialized
 		initializeFilterUserForm(roleChoices, statusChoices);
@@ -1651,7 +2231,7 @@ public class Controller implements Initializable {
 		 * property to filter.
 		 */
 		ObservableList<String> filterChoices = FXCollections.observableArrayList();
-		filterChoices.addAll("Email/ID", "First Name", "Last Name", "Role", "Status");
+		filterChoices.addAll("Email/ID", "First Name", "Last Name", "Role", "Status", "Role and Status");
 		filterUserFilterBy.setItems(filterChoices);
 		/*
 		 * The remaining controls in the filter form are enabled or disabled based on
@@ -1727,101 +2307,34 @@ public class Controller implements Initializable {
 	}
 
 	/**
-	 * Exits the program. Called by the "Quit" menu item under File.
+	 * Exits the program, first writing any pending changes to the storage .txt
+	 * file. Called by the "Quit" menu item under File.
 	 */
 	@FXML
 	private void quit() {
+		shutdownPersistence();
 		System.exit(0);
 	}
 
-	// CLASSES
-
-	/**
-	 * A Comparator used to sort a list of Users in lexicographic order by First
-	 * Name.
-	 */
-	private class LexicographicFirstNameComparator implements Comparator<User> {
-
-		@Override
-		public int compare(User user1, User user2) {
-			return user1.getFirstName().compareTo(user2.getFirstName());
-		}
-
-	}
-
-	/**
-	 * A Comparator used to sort a list of Users in lexicographic order by Last
-	 * Name.
-	 */
-	private class LexicographicLastNameComparator implements Comparator<User> {
-
-		@Override
-		public int compare(User user1, User user2) {
-			return user1.getLastName().compareTo(user2.getLastName());
-		}
-
-	}
-
 	/**
-	 * A Comparator used to sort a list of Users in lexicographic order by EmailID.
+	 * Stops watching the storage .txt file, then writes any pending changes to it
+	 * and stops the persistence service, waiting up to
+	 * PERSISTENCE_SHUTDOWN_SECONDS. Called when the application exits.
 	 */
-	private class LexicographicEmailIDComparator implements Comparator<User> {
-
-		@Override
-		public int compare(User user1, User user2) {
-			return user1.getEmailID().compareTo(user2.getEmailID());
-		}
-
-	}
-
-	/**
-	 * An object of this class is used to prevent row selection in the Dashboard
-	 * user list TableView. getSelectedCells() is overridden to return an empty
-	 * ObservableList.
-	 */
-	private class NullTableViewSelectionModel extends TableView.TableViewSelectionModel {
-
-		public NullTableViewSelectionModel(TableView tableView) {
-			super(tableView);
-		}
-
-		@Override
-		public ObservableList getSelectedCells() {
-			return FXCollections.emptyObservableList();
-		}
-
-		@Override
-		public boolean isSelected(int row, TableColumn column) {
-			return false;
-		}
-
-		@Override
-		public void select(int row, TableColumn column) {
-		}
-
-		@Override
-		public void clearAndSelect(int row, TableColumn column) {
-		}
-
-		@Override
-		public void clearSelection(int row, TableColumn column) {
-		}
-
-		@Override
-		public void selectLeftCell() {
-		}
-
-		@Override
-		public void selectRightCell() {
-		}
-
-		@Override
-		public void selectAboveCell() {
+	void shutdownPersistence() {
+		// the final writes are not modifications by another program
+		if (storageFileWatcher != null) {
+			try {
+				storageFileWatcher.close();
+			} catch (IOException e) {
+				System.out.println(e.getMessage());
+				System.out.println();
+			}
 		}
-
-		@Override
-		public void selectBelowCell() {
+		if (persistenceService != null
+				&& !persistenceService.shutdown(PERSISTENCE_SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+			System.out.println("Pending changes could not be written to " + STORAGE_FILE_NAME + ".");
+			System.out.println();
 		}
-
 	}
 }
@@ -0,0 +1,28 @@
+package frankdesilets.User_Manager;
+
+/**
+ * This type represents how often UserFileIO forces written data to the storage
+ * device (fsync), trading the time a write takes against the changes that can
+ * be lost if the system crashes or loses power. Storage files are always
+ * replaced atomically, so a crash never leaves a partly written storage file.
+ */
+public enum Durability {
+
+	/*
+	 * Data is never forced, and is written to the device whenever the operating
+	 * system chooses. Changes made shortly before a power loss may be lost.
+	 */
+	NONE,
+	/*
+	 * Each storage file write, and each group of change log records appended
+	 * together, is forced once before the write returns.
+	 */
+	PER_BATCH,
+	/*
+	 * Every change log record is forced as it is written, and the storage
+	 * directory is forced after a storage file is replaced, so the replacement
+	 * itself survives a power loss.
+	 */
+	PER_WRITE;
+
+}
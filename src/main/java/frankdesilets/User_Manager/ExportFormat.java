@@ -0,0 +1,61 @@
+package frankdesilets.User_Manager;
+
+/**
+ * This type represents the formats users can be exported in by a UserExporter.
+ */
+public enum ExportFormat {
+
+	/*
+	 * Comma-separated text, one user per line after a line naming the columns.
+	 * The file can be imported by a UserImporter.
+	 */
+	CSV("CSV", "csv"),
+	/*
+	 * One JSON object per line, with the properties emailID, firstName, lastName,
+	 * role, and status.
+	 */
+	JSON_LINES("JSON Lines", "jsonl"),
+	/*
+	 * The binary snapshot format of UserSnapshotFile. The file can be used as a
+	 * storage file.
+	 */
+	SNAPSHOT("User Snapshot", "usr");
+
+	private String displayName; // the name of the format, as displayed
+	private String extension; // the file extension of the format, without the period
+
+	private ExportFormat(String displayName, String extension) {
+		this.displayName = displayName;
+		this.extension = extension;
+	}
+
+	/**
+	 * Returns the file extension of the format, without the period.
+	 * 
+	 * @return
+	 */
+	public String getExtension() {
+		return extension;
+	}
+
+	/**
+	 * Returns the format with a file's extension, or null if no format has it.
+	 * 
+	 * @param fileName
+	 * @return
+	 */
+	public static ExportFormat forFileName(String fileName) {
+		for (ExportFormat currentFormat : values()) {
+			if (fileName.toLowerCase().endsWith("." + currentFormat.extension)) {
+				return currentFormat;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return displayName;
+	}
+
+}
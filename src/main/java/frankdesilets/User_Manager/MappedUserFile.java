@@ -0,0 +1,393 @@
+package frankdesilets.User_Manager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * An object of this class is a user storage file mapped into memory, used to
+ * open very large files without reading every user. Opening the file only
+ * locates the start of each line (row); the fields of a row are decoded from
+ * the mapped bytes as UTF-8 when they are requested, so a view such as the
+ * Dashboard TableView decodes only the rows it displays.
+ * 
+ * The bytes of ',' and '\n' never occur inside a multi-byte UTF-8 character, so
+ * rows and fields are located by scanning bytes, without decoding. A line ending
+ * in "\r\n" is treated the same as one ending in "\n".
+ * 
+ * A file is mapped in regions of at most DEFAULT_REGION_SIZE bytes, as a single
+ * MappedByteBuffer cannot exceed 2 GB. The mapped file is read-only and can be
+ * read from several threads.
+ */
+public class MappedUserFile {
+
+	public static final int DEFAULT_REGION_SIZE = 1 << 30; // the maximum size of each mapped region
+
+	/*
+	 * Constants used to test eight bytes at once for a '\n' byte: a word XORed with
+	 * NEWLINES has a zero byte wherever the word has a '\n'.
+	 */
+	private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+	private static final long LOW_BITS = 0x0101010101010101L;
+	private static final long HIGH_BITS = 0x8080808080808080L;
+
+	private String fileName; // the name of the mapped file
+	private MappedByteBuffer[] regions; // the mapped regions of the file, in order
+	private int regionSize; // the size of every region except the last
+	private long fileLength; // the length of the file in bytes
+	private int userProperties; // the number of fields in a correctly formatted row
+	/*
+	 * The offset of the first byte of each row, followed by a final offset one past
+	 * the line terminator of the last row (so the terminator of a row is at the
+	 * next row's offset - 1).
+	 */
+	private long[] rowOffsets;
+	private int rowCount; // the number of rows in the file
+
+	/**
+	 * Maps a user storage file into memory and locates its rows.
+	 * 
+	 * @param file
+	 * @param userProperties
+	 * @return
+	 * @throws IOException
+	 */
+	public static MappedUserFile map(Path file, int userProperties) throws IOException {
+		return map(file, userProperties, DEFAULT_REGION_SIZE);
+	}
+
+	/**
+	 * Maps a user storage file into memory in regions of the given size and locates
+	 * its rows. Smaller regions are mainly useful for testing rows that cross a
+	 * region boundary.
+	 * 
+	 * @param file
+	 * @param userProperties
+	 * @param regionSize
+	 * @return
+	 * @throws IOException
+	 */
+	public static MappedUserFile map(Path file, int userProperties, int regionSize) throws IOException {
+
+		MappedUserFile mappedFile = new MappedUserFile();
+		mappedFile.fileName = file.getFileName().toString();
+		mappedFile.userProperties = userProperties;
+		mappedFile.regionSize = regionSize;
+
+		/*
+		 * The mapping remains valid after the channel is closed, and is released when
+		 * the buffers are garbage collected.
+		 */
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			mappedFile.fileLength = channel.size();
+			int regionCount = (int) ((mappedFile.fileLength + regionSize - 1) / regionSize);
+			mappedFile.regions = new MappedByteBuffer[regionCount];
+			for (int i = 0; i < regionCount; i++) {
+				long regionStart = (long) i * regionSize;
+				mappedFile.regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, regionStart,
+						Math.min(regionSize, mappedFile.fileLength - regionStart));
+			}
+		}
+
+		mappedFile.locateRows();
+		return mappedFile;
+	}
+
+	/**
+	 * Objects of this class are created with map().
+	 */
+	private MappedUserFile() {
+	}
+
+	/**
+	 * Returns the name of the mapped file.
+	 * 
+	 * @return
+	 */
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * Returns the number of rows (lines) in the file.
+	 * 
+	 * @return
+	 */
+	public int size() {
+		return rowCount;
+	}
+
+	/**
+	 * Returns the offset in the file of the first byte of a row.
+	 * 
+	 * @param row
+	 * @return
+	 */
+	public long getRowOffset(int row) {
+		checkRow(row);
+		return rowOffsets[row];
+	}
+
+	/**
+	 * Returns the length in bytes of a row, excluding its line terminator.
+	 * 
+	 * @param row
+	 * @return
+	 */
+	public int getRowLength(int row) {
+		checkRow(row);
+		return (int) (getRowEnd(row) - rowOffsets[row]);
+	}
+
+	/**
+	 * Returns true if a row contains exactly one field per user property, ignoring
+	 * trailing empty fields (the same check made by UserFileIO.loadFile()).
+	 * 
+	 * @param row
+	 * @return
+	 */
+	public boolean isCorrectFormat(int row) {
+		checkRow(row);
+		return findFieldEnds(row) != null;
+	}
+
+	/**
+	 * Checks every row for correct formatting, returning the line number (starting
+	 * at 1) of the first incorrectly formatted row, or -1 if every row is correctly
+	 * formatted.
+	 * 
+	 * @return
+	 */
+	public int findMalformedLineNumber() {
+		for (int row = 0; row < rowCount; row++) {
+			if (findFieldEnds(row) == null) {
+				return row + 1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Decodes and returns a single field of a row, or null if the row has no such
+	 * field.
+	 * 
+	 * @param row
+	 * @param property
+	 * @return
+	 */
+	public String getField(int row, int property) {
+
+		checkRow(row);
+		long rowEnd = getRowEnd(row);
+		long fieldStart = rowOffsets[row];
+		for (int i = 0; i < property; i++) {
+			long delimiter = indexOfComma(fieldStart, rowEnd);
+			if (delimiter < 0) {
+				return null;
+			}
+			fieldStart = delimiter + 1;
+		}
+		long fieldEnd = indexOfComma(fieldStart, rowEnd);
+		return decode(fieldStart, fieldEnd < 0 ? rowEnd : fieldEnd);
+	}
+
+	/**
+	 * Decodes the user in a row, or returns null if the row is incorrectly
+	 * formatted. A new User is created on each call.
+	 * 
+	 * @param row
+	 * @return
+	 */
+	public User getUser(int row) {
+
+		checkRow(row);
+		long[] fieldEnds = findFieldEnds(row);
+		if (fieldEnds == null) {
+			return null;
+		}
+
+		String[] fields = new String[userProperties];
+		long fieldStart = rowOffsets[row];
+		for (int i = 0; i < userProperties; i++) {
+			fields[i] = decode(fieldStart, fieldEnds[i]);
+			fieldStart = fieldEnds[i] + 1;
+		}
+		return new User(fields[0], fields[1], fields[2], UserFileIO.stringToRole(fields[3]),
+				UserFileIO.stringToStatus(fields[4]));
+	}
+
+	/**
+	 * Scans the mapped bytes once for line terminators, recording the offset of the
+	 * first byte of each row.
+	 */
+	private void locateRows() {
+
+		rowOffsets = new long[1024];
+		rowCount = 0;
+		if (fileLength == 0) {
+			rowOffsets[0] = 0;
+			return;
+		}
+
+		rowOffsets[rowCount++] = 0;
+		for (int i = 0; i < regions.length; i++) {
+			ByteBuffer region = regions[i].duplicate().order(ByteOrder.nativeOrder());
+			long regionStart = (long) i * regionSize;
+			int regionLimit = region.limit();
+
+			/*
+			 * The region is read eight bytes at a time. A word containing no '\n' byte is
+			 * skipped with a single test; the bytes of any other word are checked one by
+			 * one. (The test can report a '\n' where there is none, but never misses one.)
+			 */
+			int j = 0;
+			for (; j + Long.BYTES <= regionLimit; j += Long.BYTES) {
+				long word = region.getLong(j) ^ NEWLINES;
+				if (((word - LOW_BITS) & ~word & HIGH_BITS) != 0) {
+					for (int k = j; k < j + Long.BYTES; k++) {
+						if (region.get(k) == '\n') {
+							addRow(regionStart + k + 1);
+						}
+					}
+				}
+			}
+			for (; j < regionLimit; j++) {
+				if (region.get(j) == '\n') {
+					addRow(regionStart + j + 1);
+				}
+			}
+		}
+
+		// the final offset is one past the terminator of the last row, which may have none
+		rowOffsets[rowCount] = byteAt(fileLength - 1) == '\n' ? fileLength : fileLength + 1;
+		rowOffsets = Arrays.copyOf(rowOffsets, rowCount + 1);
+	}
+
+	/**
+	 * Records the start of a row, following a line terminator. A terminator at the
+	 * very end of the file does not start another row.
+	 * 
+	 * @param rowStart
+	 */
+	private void addRow(long rowStart) {
+		if (rowStart < fileLength) {
+			if (rowCount + 1 == rowOffsets.length) {
+				rowOffsets = Arrays.copyOf(rowOffsets, rowOffsets.length * 2);
+			}
+			rowOffsets[rowCount++] = rowStart;
+		}
+	}
+
+	/**
+	 * Returns the offset of each field's end (its delimiter, or the end of the row
+	 * before any trailing delimiters for the last field), or null if the row is
+	 * incorrectly formatted.
+	 * 
+	 * @param row
+	 * @return
+	 */
+	private long[] findFieldEnds(int row) {
+
+		long rowEnd = getRowEnd(row);
+		// trailing delimiters are ignored, as in UserFileIO.loadFile()
+		while (rowEnd > rowOffsets[row] && byteAt(rowEnd - 1) == ',') {
+			rowEnd--;
+		}
+		long[] fieldEnds = new long[userProperties];
+		long fieldStart = rowOffsets[row];
+		for (int i = 0; i < userProperties - 1; i++) {
+			long delimiter = indexOfComma(fieldStart, rowEnd);
+			// there are fewer fields than user properties
+			if (delimiter < 0) {
+				return null;
+			}
+			fieldEnds[i] = delimiter;
+			fieldStart = delimiter + 1;
+		}
+		// there are more fields than user properties, or the last field is empty
+		if (indexOfComma(fieldStart, rowEnd) >= 0 || fieldStart == rowEnd) {
+			return null;
+		}
+		fieldEnds[userProperties - 1] = rowEnd;
+		return fieldEnds;
+	}
+
+	/**
+	 * Returns the offset of the end of a row's content, excluding "\n" or "\r\n".
+	 * 
+	 * @param row
+	 * @return
+	 */
+	private long getRowEnd(int row) {
+		long rowEnd = rowOffsets[row + 1] - 1;
+		if (rowEnd > rowOffsets[row] && byteAt(rowEnd - 1) == '\r') {
+			rowEnd--;
+		}
+		return rowEnd;
+	}
+
+	/**
+	 * Returns the offset of the first ',' between start (inclusive) and end
+	 * (exclusive), or -1 if there is none.
+	 * 
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	private long indexOfComma(long start, long end) {
+		for (long i = start; i < end; i++) {
+			if (byteAt(i) == ',') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Decodes the bytes between start (inclusive) and end (exclusive) as UTF-8.
+	 * 
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	private String decode(long start, long end) {
+
+		if (end == start) {
+			return "";
+		}
+
+		byte[] bytes = new byte[(int) (end - start)];
+		int region = (int) (start / regionSize);
+		int regionOffset = (int) (start % regionSize);
+
+		if (regionOffset + bytes.length <= regions[region].limit()) {
+			// the bytes are copied in bulk through a duplicate, so the region's position is not shared between threads
+			ByteBuffer source = regions[region].duplicate();
+			source.position(regionOffset);
+			source.get(bytes);
+		} else {
+			// the bytes cross into the next region
+			for (int i = 0; i < bytes.length; i++) {
+				bytes[i] = byteAt(start + i);
+			}
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private byte byteAt(long position) {
+		return regions[(int) (position / regionSize)].get((int) (position % regionSize));
+	}
+
+	private void checkRow(int row) {
+		if (row < 0 || row >= rowCount) {
+			throw new IndexOutOfBoundsException("Row " + row + " is out of bounds for " + rowCount + " rows.");
+		}
+	}
+
+}
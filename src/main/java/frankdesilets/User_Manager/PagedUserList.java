@@ -0,0 +1,195 @@
+package frankdesilets.User_Manager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * An object of this class is a read-only list of the users of a mapped storage
+ * file (see MappedUserFile) that decodes users in fixed-size pages as they are
+ * requested. A TableView displaying the list requests only the rows it shows,
+ * so the list can be displayed as soon as the file is mapped, before any user
+ * has been decoded, and its size is the correct number of users from the start.
+ * 
+ * Decoded pages are kept in a least recently used cache of at most
+ * maximumCachedPages pages, so scrolling back to recently viewed rows does not
+ * decode them again, while memory use stays bounded however large the file is.
+ * 
+ * An incorrectly formatted row fails the load as UserFileIO.loadFile() does: its
+ * line number is recorded and printed (see getMalformedLineNumber()), and the
+ * load failed listener is notified so the list can be replaced. A blank
+ * placeholder user is returned for the row, so no null item reaches the
+ * TableView in the meantime.
+ * 
+ * The list is not synchronized and should be read from a single thread (the
+ * JavaFX Application Thread when displayed in a TableView).
+ */
+public class PagedUserList extends ObservableListBase<User> {
+
+	public static final int DEFAULT_PAGE_SIZE = 256; // the number of users decoded together
+	public static final int DEFAULT_MAXIMUM_CACHED_PAGES = 64; // the number of pages kept decoded
+
+	private MappedUserFile file; // the mapped storage file the users are decoded from
+	private int pageSize; // the number of users in each page
+	private LinkedHashMap<Integer, User[]> pages; // the decoded pages, keyed by page number, in access order
+	private int decodedPageCount; // the number of pages decoded, including pages since evicted
+	private int malformedLineNumber = -1; // the line number of the first incorrectly formatted row found
+	private Runnable loadFailedListener = () -> {
+	}; // notified when the first incorrectly formatted row is found
+	private User malformedRowPlaceholder; // returned in place of incorrectly formatted rows
+
+	/**
+	 * Accepts the mapped storage file, and creates a list using the default page
+	 * size and cache size.
+	 * 
+	 * @param file
+	 */
+	public PagedUserList(MappedUserFile file) {
+		this(file, DEFAULT_PAGE_SIZE, DEFAULT_MAXIMUM_CACHED_PAGES);
+	}
+
+	/**
+	 * Accepts the mapped storage file, the number of users in each page, and the
+	 * maximum number of decoded pages to keep.
+	 * 
+	 * @param file
+	 * @param pageSize
+	 * @param maximumCachedPages
+	 */
+	public PagedUserList(MappedUserFile file, int pageSize, int maximumCachedPages) {
+		this.file = file;
+		this.pageSize = pageSize;
+		// an access-ordered LinkedHashMap evicts its least recently used page once full
+		this.pages = new LinkedHashMap<Integer, User[]>(maximumCachedPages * 2, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, User[]> eldest) {
+				return size() > maximumCachedPages;
+			}
+		};
+	}
+
+	/**
+	 * Returns the user at an index, decoding its page if the page is not cached.
+	 * 
+	 * @param index
+	 * @return
+	 */
+	@Override
+	public User get(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+		}
+		int pageNumber = index / pageSize;
+		User[] page = pages.get(pageNumber);
+		if (page == null) {
+			page = decodePage(pageNumber);
+			pages.put(pageNumber, page);
+		}
+		return page[index - pageNumber * pageSize];
+	}
+
+	/**
+	 * Returns the number of users in the file.
+	 * 
+	 * @return
+	 */
+	@Override
+	public int size() {
+		return file.size();
+	}
+
+	/**
+	 * Sets the listener notified, on the thread reading the list, when the first
+	 * incorrectly formatted row is found. The listener is called while the list is
+	 * being read (for example, during a TableView layout), so it should not modify
+	 * the TableView directly.
+	 * 
+	 * @param loadFailedListener
+	 */
+	public void setLoadFailedListener(Runnable loadFailedListener) {
+		this.loadFailedListener = loadFailedListener;
+	}
+
+	/**
+	 * Returns true if an incorrectly formatted row has been found.
+	 * 
+	 * @return
+	 */
+	public boolean hasLoadFailed() {
+		return malformedLineNumber >= 0;
+	}
+
+	/**
+	 * Returns the line number (starting at 1) of the first incorrectly formatted
+	 * row found, or -1 if none has been found. Only decoded rows are checked.
+	 * 
+	 * @return
+	 */
+	public int getMalformedLineNumber() {
+		return malformedLineNumber;
+	}
+
+	/**
+	 * Returns the number of pages currently cached.
+	 * 
+	 * @return
+	 */
+	public int getCachedPageCount() {
+		return pages.size();
+	}
+
+	/**
+	 * Returns the number of pages decoded since the list was created, including
+	 * pages decoded again after being evicted from the cache.
+	 * 
+	 * @return
+	 */
+	public int getDecodedPageCount() {
+		return decodedPageCount;
+	}
+
+	/**
+	 * Decodes the users of a page. The last page may hold fewer than pageSize
+	 * users. An incorrectly formatted row is reported (see reportMalformedRow())
+	 * and decoded as the placeholder.
+	 * 
+	 * @param pageNumber
+	 * @return
+	 */
+	private User[] decodePage(int pageNumber) {
+		int firstRow = pageNumber * pageSize;
+		User[] page = new User[Math.min(pageSize, size() - firstRow)];
+		for (int i = 0; i < page.length; i++) {
+			page[i] = file.getUser(firstRow + i);
+			if (page[i] == null) {
+				page[i] = reportMalformedRow(firstRow + i);
+			}
+		}
+		decodedPageCount++;
+		return page;
+	}
+
+	/**
+	 * Records and prints the line number of the first incorrectly formatted row
+	 * found, as UserFileIO.loadFile() does, and notifies the load failed listener.
+	 * Returns the placeholder for the row.
+	 * 
+	 * @param row
+	 * @return
+	 */
+	private User reportMalformedRow(int row) {
+		if (malformedLineNumber < 0) {
+			malformedLineNumber = row + 1;
+			System.out.println("Incorrectly formatted line " + malformedLineNumber + " in " + file.getFileName() + ".");
+			System.out.println();
+			loadFailedListener.run();
+		}
+		// the placeholder has no properties, so its row is displayed blank
+		if (malformedRowPlaceholder == null) {
+			malformedRowPlaceholder = new User("", "", "", null, null);
+		}
+		return malformedRowPlaceholder;
+	}
+
+}
@@ -0,0 +1,274 @@
+package frankdesilets.User_Manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An object of this class loads the users of a storage file on several threads
+ * (see UserFileIO.loadFileParallel()).
+ * 
+ * The file is split into byte ranges (chunks) that each begin at the start of a
+ * line. Every chunk is read and parsed by a task on a ForkJoinPool, which checks
+ * each line for correct formatting as it converts it to a User, so the file is
+ * validated in the same pass. The chunks' users are then joined in file order.
+ * 
+ * Lines are split as UTF-8 bytes: the bytes of ',' and '\n' never occur inside a
+ * multi-byte UTF-8 character. A line ending in "\r\n" is treated the same as one
+ * ending in "\n".
+ */
+class ParallelUserFileLoader {
+
+	private static final int MINIMUM_CHUNK_SIZE = 1 << 20; // chunks are not made smaller than 1 MB
+	private static final int MAXIMUM_CHUNK_SIZE = 1 << 28; // chunks are read into arrays of at most 256 MB
+	private static final int CHUNKS_PER_THREAD = 4; // extra chunks even out the work between threads
+
+	private int userProperties; // the number of fields in a correctly formatted line
+	private int malformedLineNumber = -1; // the line number of the first incorrectly formatted line, or -1
+
+	/**
+	 * The only constructor for this class accepts the number of user properties,
+	 * used to check file formatting.
+	 * 
+	 * @param userProperties
+	 */
+	ParallelUserFileLoader(int userProperties) {
+		this.userProperties = userProperties;
+	}
+
+	/**
+	 * Loads the users of a storage file using the given pool. If an incorrectly
+	 * formatted line is found, its line number is recorded (see
+	 * getMalformedLineNumber()) and null is returned.
+	 * 
+	 * @param file
+	 * @param pool
+	 * @return
+	 * @throws IOException
+	 */
+	ArrayList<User> load(File file, ForkJoinPool pool) throws IOException {
+
+		malformedLineNumber = -1;
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+
+			long[] chunkStarts = findChunkStarts(channel, pool.getParallelism());
+			int chunkCount = chunkStarts.length - 1;
+
+			/*
+			 * Every chunk is parsed by its own task. Positional reads from a FileChannel
+			 * are safe to make from several threads. Once a chunk finds an incorrectly
+			 * formatted line, later chunks stop, as their results will not be used.
+			 */
+			AtomicInteger firstMalformedChunk = new AtomicInteger(Integer.MAX_VALUE);
+			List<ForkJoinTask<Chunk>> tasks = new ArrayList<ForkJoinTask<Chunk>>(chunkCount);
+			for (int i = 0; i < chunkCount; i++) {
+				Chunk chunk = new Chunk(i, chunkStarts[i], chunkStarts[i + 1]);
+				tasks.add(pool.submit(() -> {
+					try {
+						chunk.parse(channel, firstMalformedChunk);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+					return chunk;
+				}));
+			}
+
+			/*
+			 * The chunks are joined in order. The line number of an incorrectly formatted
+			 * line is found by adding the line counts of the chunks before it.
+			 */
+			int totalUsers = 0;
+			List<Chunk> chunks = new ArrayList<Chunk>(chunkCount);
+			for (ForkJoinTask<Chunk> task : tasks) {
+				try {
+					chunks.add(task.join());
+				} catch (UncheckedIOException e) {
+					throw e.getCause();
+				}
+			}
+			int linesBefore = 0;
+			for (Chunk chunk : chunks) {
+				if (chunk.malformedLine >= 0) {
+					malformedLineNumber = linesBefore + chunk.malformedLine + 1;
+					return null;
+				}
+				linesBefore += chunk.lineCount;
+				totalUsers += chunk.users.size();
+			}
+
+			ArrayList<User> loadedUsers = new ArrayList<User>(totalUsers);
+			for (Chunk chunk : chunks) {
+				loadedUsers.addAll(chunk.users);
+			}
+			return loadedUsers;
+		}
+	}
+
+	/**
+	 * Returns the line number (starting at 1) of the first incorrectly formatted
+	 * line found by the most recent load, or -1 if every line was correctly
+	 * formatted.
+	 * 
+	 * @return
+	 */
+	int getMalformedLineNumber() {
+		return malformedLineNumber;
+	}
+
+	/**
+	 * Splits the file into chunks, returning the offset of the first byte of each
+	 * chunk followed by the length of the file. Each chunk after the first begins
+	 * just after a '\n'.
+	 * 
+	 * @param channel
+	 * @param parallelism
+	 * @return
+	 * @throws IOException
+	 */
+	private long[] findChunkStarts(FileChannel channel, int parallelism) throws IOException {
+
+		long fileLength = channel.size();
+		long chunkCount = Math.max(1,
+				Math.min((long) parallelism * CHUNKS_PER_THREAD, fileLength / MINIMUM_CHUNK_SIZE));
+		chunkCount = Math.max(chunkCount, fileLength / MAXIMUM_CHUNK_SIZE + 1);
+
+		long[] chunkStarts = new long[(int) chunkCount + 1];
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		for (int i = 1; i < chunkCount; i++) {
+
+			// the chunk begins after the first '\n' at or after its evenly split position
+			long position = Math.max(fileLength * i / chunkCount, chunkStarts[i - 1]);
+			long chunkStart = fileLength;
+			while (position < fileLength && chunkStart == fileLength) {
+				buffer.clear();
+				int bytesRead = channel.read(buffer, position);
+				for (int j = 0; j < bytesRead; j++) {
+					if (buffer.get(j) == '\n') {
+						chunkStart = position + j + 1;
+						break;
+					}
+				}
+				position += bytesRead;
+			}
+			chunkStarts[i] = chunkStart;
+		}
+		chunkStarts[(int) chunkCount] = fileLength;
+		return chunkStarts;
+	}
+
+	/**
+	 * An object of this class is a chunk of the file and the result of parsing it.
+	 */
+	private class Chunk {
+
+		private int index; // the position of this chunk in the file
+		private long start; // the offset of the chunk's first byte
+		private long end; // the offset one past the chunk's last byte
+		private ArrayList<User> users = new ArrayList<User>(); // the users parsed from the chunk
+		private int lineCount; // the number of lines parsed
+		private int malformedLine = -1; // the index in the chunk of the first incorrectly formatted line, or -1
+
+		private Chunk(int index, long start, long end) {
+			this.index = index;
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * Reads the chunk's bytes and parses each line into a User, stopping at the
+		 * first incorrectly formatted line, or if an earlier chunk has found one.
+		 * 
+		 * @param channel
+		 * @param firstMalformedChunk
+		 * @throws IOException
+		 */
+		private void parse(FileChannel channel, AtomicInteger firstMalformedChunk) throws IOException {
+
+			int length = (int) (end - start);
+			ByteBuffer buffer = ByteBuffer.allocate(length);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, start + buffer.position()) < 0) {
+					break;
+				}
+			}
+			byte[] bytes = buffer.array();
+
+			String[] fields = new String[userProperties]; // reused for each line of the chunk
+			int lineStart = 0;
+			while (lineStart < length) {
+
+				if (index > firstMalformedChunk.get()) {
+					return;
+				}
+
+				int lineEnd = lineStart;
+				while (lineEnd < length && bytes[lineEnd] != '\n') {
+					lineEnd++;
+				}
+				int contentEnd = lineEnd > lineStart && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+
+				if (!splitLine(bytes, lineStart, contentEnd, fields)) {
+					malformedLine = lineCount;
+					firstMalformedChunk.accumulateAndGet(index, Math::min);
+					return;
+				}
+				users.add(new User(fields[0], fields[1], fields[2], UserFileIO.stringToRole(fields[3]),
+						UserFileIO.stringToStatus(fields[4])));
+				lineCount++;
+				lineStart = lineEnd + 1;
+			}
+		}
+
+		/**
+		 * Splits the bytes of a line around delimiter ',' into the given array, which
+		 * must have one element per user property, decoding each field as UTF-8.
+		 * Returns false if the line does not contain exactly one field per user
+		 * property, ignoring trailing empty fields (the same check made by
+		 * UserFileIO.loadFile()).
+		 * 
+		 * @param bytes
+		 * @param lineStart
+		 * @param lineEnd
+		 * @param fields
+		 * @return
+		 */
+		private boolean splitLine(byte[] bytes, int lineStart, int lineEnd, String[] fields) {
+
+			// trailing delimiters are ignored, as in UserFileIO.loadFile()
+			while (lineEnd > lineStart && bytes[lineEnd - 1] == ',') {
+				lineEnd--;
+			}
+
+			int fieldIndex = 0;
+			int fieldStart = lineStart;
+			for (int i = lineStart; i < lineEnd; i++) {
+				if (bytes[i] == ',') {
+					// there are more fields than user properties
+					if (fieldIndex == fields.length - 1) {
+						return false;
+					}
+					fields[fieldIndex++] = new String(bytes, fieldStart, i - fieldStart, StandardCharsets.UTF_8);
+					fieldStart = i + 1;
+				}
+			}
+			// there are fewer fields than user properties, or the last field is empty
+			if (fieldIndex != fields.length - 1 || fieldStart == lineEnd) {
+				return false;
+			}
+			fields[fieldIndex] = new String(bytes, fieldStart, lineEnd - fieldStart, StandardCharsets.UTF_8);
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,264 @@
+package frankdesilets.User_Manager;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An object of this class holds users in one bucket per Role, indexed by the
+ * role's ordinal. Walking the buckets in turn visits the users in descending
+ * order by Role (the order displayed in the Dashboard and written to the
+ * storage .txt file), so users never need to be sorted by role. Users of the
+ * same role keep the order they were added in.
+ * 
+ * Adding a user appends it to the bucket of its role. A user's role must not be
+ * changed while it is held; it should be removed, changed, and added again.
+ */
+public class RoleBuckets extends AbstractList<User> {
+
+	private static final Role[] ROLES = Role.values(); // the role of each bucket
+
+	private ArrayList<ArrayList<User>> buckets; // the users of each role, indexed by role ordinal
+	private int size; // the number of users in every bucket
+
+	/**
+	 * Creates empty buckets.
+	 */
+	public RoleBuckets() {
+		buckets = new ArrayList<ArrayList<User>>(ROLES.length);
+		for (int i = 0; i < ROLES.length; i++) {
+			buckets.add(new ArrayList<User>());
+		}
+	}
+
+	/**
+	 * Creates buckets holding the given users, in a single pass over them.
+	 * 
+	 * @param users
+	 */
+	public RoleBuckets(Collection<User> users) {
+		this();
+		for (User currentUser : users) {
+			add(currentUser);
+		}
+	}
+
+	/**
+	 * Returns true if a list of users is in descending order by Role, the order
+	 * the buckets are walked in.
+	 * 
+	 * @param users
+	 * @return
+	 */
+	public static boolean isInRoleOrder(List<User> users) {
+		Role previousRole = null;
+		for (User currentUser : users) {
+			if (previousRole != null && currentUser.getRole().compareTo(previousRole) < 0) {
+				return false;
+			}
+			previousRole = currentUser.getRole();
+		}
+		return true;
+	}
+
+	/**
+	 * Adds a user to the end of the bucket of its role.
+	 * 
+	 * @param toAdd
+	 * @return
+	 */
+	@Override
+	public boolean add(User toAdd) {
+		buckets.get(toAdd.getRole().ordinal()).add(toAdd);
+		size++;
+		modCount++;
+		return true;
+	}
+
+	/**
+	 * Removes a user from the bucket of its role. Users are compared by identity.
+	 * Returns false if the user is not held.
+	 * 
+	 * @param toRemove
+	 * @return
+	 */
+	@Override
+	public boolean remove(Object toRemove) {
+		if (!(toRemove instanceof User)) {
+			return false;
+		}
+		ArrayList<User> bucket = buckets.get(((User) toRemove).getRole().ordinal());
+		for (int i = bucket.size() - 1; i >= 0; i--) {
+			if (bucket.get(i) == toRemove) {
+				bucket.remove(i);
+				size--;
+				modCount++;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Removes every user held in a collection, in a single pass over each bucket.
+	 * Users are compared as the collection compares them (by identity for an
+	 * identity set). Returns true if any user was removed.
+	 * 
+	 * @param toRemove
+	 * @return
+	 */
+	@Override
+	public boolean removeAll(Collection<?> toRemove) {
+		boolean isChanged = false;
+		for (ArrayList<User> bucket : buckets) {
+			int previousSize = bucket.size();
+			if (bucket.removeIf(toRemove::contains)) {
+				size -= previousSize - bucket.size();
+				isChanged = true;
+			}
+		}
+		if (isChanged) {
+			modCount++;
+		}
+		return isChanged;
+	}
+
+	/**
+	 * Removes every user.
+	 */
+	@Override
+	public void clear() {
+		for (ArrayList<User> bucket : buckets) {
+			bucket.clear();
+		}
+		size = 0;
+		modCount++;
+	}
+
+	/**
+	 * Returns the user at the given position in role order.
+	 * 
+	 * @param index
+	 * @return
+	 */
+	@Override
+	public User get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+		}
+		for (ArrayList<User> bucket : buckets) {
+			if (index < bucket.size()) {
+				return bucket.get(index);
+			}
+			index -= bucket.size();
+		}
+		throw new IllegalStateException();
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the users in role order, copied a bucket at a time. Used whenever the
+	 * buckets are added to another list, such as by ObservableList.setAll().
+	 * 
+	 * @return
+	 */
+	@Override
+	public Object[] toArray() {
+		Object[] users = new Object[size];
+		int position = 0;
+		for (ArrayList<User> bucket : buckets) {
+			for (int i = 0; i < bucket.size(); i++) {
+				users[position++] = bucket.get(i);
+			}
+		}
+		return users;
+	}
+
+	/**
+	 * Returns an iterator that walks the buckets in turn.
+	 * 
+	 * @return
+	 */
+	@Override
+	public Iterator<User> iterator() {
+		return new Iterator<User>() {
+
+			private int bucketIndex; // the bucket of the next user
+			private int indexInBucket; // the position of the next user in its bucket
+
+			@Override
+			public boolean hasNext() {
+				while (bucketIndex < buckets.size() && indexInBucket >= buckets.get(bucketIndex).size()) {
+					bucketIndex++;
+					indexInBucket = 0;
+				}
+				return bucketIndex < buckets.size();
+			}
+
+			@Override
+			public User next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return buckets.get(bucketIndex).get(indexInBucket++);
+			}
+
+		};
+	}
+
+	/**
+	 * Returns the users of a role, in the order they were added. The list cannot
+	 * be modified.
+	 * 
+	 * @param role
+	 * @return
+	 */
+	public List<User> getBucket(Role role) {
+		return Collections.unmodifiableList(buckets.get(role.ordinal()));
+	}
+
+	/**
+	 * Returns the position in role order of a user, or -1 if it is not held. Only
+	 * the bucket of the user's role is searched.
+	 * 
+	 * @param user
+	 * @return
+	 */
+	@Override
+	public int indexOf(Object user) {
+		if (!(user instanceof User)) {
+			return -1;
+		}
+		Role role = ((User) user).getRole();
+		int indexInBucket = buckets.get(role.ordinal()).indexOf(user);
+		if (indexInBucket < 0) {
+			return -1;
+		}
+		return getEndOfRole(role) - buckets.get(role.ordinal()).size() + indexInBucket;
+	}
+
+	/**
+	 * Returns the position in role order just after the last user of a role (the
+	 * number of users of that role or a higher role). Found by adding the sizes of
+	 * the buckets up to the role's bucket.
+	 * 
+	 * @param role
+	 * @return
+	 */
+	public int getEndOfRole(Role role) {
+		int end = 0;
+		for (int i = 0; i <= role.ordinal(); i++) {
+			end += buckets.get(i).size();
+		}
+		return end;
+	}
+
+}
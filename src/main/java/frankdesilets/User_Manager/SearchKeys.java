@@ -0,0 +1,77 @@
+package frankdesilets.User_Manager;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * This class produces the normalized search keys that searches match against.
+ * Search text and user properties are both normalized, so searches ignore case
+ * and accents: "jose" and "JOSÉ" both match "José".
+ * 
+ * A key is the text with accents and other combining marks removed (after
+ * decomposing each accented character into its base character and marks), then
+ * case folded (upper-cased and lower-cased, so that, for example, "ß" matches
+ * "ss"). Text made only of ASCII characters is just lower-cased, which returns
+ * the text itself when it is already lower case.
+ * 
+ * The keys of each Role and Status are computed once, so matching a role or
+ * status allocates nothing.
+ */
+public final class SearchKeys {
+
+	private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+"); // accents and other marks
+	private static final String[] ROLE_KEYS = new String[Role.values().length]; // the key of each role, by ordinal
+	private static final String[] STATUS_KEYS = new String[Status.values().length]; // the key of each status, by ordinal
+
+	static {
+		for (Role currentRole : Role.values()) {
+			ROLE_KEYS[currentRole.ordinal()] = normalize(currentRole.toString());
+		}
+		for (Status currentStatus : Status.values()) {
+			STATUS_KEYS[currentStatus.ordinal()] = normalize(currentStatus.toString());
+		}
+	}
+
+	private SearchKeys() {
+	}
+
+	/**
+	 * Returns the search key of a piece of text.
+	 * 
+	 * @param text
+	 * @return
+	 */
+	public static String normalize(String text) {
+
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) >= 0x80) {
+				String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+				String unmarked = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+				return unmarked.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+			}
+		}
+		return text.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Returns the search key of a role's name.
+	 * 
+	 * @param role
+	 * @return
+	 */
+	public static String of(Role role) {
+		return ROLE_KEYS[role.ordinal()];
+	}
+
+	/**
+	 * Returns the search key of a status's name.
+	 * 
+	 * @param status
+	 * @return
+	 */
+	public static String of(Status status) {
+		return STATUS_KEYS[status.ordinal()];
+	}
+
+}
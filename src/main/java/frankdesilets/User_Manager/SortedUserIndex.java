@@ -0,0 +1,274 @@
+package frankdesilets.User_Manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener.Change;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.TransformationList;
+
+/**
+ * An object of this class keeps users sorted in lexicographic order by one
+ * property (a secondary index), so the users can be displayed in that order, or
+ * its reverse, without sorting or copying them.
+ * 
+ * The users are held in a sorted array. A user is added or removed by finding
+ * its position with a binary search and shifting the users after it, which is a
+ * single block move of references. Users with the same value of the property are
+ * ordered by emailID, which is unique, so every user has exactly one position.
+ * 
+ * A user whose emailID or sorted property changes must be removed before the
+ * change and added again after it.
+ */
+public class SortedUserIndex {
+
+	/*
+	 * The number of users at or above which a batch is merged with the index
+	 * rather than added one user at a time.
+	 */
+	private static final int MERGED_BATCH_SIZE = 64;
+	/*
+	 * The number of users at or above which a set is removed by copying the
+	 * remaining users rather than one user at a time.
+	 */
+	private static final int COPIED_REMOVAL_SIZE = 256;
+
+	private UserSortField field; // the property the users are sorted by
+	private Comparator<User> comparator; // orders users by the property, then by emailID
+	private ObservableList<User> sortedUsers; // the users in lexicographic order by the property
+	private ObservableList<User> ascendingView; // a read-only view of the users in lexicographic order
+	private ObservableList<User> descendingView; // a read-only view of the users in reverse order
+
+	/**
+	 * The only constructor for this class accepts the property to sort by and the
+	 * users to index, which are sorted once.
+	 * 
+	 * @param field
+	 * @param users
+	 */
+	public SortedUserIndex(UserSortField field, List<User> users) {
+		this.field = field;
+		this.comparator = Comparator.comparing(field::getValue);
+		if (field != UserSortField.EMAIL_ID) {
+			this.comparator = this.comparator.thenComparing(User::getEmailID);
+		}
+
+		ArrayList<User> sortedArray = new ArrayList<User>(users);
+		sortedArray.sort(comparator);
+		this.sortedUsers = FXCollections.observableList(sortedArray);
+		this.ascendingView = FXCollections.unmodifiableObservableList(sortedUsers);
+		this.descendingView = new ReversedView(sortedUsers);
+	}
+
+	/**
+	 * Returns the property the users are sorted by.
+	 * 
+	 * @return
+	 */
+	public UserSortField getField() {
+		return field;
+	}
+
+	/**
+	 * Adds a user at its sorted position.
+	 * 
+	 * @param toAdd
+	 */
+	public void add(User toAdd) {
+		int index = Collections.binarySearch(sortedUsers, toAdd, comparator);
+		sortedUsers.add(index < 0 ? -index - 1 : index, toAdd);
+	}
+
+	/**
+	 * Adds a batch of users at their sorted positions. A large batch is sorted and
+	 * merged with the index in a single pass, and the index is replaced with a
+	 * single change, rather than shifting the index once per user.
+	 * 
+	 * @param toAdd
+	 */
+	public void addAll(List<User> toAdd) {
+
+		if (toAdd.size() < MERGED_BATCH_SIZE) {
+			for (User currentUser : toAdd) {
+				add(currentUser);
+			}
+			return;
+		}
+
+		ArrayList<User> sortedBatch = new ArrayList<User>(toAdd);
+		sortedBatch.sort(comparator);
+		ArrayList<User> merged = new ArrayList<User>(sortedUsers.size() + sortedBatch.size());
+		int indexPosition = 0; // the position of the next user of the index
+		int batchPosition = 0; // the position of the next user of the batch
+		while (indexPosition < sortedUsers.size() && batchPosition < sortedBatch.size()) {
+			if (comparator.compare(sortedBatch.get(batchPosition), sortedUsers.get(indexPosition)) < 0) {
+				merged.add(sortedBatch.get(batchPosition++));
+			} else {
+				merged.add(sortedUsers.get(indexPosition++));
+			}
+		}
+		merged.addAll(sortedUsers.subList(indexPosition, sortedUsers.size()));
+		merged.addAll(sortedBatch.subList(batchPosition, sortedBatch.size()));
+		sortedUsers.setAll(merged);
+	}
+
+	/**
+	 * Removes a user, found at its sorted position. Does nothing if the user is
+	 * not in the index.
+	 * 
+	 * @param toRemove
+	 */
+	public void remove(User toRemove) {
+		int index = Collections.binarySearch(sortedUsers, toRemove, comparator);
+		if (index >= 0 && sortedUsers.get(index) == toRemove) {
+			sortedUsers.remove(index);
+		}
+	}
+
+	/**
+	 * Removes a set of users. For a large set, each user is found at its sorted
+	 * position, the remaining users are copied around those positions in a single
+	 * pass, and the index is replaced with a single change, as
+	 * ObservableList.removeAll() would shift the index once per user removed.
+	 * 
+	 * @param toRemove
+	 */
+	public void removeAll(Set<User> toRemove) {
+
+		if (toRemove.size() < COPIED_REMOVAL_SIZE) {
+			for (User currentUser : toRemove) {
+				remove(currentUser);
+			}
+			return;
+		}
+
+		int[] positions = new int[toRemove.size()]; // the positions of the users removed
+		int removedCount = 0;
+		for (User currentUser : toRemove) {
+			int index = Collections.binarySearch(sortedUsers, currentUser, comparator);
+			if (index >= 0 && sortedUsers.get(index) == currentUser) {
+				positions[removedCount++] = index;
+			}
+		}
+		if (removedCount == 0) {
+			return;
+		}
+		Arrays.sort(positions, 0, removedCount);
+
+		ArrayList<User> remainingUsers = new ArrayList<User>(sortedUsers.size() - removedCount);
+		int nextPosition = 0; // the index into positions of the next user removed
+		for (int i = 0; i < sortedUsers.size(); i++) {
+			if (nextPosition < removedCount && positions[nextPosition] == i) {
+				nextPosition++;
+			} else {
+				remainingUsers.add(sortedUsers.get(i));
+			}
+		}
+		sortedUsers.setAll(remainingUsers);
+	}
+
+	/**
+	 * Returns the number of users in the index.
+	 * 
+	 * @return
+	 */
+	public int size() {
+		return sortedUsers.size();
+	}
+
+	/**
+	 * Returns a read-only view of the users in lexicographic order by the property,
+	 * or in reverse lexicographic order if descending is true. The view is not a
+	 * copy: it reflects, and notifies its listeners of, users later added to or
+	 * removed from the index.
+	 * 
+	 * @param descending
+	 * @return
+	 */
+	public ObservableList<User> getView(boolean descending) {
+		return descending ? descendingView : ascendingView;
+	}
+
+	/**
+	 * A read-only view of a list in reverse order. Changes to the list are
+	 * translated to the reversed positions and passed on to the view's listeners.
+	 */
+	private static class ReversedView extends TransformationList<User, User> {
+
+		private ReversedView(ObservableList<User> source) {
+			super(source);
+		}
+
+		@Override
+		public User get(int index) {
+			return getSource().get(getSourceIndex(index));
+		}
+
+		@Override
+		public int size() {
+			return getSource().size();
+		}
+
+		@Override
+		public int getSourceIndex(int index) {
+			return getSource().size() - 1 - index;
+		}
+
+		@Override
+		public int getViewIndex(int index) {
+			return getSource().size() - 1 - index;
+		}
+
+		@Override
+		protected void sourceChanged(Change<? extends User> c) {
+
+			/*
+			 * The positions of each part of a change are relative to the list with the
+			 * earlier parts applied, so the size of the list before each part is tracked,
+			 * starting from its size before the whole change.
+			 */
+			int sizeBefore = getSource().size();
+			while (c.next()) {
+				sizeBefore += c.getRemovedSize() - c.getAddedSize();
+			}
+			c.reset();
+
+			beginChange();
+			while (c.next()) {
+				int from = c.getFrom();
+				int to = c.getTo();
+				if (c.wasPermutated()) {
+					int[] permutation = new int[to - from];
+					for (int i = from; i < to; i++) {
+						permutation[sizeBefore - 1 - i - (sizeBefore - to)] = sizeBefore - 1 - c.getPermutation(i);
+					}
+					nextPermutation(sizeBefore - to, sizeBefore - from, permutation);
+				} else if (c.wasUpdated()) {
+					for (int i = from; i < to; i++) {
+						nextUpdate(sizeBefore - 1 - i);
+					}
+				} else {
+					// the removed users are at the reversed positions before the addition
+					if (c.wasRemoved()) {
+						ArrayList<User> removed = new ArrayList<User>(c.getRemoved());
+						Collections.reverse(removed);
+						nextRemove(sizeBefore - from - removed.size(), removed);
+					}
+					int sizeAfter = sizeBefore - c.getRemovedSize() + c.getAddedSize();
+					if (c.wasAdded()) {
+						nextAdd(sizeAfter - to, sizeAfter - from);
+					}
+					sizeBefore = sizeAfter;
+				}
+			}
+			endChange();
+		}
+
+	}
+
+}
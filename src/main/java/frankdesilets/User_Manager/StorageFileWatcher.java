@@ -0,0 +1,130 @@
+package frankdesilets.User_Manager;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An object of this class watches a storage .txt file for modifications, using
+ * a WatchService on the file's directory, so changes written to the file by
+ * another program (such as a script that provisions users) can be displayed
+ * while the application is open.
+ * 
+ * A single modification usually produces several events (a file written in
+ * place is modified once per write, and a file replaced by a rename is
+ * created), so the listener is notified once no event has arrived for
+ * QUIET_PERIOD_MILLIS. The listener is called on the watching thread. The
+ * application's own writes are seen as well, so the listener should check that
+ * the file was changed by another program (see
+ * UserFileIO.isChangedExternally()).
+ */
+public class StorageFileWatcher implements Closeable {
+
+	private static final long QUIET_PERIOD_MILLIS = 200; // the time without events before notifying the listener
+
+	private Path directory; // the directory containing the watched file
+	private Path fileName; // the name of the watched file, relative to its directory
+	private Runnable listener; // notified when the watched file is modified
+	private WatchService watchService; // the service watching the directory, or null until started
+
+	/**
+	 * The only constructor for this class accepts the file to watch and the
+	 * listener notified when it is modified.
+	 * 
+	 * @param file
+	 * @param listener
+	 */
+	public StorageFileWatcher(File file, Runnable listener) {
+		Path path = file.getAbsoluteFile().toPath();
+		this.directory = path.getParent();
+		this.fileName = path.getFileName();
+		this.listener = listener;
+	}
+
+	/**
+	 * Starts watching the file on a daemon thread. Throws an IOException if the
+	 * file's directory cannot be watched.
+	 * 
+	 * @throws IOException
+	 */
+	public synchronized void start() throws IOException {
+		if (watchService != null) {
+			return;
+		}
+		watchService = FileSystems.getDefault().newWatchService();
+		directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+		WatchService startedService = watchService;
+		Thread watchThread = new Thread(() -> watch(startedService), "Storage File Watcher");
+		watchThread.setDaemon(true);
+		watchThread.start();
+	}
+
+	/**
+	 * Stops watching the file. The listener is not notified after this returns,
+	 * unless it was already being notified.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (watchService != null) {
+			watchService.close();
+			watchService = null;
+		}
+	}
+
+	/**
+	 * Waits for events on the watched file, notifying the listener once they stop
+	 * arriving, until the service is closed.
+	 * 
+	 * @param service
+	 */
+	private void watch(WatchService service) {
+		try {
+			while (true) {
+				// waits for an event on the watched file
+				if (!isWatchedFileChanged(service.take())) {
+					continue;
+				}
+				// later events are absorbed until the file has been quiet for the quiet period
+				WatchKey key;
+				while ((key = service.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+					isWatchedFileChanged(key);
+				}
+				listener.run();
+			}
+		} catch (ClosedWatchServiceException e) {
+			// the watcher was closed
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns true if any event of a key is for the watched file (other files in
+	 * the directory, such as the change log and temporary files, are ignored), and
+	 * resets the key so it receives later events.
+	 * 
+	 * @param key
+	 * @return
+	 */
+	private boolean isWatchedFileChanged(WatchKey key) {
+		boolean isChanged = false;
+		for (WatchEvent<?> currentEvent : key.pollEvents()) {
+			// an overflow means events were lost, any of which may have been for the file
+			if (currentEvent.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(currentEvent.context())) {
+				isChanged = true;
+			}
+		}
+		key.reset();
+		return isChanged;
+	}
+
+}
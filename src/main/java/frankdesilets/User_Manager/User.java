@@ -1,9 +1,5 @@
 package frankdesilets.User_Manager;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.scene.control.Label;
-
 /**
  * An object of this class represents a user account in a system.
  */
@@ -14,34 +10,56 @@ public class User {
 	private String lastName; // last name
 	private Role role; // a user's position in an organization
 	private Status status; // a user's account activity
+
 	/*
-	 * The ComboBox allowing for the editing or deletion of this user, displayed in
-	 * the Dashboard TableView.
+	 * The search keys (see SearchKeys) of the emailID, first name, and last name,
+	 * matched by searches. Each is computed when its property is set, so searches
+	 * never normalize a user's properties again on each keystroke. The keys are
+	 * volatile because search threads read them without holding a lock.
 	 */
-	private UserEditComboBox editComboBox;
+	private volatile String emailIDKey;
+	private volatile String firstNameKey;
+	private volatile String lastNameKey;
 
 	/**
-	 * The only constructor for this class accepts user properties as parameters and
-	 * appropriately sets member variables. If isTest is true, the user's 
-	 * editComboBox is not initialized.
+	 * The main constructor for this class accepts user properties as parameters and
+	 * appropriately sets member variables.
 	 * 
 	 * @param email
 	 * @param firstName
 	 * @param lastName
 	 * @param role
 	 * @param status
-	 * @param isTest
 	 */
-	public User(String email, String firstName, String lastName, Role role, Status status, boolean isTest) {
+	public User(String email, String firstName, String lastName, Role role, Status status) {
 		this.emailID = email;
 		this.firstName = firstName;
 		this.lastName = lastName;
 		this.role = role;
 		this.status = status;
-		// if isTest is true, the UserEditComboBox is not initialized (to prevent exceptions while testing)
-		if (!isTest) {
-			this.editComboBox = new UserEditComboBox(this);
-		}
+		this.emailIDKey = keyOf(email);
+		this.firstNameKey = keyOf(firstName);
+		this.lastNameKey = keyOf(lastName);
+	}
+
+	/**
+	 * Accepts user properties as parameters and appropriately sets member
+	 * variables. Users no longer hold a UI control (the Dashboard TableView creates
+	 * the ComboBoxes used to edit or delete users for visible rows only), so isTest
+	 * has no effect; this constructor is kept for existing callers.
+	 * 
+	 * @param email
+	 * @param firstName
+	 * @param lastName
+	 * @param role
+	 * @param status
+	 * @param isTest
+	 * @deprecated isTest is ignored; use
+	 *             {@link #User(String, String, String, Role, Status)} instead.
+	 */
+	@Deprecated
+	public User(String email, String firstName, String lastName, Role role, Status status, boolean isTest) {
+		this(email, firstName, lastName, role, status);
 	}
 
 	/*
@@ -54,6 +72,7 @@ public class User {
 
 	public void setEmailID(String emailID) {
 		this.emailID = emailID;
+		this.emailIDKey = keyOf(emailID);
 	}
 
 	public String getFirstName() {
@@ -62,6 +81,7 @@ public class User {
 
 	public void setFirstName(String firstName) {
 		this.firstName = firstName;
+		this.firstNameKey = keyOf(firstName);
 	}
 
 	public String getLastName() {
@@ -70,6 +90,7 @@ public class User {
 
 	public void setLastName(String lastName) {
 		this.lastName = lastName;
+		this.lastNameKey = keyOf(lastName);
 	}
 
 	public Role getRole() {
@@ -88,12 +109,32 @@ public class User {
 		this.status = status;
 	}
 
-	public UserEditComboBox getEditComboBox() {
-		return editComboBox;
+	/*
+	 * The following methods return the search keys of the properties matched by
+	 * searches. They may be called by several search threads at once, and only
+	 * read the keys computed when the properties were set.
+	 */
+
+	String getEmailIDKey() {
+		return emailIDKey;
 	}
 
-	public void setEditComboBox(UserEditComboBox actionComboBox) {
-		this.editComboBox = actionComboBox;
+	String getFirstNameKey() {
+		return firstNameKey;
+	}
+
+	String getLastNameKey() {
+		return lastNameKey;
+	}
+
+	/**
+	 * Returns the search key of a property, or null if the property is null.
+	 * 
+	 * @param property
+	 * @return
+	 */
+	private static String keyOf(String property) {
+		return property == null ? null : SearchKeys.normalize(property);
 	}
 
 }
@@ -0,0 +1,93 @@
+package frankdesilets.User_Manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An object of this class holds the differences between the users of a
+ * UserRepository and a list of users loaded from the storage file, matched by
+ * emailID: the loaded users that are not held, the held users whose properties
+ * differ from the loaded user with their emailID, and the held users that were
+ * not loaded. Found by UserRepository.diff() and applied by
+ * UserRepository.applyChanges().
+ */
+public class UserChanges {
+
+	private ArrayList<User> addedUsers = new ArrayList<User>(); // the loaded users that are not held
+	private ArrayList<User> updatedUsers = new ArrayList<User>(); // the held users whose properties differ
+	private ArrayList<User> updatedValues = new ArrayList<User>(); // the loaded user of each updated user
+	private ArrayList<User> removedUsers = new ArrayList<User>(); // the held users that were not loaded
+
+	/*
+	 * Changes are only created by UserRepository.diff().
+	 */
+	UserChanges() {
+	}
+
+	void addAddition(User loadedUser) {
+		addedUsers.add(loadedUser);
+	}
+
+	void addUpdate(User heldUser, User loadedUser) {
+		updatedUsers.add(heldUser);
+		updatedValues.add(loadedUser);
+	}
+
+	void addRemoval(User heldUser) {
+		removedUsers.add(heldUser);
+	}
+
+	/**
+	 * Returns the loaded users that are not held, in the order they were loaded.
+	 * 
+	 * @return
+	 */
+	public List<User> getAddedUsers() {
+		return Collections.unmodifiableList(addedUsers);
+	}
+
+	/**
+	 * Returns the held users whose properties differ from the loaded user with
+	 * their emailID.
+	 * 
+	 * @return
+	 */
+	public List<User> getUpdatedUsers() {
+		return Collections.unmodifiableList(updatedUsers);
+	}
+
+	/**
+	 * Returns the loaded user holding the new properties of each updated user, in
+	 * the order of getUpdatedUsers().
+	 * 
+	 * @return
+	 */
+	public List<User> getUpdatedValues() {
+		return Collections.unmodifiableList(updatedValues);
+	}
+
+	/**
+	 * Returns the held users that were not loaded.
+	 * 
+	 * @return
+	 */
+	public List<User> getRemovedUsers() {
+		return Collections.unmodifiableList(removedUsers);
+	}
+
+	/**
+	 * Returns true if the loaded users are the same as the held users.
+	 * 
+	 * @return
+	 */
+	public boolean isEmpty() {
+		return addedUsers.isEmpty() && updatedUsers.isEmpty() && removedUsers.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return addedUsers.size() + " Added, " + updatedUsers.size() + " Updated, " + removedUsers.size() + " Removed";
+	}
+
+}
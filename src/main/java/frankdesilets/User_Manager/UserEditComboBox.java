@@ -7,24 +7,19 @@ import javafx.scene.control.ListCell;
 
 /**
  * An object of this class is a ComboBox that enables editing and deleting of a
- * user, which is displayed in the Dashboard TableView. Each User contains one
- * UserEditComboBox, and each UserEditComboBox contains the User it is
- * associated with.
+ * user, which is displayed in the Dashboard TableView. Each UserEditTableCell
+ * contains one UserEditComboBox, which is reused for whichever user the cell
+ * currently displays.
  */
 public class UserEditComboBox extends ComboBox<String> {
 
-	private User associatedAccount; // the associated User
-
 	/**
-	 * The only constructor for this class accepts a User as a parameter and
-	 * appropriately sets the member variable.
-	 * 
-	 * @param associatedAccount
+	 * The only constructor for this class configures the ComboBox's options and
+	 * prompt text.
 	 */
-	public UserEditComboBox(User associatedAccount) {
+	public UserEditComboBox() {
 
 		super();
-		this.associatedAccount = associatedAccount;
 
 		this.setPrefWidth(70); // the width of the ComboBox is set
 
@@ -52,13 +47,4 @@ public class UserEditComboBox extends ComboBox<String> {
 		});
 	}
 
-	/**
-	 * Returns the associated User.
-	 * 
-	 * @return
-	 */
-	public User getAssociatedAccount() {
-		return associatedAccount;
-	}
-
 }
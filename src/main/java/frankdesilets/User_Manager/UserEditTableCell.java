@@ -0,0 +1,71 @@
+package frankdesilets.User_Manager;
+
+import java.util.function.Consumer;
+
+import javafx.scene.control.TableCell;
+
+/**
+ * An object of this class is a cell of the Dashboard TableView's action column,
+ * displaying a UserEditComboBox that enables editing and deleting of the user in
+ * the cell's row.
+ * 
+ * The TableView only creates cells for the rows that are visible and reuses them
+ * as the view is scrolled, so only a handful of UserEditComboBoxes exist no
+ * matter how many users are in the system. The user a ComboBox acts on is the
+ * user the cell displays at the time a selection is made.
+ */
+public class UserEditTableCell extends TableCell<User, User> {
+
+	private UserEditComboBox editComboBox; // the ComboBox displayed in this cell
+
+	/**
+	 * The only constructor for this class accepts the actions to perform when
+	 * "Edit User" or "Delete User" is selected for the cell's user.
+	 * 
+	 * @param editAction
+	 * @param deleteAction
+	 */
+	public UserEditTableCell(Consumer<User> editAction, Consumer<User> deleteAction) {
+
+		editComboBox = new UserEditComboBox();
+
+		/*
+		 * When a selection is made, the action is performed on the cell's current user
+		 * and the selection is cleared so that the prompt text "Edit" is displayed
+		 * again. Clearing the selection fires another action, with no selected index,
+		 * which is ignored.
+		 */
+		editComboBox.setOnAction(e -> {
+			User currentUser = getItem();
+			int selectionIndex = editComboBox.getSelectionModel().getSelectedIndex();
+			if (currentUser == null || selectionIndex < 0) {
+				return;
+			}
+			editComboBox.getSelectionModel().clearSelection();
+			switch (selectionIndex) {
+			// If index 0 is selected (Edit User), the user is edited
+			case 0:
+				editAction.accept(currentUser);
+				break;
+			// If index 1 is selected (Delete User), the user is deleted
+			case 1:
+				deleteAction.accept(currentUser);
+				break;
+			}
+		});
+	}
+
+	/**
+	 * Displays the ComboBox when the cell displays a user, and nothing otherwise.
+	 */
+	@Override
+	protected void updateItem(User item, boolean empty) {
+		super.updateItem(item, empty);
+		if (empty || item == null) {
+			setGraphic(null);
+		} else {
+			setGraphic(editComboBox);
+		}
+	}
+
+}
@@ -0,0 +1,379 @@
+package frankdesilets.User_Manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * An object of this class exports a list of users to a file in an ExportFormat:
+ * comma-separated text, JSON Lines, or the binary snapshot format.
+ * 
+ * Users are streamed from the list straight to the file. Each user is encoded
+ * as UTF-8 directly into a single reused buffer, which is written to a
+ * FileChannel whenever it fills, so no copy of the list, and no String or byte
+ * array per user, is created. Exporting a million users allocates the same
+ * memory as exporting ten.
+ * The list may be a view, such as the results of a UserQueryEngine, and must
+ * not be modified during the export.
+ * 
+ * The file is written to a temporary file in the same directory that is moved
+ * over it once every user is written, so a failed or cancelled export never
+ * leaves a partly written file. The temporary file is given the permissions
+ * and owner of the file it replaces.
+ */
+public class UserExporter {
+
+	/*
+	 * The size of the buffer users are encoded into. It holds the largest
+	 * property a snapshot can store (MAXIMUM_FIELD_LENGTH characters, at up to 3
+	 * bytes each).
+	 */
+	private static final int BUFFER_SIZE = 1 << 18;
+	private static final int PROGRESS_INTERVAL = 1 << 14; // the number of users exported between progress updates
+	// the first line of a CSV export, naming the columns (skipped by a UserImporter)
+	private static final String CSV_HEADER = "emailID,firstName,lastName,role,status\n";
+
+	private ExportFormat format; // the format users are exported in
+	private IntConsumer progressListener; // notified of the number of users exported so far, or null
+
+	/**
+	 * The only constructor for this class accepts the format users are exported
+	 * in.
+	 * 
+	 * @param format
+	 */
+	public UserExporter(ExportFormat format) {
+		this.format = format;
+	}
+
+	/**
+	 * Sets the listener notified of the number of users exported every
+	 * PROGRESS_INTERVAL users. The listener is called on the exporting thread.
+	 * 
+	 * @param progressListener
+	 */
+	public void setProgressListener(IntConsumer progressListener) {
+		this.progressListener = progressListener;
+	}
+
+	/**
+	 * Exports a list of users to a file, replacing its contents, and returns the
+	 * number of users exported. Throws an IOException if the file cannot be
+	 * written, or, in the snapshot format, if a property is too long to be stored.
+	 * 
+	 * If the thread is interrupted, the export stops and throws an
+	 * InterruptedIOException, leaving the file unchanged.
+	 * 
+	 * @param users
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public int export(List<User> users, File file) throws IOException {
+
+		Path target = file.getAbsoluteFile().toPath();
+		Path tempFile = Files.createTempFile(target.getParent(), file.getName() + ".", ".tmp");
+
+		try {
+			UserFileIO.copyPermissions(target, tempFile);
+			int exportedCount;
+			try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				exportedCount = writeUsers(users, channel, file);
+			}
+
+			try {
+				Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+			return exportedCount;
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	/**
+	 * Writes every user of a list to a channel in the exporter's format, and
+	 * returns the number of users written.
+	 * 
+	 * @param users
+	 * @param channel
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	private int writeUsers(List<User> users, FileChannel channel, File file) throws IOException {
+
+		ChannelWriter writer = new ChannelWriter(channel);
+		StringBuilder line = new StringBuilder(); // reused for the line of each user in the text formats
+
+		if (format == ExportFormat.SNAPSHOT) {
+			// the header is written last, once the number of users and checksum are known
+			channel.position(UserSnapshotFile.HEADER_SIZE);
+			writer.checksum = new CRC32();
+		} else if (format == ExportFormat.CSV) {
+			writer.putText(CSV_HEADER);
+		}
+
+		int exportedCount = 0;
+		// the list is iterated rather than indexed, as it may be a RoleBuckets
+		for (User currentUser : users) {
+
+			// the thread is checked for interruption (a cancelled export) every 4096 users
+			if ((exportedCount & 4095) == 0 && Thread.currentThread().isInterrupted()) {
+				throw new InterruptedIOException("The export to " + file.getName() + " was cancelled.");
+			}
+
+			switch (format) {
+			case CSV:
+				line.setLength(0);
+				appendCsvField(line, currentUser.getEmailID()).append(',');
+				appendCsvField(line, currentUser.getFirstName()).append(',');
+				appendCsvField(line, currentUser.getLastName()).append(',');
+				line.append(currentUser.getRole()).append(',').append(currentUser.getStatus()).append('\n');
+				writer.putText(line);
+				break;
+			case JSON_LINES:
+				line.setLength(0);
+				appendJsonString(line.append("{\"emailID\":"), currentUser.getEmailID());
+				appendJsonString(line.append(",\"firstName\":"), currentUser.getFirstName());
+				appendJsonString(line.append(",\"lastName\":"), currentUser.getLastName());
+				appendJsonString(line.append(",\"role\":"), currentUser.getRole().toString());
+				appendJsonString(line.append(",\"status\":"), currentUser.getStatus().toString());
+				writer.putText(line.append("}\n"));
+				break;
+			case SNAPSHOT:
+				writer.putField(currentUser.getEmailID());
+				writer.putField(currentUser.getFirstName());
+				writer.putField(currentUser.getLastName());
+				writer.putByte(currentUser.getRole().ordinal());
+				writer.putByte(currentUser.getStatus().ordinal());
+				break;
+			}
+
+			exportedCount++;
+			if (progressListener != null && exportedCount % PROGRESS_INTERVAL == 0) {
+				progressListener.accept(exportedCount);
+			}
+		}
+		writer.drain();
+
+		if (format == ExportFormat.SNAPSHOT) {
+			UserSnapshotFile.writeHeader(channel, exportedCount, writer.checksum);
+		}
+		if (progressListener != null) {
+			progressListener.accept(exportedCount);
+		}
+		return exportedCount;
+	}
+
+	/**
+	 * Appends a property to a CSV line. A property containing a comma, quote, or
+	 * line break is quoted, with its quotes doubled.
+	 * 
+	 * @param line
+	 * @param value
+	 * @return
+	 */
+	private static StringBuilder appendCsvField(StringBuilder line, String value) {
+
+		for (int i = 0; i < value.length(); i++) {
+			char currentChar = value.charAt(i);
+			if (currentChar == ',' || currentChar == '"' || currentChar == '\n' || currentChar == '\r') {
+				line.append('"');
+				for (int j = 0; j < value.length(); j++) {
+					if (value.charAt(j) == '"') {
+						line.append('"');
+					}
+					line.append(value.charAt(j));
+				}
+				return line.append('"');
+			}
+		}
+		return line.append(value);
+	}
+
+	/**
+	 * Appends a property to a JSON line as a string, escaping quotes, backslashes,
+	 * and control characters.
+	 * 
+	 * @param line
+	 * @param value
+	 */
+	private static void appendJsonString(StringBuilder line, String value) {
+
+		line.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char currentChar = value.charAt(i);
+			switch (currentChar) {
+			case '"':
+				line.append("\\\"");
+				break;
+			case '\\':
+				line.append("\\\\");
+				break;
+			case '\n':
+				line.append("\\n");
+				break;
+			case '\r':
+				line.append("\\r");
+				break;
+			case '\t':
+				line.append("\\t");
+				break;
+			default:
+				if (currentChar < 0x20) {
+					line.append(String.format("\\u%04x", (int) currentChar));
+				} else {
+					line.append(currentChar);
+				}
+			}
+		}
+		line.append('"');
+	}
+
+	/**
+	 * Encodes text and bytes into a buffer that is written to a channel whenever
+	 * it fills. When a checksum is set, it is updated with every byte written.
+	 * 
+	 * Text is encoded as UTF-8 a character at a time, as a CharsetEncoder would
+	 * need a CharBuffer for each piece of text. Unpaired surrogates are encoded
+	 * as '?', as String.getBytes() does.
+	 */
+	private static class ChannelWriter {
+
+		private FileChannel channel; // the channel the buffer is written to
+		private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE); // the bytes not yet written
+		private CRC32 checksum; // the checksum of the bytes written, or null
+
+		ChannelWriter(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		/**
+		 * Encodes text as UTF-8, writing the buffer each time it fills.
+		 * 
+		 * @param text
+		 * @throws IOException
+		 */
+		void putText(CharSequence text) throws IOException {
+			for (int i = 0; i < text.length(); i++) {
+				// a character is at most 4 bytes
+				if (buffer.remaining() < 4) {
+					drain();
+				}
+				i = putChar(text, i);
+			}
+		}
+
+		/**
+		 * Encodes a snapshot field: an unsigned 2 byte length followed by that many
+		 * bytes of UTF-8. Throws an IOException if the encoded field is longer than
+		 * MAXIMUM_FIELD_LENGTH bytes.
+		 * 
+		 * @param value
+		 * @throws IOException
+		 */
+		void putField(String value) throws IOException {
+
+			if (value.length() > UserSnapshotFile.MAXIMUM_FIELD_LENGTH) {
+				throw new IOException("A user property is too long to be written to a snapshot.");
+			}
+			/*
+			 * The buffer is written first if the field might not fit (each character is at
+			 * most 3 bytes, or 4 for a pair), so the field is encoded whole and its length
+			 * can be filled in once known.
+			 */
+			if (buffer.remaining() < 2 + 3 * value.length()) {
+				drain();
+			}
+			int lengthPosition = buffer.position();
+			buffer.position(lengthPosition + 2);
+			for (int i = 0; i < value.length(); i++) {
+				i = putChar(value, i);
+			}
+			int length = buffer.position() - lengthPosition - 2;
+			if (length > UserSnapshotFile.MAXIMUM_FIELD_LENGTH) {
+				throw new IOException("A user property is too long to be written to a snapshot.");
+			}
+			buffer.putShort(lengthPosition, (short) length);
+		}
+
+		/**
+		 * Puts a single byte.
+		 * 
+		 * @param value
+		 * @throws IOException
+		 */
+		void putByte(int value) throws IOException {
+			if (!buffer.hasRemaining()) {
+				drain();
+			}
+			buffer.put((byte) value);
+		}
+
+		/**
+		 * Writes the buffer to the channel and empties it.
+		 * 
+		 * @throws IOException
+		 */
+		void drain() throws IOException {
+
+			buffer.flip();
+			if (checksum != null) {
+				checksum.update(buffer.duplicate());
+			}
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		/**
+		 * Encodes the character of text at an index as UTF-8, and returns the index of
+		 * the last character encoded (the next index if it was a surrogate pair). The
+		 * buffer must have room for 4 bytes.
+		 * 
+		 * @param text
+		 * @param index
+		 * @return
+		 */
+		private int putChar(CharSequence text, int index) {
+
+			char currentChar = text.charAt(index);
+			if (currentChar < 0x80) {
+				buffer.put((byte) currentChar);
+			} else if (currentChar < 0x800) {
+				buffer.put((byte) (0xC0 | (currentChar >> 6)));
+				buffer.put((byte) (0x80 | (currentChar & 0x3F)));
+			} else if (!Character.isSurrogate(currentChar)) {
+				buffer.put((byte) (0xE0 | (currentChar >> 12)));
+				buffer.put((byte) (0x80 | ((currentChar >> 6) & 0x3F)));
+				buffer.put((byte) (0x80 | (currentChar & 0x3F)));
+			} else if (Character.isHighSurrogate(currentChar) && index + 1 < text.length()
+					&& Character.isLowSurrogate(text.charAt(index + 1))) {
+				int codePoint = Character.toCodePoint(currentChar, text.charAt(++index));
+				buffer.put((byte) (0xF0 | (codePoint >> 18)));
+				buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+				buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+				buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+			} else {
+				buffer.put((byte) '?');
+			}
+			return index;
+		}
+
+	}
+
+}
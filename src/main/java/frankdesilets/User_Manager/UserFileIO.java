@@ -6,8 +6,25 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -17,192 +34,1041 @@ import javafx.collections.ObservableList;
  * containing user information. It is used by the Controller to retrieve user
  * information on application launch and update the file when users are
  * modified.
+ * 
+ * Individual user modifications are appended as records to a change log stored
+ * next to the storage file (the storage file name followed by ".log"), so a
+ * modification does not require the whole storage file to be rewritten. The log
+ * is replayed on top of the storage file when it is loaded, and is compacted
+ * into a fresh storage file once it reaches COMPACTION_THRESHOLD records or
+ * whenever the storage file is written.
+ * 
+ * A storage file is never written in place. It is written to a temporary file in
+ * the same directory, which then replaces the storage file with an atomic move,
+ * so a crash during a write leaves either the old or the new file. How often
+ * written data is forced to the storage device is set by the Durability (see
+ * setDurability()), PER_BATCH by default.
+ * 
+ * Loading, writing, and appending to the change log are synchronized, so changes
+ * can be written from a background thread (see UserPersistenceService).
+ * 
+ * The time each storage file was last modified when it was last loaded or
+ * written is recorded, so a modification made by another program can be told
+ * apart from the object's own writes (see isChangedExternally()).
+ * 
+ * Storage files and change logs are read and written as UTF-8. Very large
+ * storage files can instead be opened as a MappedUserFile (see mapFile()), which
+ * decodes users only as they are requested.
  */
 public class UserFileIO {
 
+	private final String CHANGE_LOG_SUFFIX = ".log"; // appended to a storage file name to name its change log
+	// the number of change log records after which the log is compacted into the storage file
+	private final int COMPACTION_THRESHOLD = 1000;
+
 	private int currentUserProperties; // the current number of user properties, used to check file formatting
 	private boolean isTest; // signifies if this object is being used for testing. used to specify file location
+	private String storageDirectory; // the directory containing the user storage files
+	/*
+	 * The line number of the first incorrectly formatted line found by the most
+	 * recent load or format check, or -1 if every line was correctly formatted.
+	 */
+	private int malformedLineNumber = -1;
+	private boolean isLoadFailed; // signifies if the most recent load failed and returned an empty list
+	// the last modified time of each storage file when it was last loaded or written, keyed by storage file name
+	private HashMap<String, FileTime> knownModifiedTimes = new HashMap<String, FileTime>();
+	// the number of records in the change log of each storage file, keyed by storage file name
+	private HashMap<String, Integer> changeLogSizes = new HashMap<String, Integer>();
+	private Durability durability = Durability.PER_BATCH; // how often written data is forced to the device
 
 	/**
-	 * The only constructor for this class accepts an int currentUserProperties as a
-	 * parameter and appropriately sets the member variable.
+	 * Accepts an int currentUserProperties as a parameter and appropriately sets
+	 * the member variables. Normal running and application testing have different
+	 * user storage file locations.
 	 * 
 	 * @param currentUserProperties
 	 * @param isTest
 	 */
 	public UserFileIO(int currentUserProperties, boolean isTest) {
+		this(currentUserProperties, isTest,
+				isTest ? "src/test/java/testuserstoragefiles/" : "src/main/java/userstoragefiles/");
+	}
+
+	/**
+	 * Accepts an int currentUserProperties and the directory containing the user
+	 * storage files as parameters and appropriately sets the member variables.
+	 * Used when the storage files are not located in the default locations (for
+	 * example, generated files used for benchmarking).
+	 * 
+	 * @param currentUserProperties
+	 * @param isTest
+	 * @param storageDirectory
+	 */
+	public UserFileIO(int currentUserProperties, boolean isTest, String storageDirectory) {
 		this.currentUserProperties = currentUserProperties;
 		this.isTest = isTest;
+		this.storageDirectory = storageDirectory.endsWith("/") ? storageDirectory : storageDirectory + "/";
 	}
 
 	/**
 	 * Parses the .txt file used for storing user information and loads and returns
 	 * an ObservableList<User>. Incorrectly formatted files are not processed.
 	 * 
+	 * The file is read once: each line is checked for correct formatting and
+	 * converted to a User in the same pass. If an incorrectly formatted line is
+	 * found, loading stops, its line number is recorded (see
+	 * getMalformedLineNumber()) and an empty list is returned.
+	 * 
+	 * Changes recorded in the file's change log are applied to the loaded users. If
+	 * there were any, the log is compacted into a fresh storage file. If the file
+	 * or its log cannot be read, an empty list is returned and the log is kept, so
+	 * a failed read never replaces the storage file.
+	 * 
+	 * A file in the binary snapshot format (see UserSnapshotFile) is recognized by
+	 * its first bytes and read as a snapshot. An empty list is returned if the
+	 * snapshot is corrupt.
+	 * 
 	 * @param fileName
 	 * @return
 	 */
-	public ObservableList<User> loadFile(String fileName) {
+	public synchronized ObservableList<User> loadFile(String fileName) {
 
-		// the account list to load and return
-		ObservableList<User> accountList = FXCollections.observableArrayList();
+		malformedLineNumber = -1;
+		isLoadFailed = false;
+		recordModifiedTime(fileName); // recorded before reading, so a modification during the read is seen
 
-		// if file formatting is incorrect, the list is returned empty
-		if (!isCorrectFormat(fileName)) {
-			return accountList;
+		// a storage file in the binary snapshot format is read as a snapshot
+		if (UserSnapshotFile.isSnapshot(getStorageFile(fileName))) {
+			return loadSnapshot(fileName);
 		}
 
-		try {
+		/*
+		 * The users are collected in a plain ArrayList, which is wrapped (not copied)
+		 * as an ObservableList once loading is complete. This avoids firing a change
+		 * for every added user.
+		 */
+		ArrayList<User> loadedUsers = new ArrayList<User>();
+		String[] parsedLine = new String[currentUserProperties]; // reused for each line of the file
 
-			// FileReaders are created to parse each line of the file
-			File currentFile;
-			/*
-			 * The file location is specified. Normal running and application testing have
-			 * different user storage file locations.
-			 */
-			if (!isTest) {
-				currentFile = new File("src/main/java/userstoragefiles/" + fileName);
-			} else {
-				currentFile = new File("src/test/java/testuserstoragefiles/" + fileName);
-			}
-			FileReader fileReader = new FileReader(currentFile);
-			BufferedReader bufferedReader = new BufferedReader(fileReader);
+		try (BufferedReader bufferedReader = new BufferedReader(
+				new FileReader(getStorageFile(fileName), StandardCharsets.UTF_8))) {
 
 			/*
 			 * currentLine represents the current line being processed in the file. It is
 			 * set to be the first line of the file, to begin processing.
 			 */
 			String currentLine = bufferedReader.readLine();
+			int lineNumber = 1;
 			// lines in the file are processed until an empty line is reached
 			while (currentLine != null) {
-				String[] parsedLine = currentLine.split("[,]"); // the current line is split around delimiter ','
+				/*
+				 * The line is split around delimiter ','. If it does not contain exactly one
+				 * field per user property, the file is incorrectly formatted and the list is
+				 * returned empty.
+				 */
+				if (!splitLine(currentLine, parsedLine)) {
+					reportMalformedLine(fileName, lineNumber);
+					isLoadFailed = true;
+					return FXCollections.observableArrayList();
+				}
 				// a new User is created with parsed information and added to the list
-				User newAccount = new User(parsedLine[0], parsedLine[1], parsedLine[2], stringToRole(parsedLine[3]),
-						stringToStatus(parsedLine[4]), isTest);
-				accountList.add(newAccount);
+				loadedUsers.add(new User(parsedLine[0], parsedLine[1], parsedLine[2], stringToRole(parsedLine[3]),
+						stringToStatus(parsedLine[4])));
 				currentLine = bufferedReader.readLine(); // the current line is incremented
+				lineNumber++;
 			}
-			// the reader is closed
-			bufferedReader.close();
-			fileReader.close();
 
 		} catch (IOException e) {
 			System.out.println(e.getMessage());
 			System.out.println();
-		} finally {
+			// the change log is not applied to a partly read file, which would then be compacted over it
+			isLoadFailed = true;
+			return FXCollections.observableArrayList();
 		}
 
-		return accountList; // the populated account list is returned
+		return applyChangeLog(fileName, loadedUsers); // the populated account list is returned
 
 	}
 
 	/**
-	 * Writes to the .txt file used for storing user information.
+	 * Loads a .txt file used for storing user information in the same way as
+	 * loadFile(), parsing the file on the common ForkJoinPool.
 	 * 
 	 * @param fileName
-	 * @param accountList
+	 * @return
+	 */
+	public ObservableList<User> loadFileParallel(String fileName) {
+		return loadFileParallel(fileName, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Loads a .txt file used for storing user information in the same way as
+	 * loadFile(), parsing the file on the given pool.
+	 * 
+	 * The file is split into chunks that begin at the start of a line, and each
+	 * chunk is checked for correct formatting and converted to users by its own
+	 * task (see ParallelUserFileLoader). If an incorrectly formatted line is found,
+	 * its line number is recorded (see getMalformedLineNumber()) and an empty list
+	 * is returned. An empty list is also returned, without applying the change
+	 * log, if the file cannot be read.
+	 * 
+	 * @param fileName
+	 * @param pool
+	 * @return
 	 */
-	public void writeFile(String fileName, ObservableList<User> accountList) {
+	public synchronized ObservableList<User> loadFileParallel(String fileName, ForkJoinPool pool) {
+
+		malformedLineNumber = -1;
+		isLoadFailed = false;
+		recordModifiedTime(fileName);
+
+		// a snapshot is read sequentially, as it needs no parsing
+		if (UserSnapshotFile.isSnapshot(getStorageFile(fileName))) {
+			return loadSnapshot(fileName);
+		}
+		ArrayList<User> loadedUsers = new ArrayList<User>();
 
 		try {
-			/*
-			 * A FileWriter is created to facilitate writing users to the file and the current
-			 * file contents are cleared. Normal running and application testing have
-			 * different user storage file locations.
-			 */
-			FileWriter fileWriter;
-			if (!isTest) {
-				fileWriter = new FileWriter("src/main/java/userstoragefiles/" + fileName);
-			} else {
-				fileWriter = new FileWriter("src/test/java/testuserstoragefiles/" + fileName);
+			ParallelUserFileLoader loader = new ParallelUserFileLoader(currentUserProperties);
+			loadedUsers = loader.load(getStorageFile(fileName), pool);
+			if (loadedUsers == null) {
+				reportMalformedLine(fileName, loader.getMalformedLineNumber());
+				isLoadFailed = true;
+				return FXCollections.observableArrayList();
 			}
-			
-			fileWriter.write("");
+		} catch (IOException e) {
+			System.out.println(e.getMessage());
+			System.out.println();
+			// as in loadFile(), the change log is only applied after a complete read
+			isLoadFailed = true;
+			return FXCollections.observableArrayList();
+		}
 
-			// the account list to write to the file is sorted in descending order by Role
-			Collections.sort(accountList, new LexicographicRoleComparator());
+		return applyChangeLog(fileName, loadedUsers);
+	}
 
-			/*
-			 * Each account in the list is written to the file, with one account per line
-			 * with properties separated by delimiter ','.
-			 */
-			for (int i = 0; i < accountList.size(); i++) {
-				User currentAccount = accountList.get(i); // the current user in the list
-				fileWriter.write(currentAccount.getEmailID() + "," + currentAccount.getFirstName() + ","
-						+ currentAccount.getLastName() + "," + currentAccount.getRole().toString() + ","
-						+ currentAccount.getStatus().toString());
-				// a new line is started after each account if the end of the list has not been
-				// encountered
-				if (i != accountList.size() - 1) {
-					fileWriter.write("\n");
-				}
+	/**
+	 * Writes to the .txt file used for storing user information. A file that is
+	 * currently a snapshot is written as a snapshot; any other file is written as
+	 * text.
+	 * 
+	 * Returns true if the file was replaced and forced as required by the
+	 * durability. Returns false if writing, forcing, or moving the new file failed,
+	 * in which case the storage file and its change log are unchanged.
+	 * 
+	 * @param fileName
+	 * @param accountList
+	 * @return
+	 */
+	public synchronized boolean writeFile(String fileName, ObservableList<User> accountList) {
 
-			}
-			fileWriter.close(); // the writer is closed
+		try {
+			boolean isSnapshot = UserSnapshotFile.isSnapshot(getStorageFile(fileName));
+
+			// the users are written in descending order by Role, without reordering the account list
+			replaceStorageFile(fileName, inRoleOrder(accountList), isSnapshot);
+
+			// the storage file now contains every change, so the change log is cleared
+			clearChangeLog(fileName);
+			return true;
 
 		} catch (IOException e) {
 			System.out.println(e.getMessage());
 			System.out.println();
-		} finally {
+			return false;
 		}
 
 	}
 
 	/**
-	 * Checks a .txt file used for user storage for correct formatting.
+	 * Checks a .txt file used for user storage for correct formatting. The line
+	 * number of the first incorrectly formatted line is available from
+	 * getMalformedLineNumber().
 	 * 
 	 * @param fileName
 	 * @return
 	 */
 	public boolean isCorrectFormat(String fileName) {
 
-		try {
+		malformedLineNumber = -1;
 
-			// FileReaders are created to parse each line of the file
-			File currentFile;
-			/*
-			 * The file location is specified. Normal running and application testing have
-			 * different user storage file locations.
-			 */
-			if (!isTest) {
-				currentFile = new File("src/main/java/userstoragefiles/" + fileName);
-			} else {
-				currentFile = new File("src/test/java/testuserstoragefiles/" + fileName);
+		// a snapshot is correctly formatted if it can be read and its checksum matches
+		if (UserSnapshotFile.isSnapshot(getStorageFile(fileName))) {
+			try {
+				UserSnapshotFile.read(getStorageFile(fileName));
+				return true;
+			} catch (IOException e) {
+				System.out.println(e.getMessage());
+				System.out.println();
+				return false;
 			}
-			FileReader fileReader = new FileReader(currentFile);
-			BufferedReader bufferedReader = new BufferedReader(fileReader);
+		}
+		String[] parsedLine = new String[currentUserProperties]; // reused for each line of the file
+
+		try (BufferedReader bufferedReader = new BufferedReader(
+				new FileReader(getStorageFile(fileName), StandardCharsets.UTF_8))) {
 
 			/*
 			 * currentLine represents the current line being processed in the file. It is
 			 * set to be the first line of the file, to begin processing.
 			 */
 			String currentLine = bufferedReader.readLine();
+			int lineNumber = 1;
 
 			// lines in the file are processed until an empty line is reached
 			while (currentLine != null) {
-				String[] parsedLine = currentLine.split("[,]"); // the current line is split around delimiter ','
 				/*
-				 * The length of the parsed line array should be equal to the number of
-				 * properties in a User. If the length is not equal to this value, the file is
-				 * incorrectly formatted.
+				 * The line should contain exactly one field per user property. If it does not,
+				 * the file is incorrectly formatted.
 				 */
-				if (parsedLine.length != currentUserProperties) {
+				if (!splitLine(currentLine, parsedLine)) {
+					reportMalformedLine(fileName, lineNumber);
 					return false;
 				}
 				currentLine = bufferedReader.readLine(); // the current line is incremented
+				lineNumber++;
 			}
-			// the reader is closed
-			bufferedReader.close();
-			fileReader.close();
 
 		} catch (IOException e) {
 			System.out.println(e.getMessage());
 			System.out.println();
-		} finally {
 		}
 		return true;
 	}
 
+	/**
+	 * Records the addition of a user in the change log of a storage file. The
+	 * accountList is the complete list of users (including the added user), used if
+	 * the log is due to be compacted.
+	 * 
+	 * @param fileName
+	 * @param user
+	 * @param accountList
+	 */
+	public void appendAddition(String fileName, User user, ObservableList<User> accountList) {
+		appendChange(fileName, additionRecord(user), accountList);
+	}
+
+	/**
+	 * Records the update of a user in the change log of a storage file. The
+	 * previousEmailID is the emailID of the user before the update, as the emailID
+	 * itself may have been changed. The accountList is the complete list of users,
+	 * used if the log is due to be compacted.
+	 * 
+	 * @param fileName
+	 * @param previousEmailID
+	 * @param user
+	 * @param accountList
+	 */
+	public void appendUpdate(String fileName, String previousEmailID, User user, ObservableList<User> accountList) {
+		appendChange(fileName, updateRecord(previousEmailID, user), accountList);
+	}
+
+	/**
+	 * Records the deletion of a user in the change log of a storage file. The
+	 * accountList is the complete list of users (no longer including the deleted
+	 * user), used if the log is due to be compacted.
+	 * 
+	 * @param fileName
+	 * @param user
+	 * @param accountList
+	 */
+	public void appendDeletion(String fileName, User user, ObservableList<User> accountList) {
+		appendChange(fileName, deletionRecord(user), accountList);
+	}
+
+	/**
+	 * Appends several change log records to the change log of a storage file in a
+	 * single write. If the log would reach COMPACTION_THRESHOLD records, the
+	 * complete account list is retrieved from the supplier and written to the
+	 * storage file instead, which clears the log. If that write fails, the records
+	 * are appended to the log after all. The log is not compacted while the storage
+	 * file has been modified by another program, as the account list does not
+	 * contain that modification: the records are appended, and are applied to the
+	 * modified file when it is reloaded. Used by UserPersistenceService to write a
+	 * burst of changes at once.
+	 * 
+	 * Returns true if the changes are in the storage file or its change log, and
+	 * false if they could not be written to either.
+	 * 
+	 * @param fileName
+	 * @param records
+	 * @param accountList
+	 * @return
+	 */
+	public synchronized boolean appendChanges(String fileName, List<String> records,
+			Supplier<? extends List<User>> accountList) {
+
+		if (records.isEmpty()) {
+			return true;
+		}
+		if (getChangeLogSize(fileName) + records.size() >= COMPACTION_THRESHOLD && !isChangedExternally(fileName)
+				&& writeFile(fileName, FXCollections.observableList(accountList.get()))) {
+			return true;
+		}
+
+		// the records are appended to the end of the log, each on its own line
+		try (FileChannel logChannel = FileChannel.open(getStorageFile(fileName + CHANGE_LOG_SUFFIX).toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+
+			if (durability == Durability.PER_WRITE) {
+				// each record is written and forced on its own
+				for (String record : records) {
+					writeFully(logChannel, record + '\n');
+					logChannel.force(false);
+				}
+			} else {
+				StringBuilder recordLines = new StringBuilder();
+				for (String record : records) {
+					recordLines.append(record).append('\n');
+				}
+				writeFully(logChannel, recordLines.toString());
+				if (durability == Durability.PER_BATCH) {
+					logChannel.force(false);
+				}
+			}
+			changeLogSizes.put(fileName, getChangeLogSize(fileName) + records.size());
+			return true;
+		} catch (IOException e) {
+			System.out.println(e.getMessage());
+			System.out.println();
+			return false;
+		}
+	}
+
+	/**
+	 * Returns how often written data is forced to the storage device.
+	 * 
+	 * @return
+	 */
+	public synchronized Durability getDurability() {
+		return durability;
+	}
+
+	/**
+	 * Sets how often written data is forced to the storage device. Applies to
+	 * every write made after the call.
+	 * 
+	 * @param durability
+	 */
+	public synchronized void setDurability(Durability durability) {
+		this.durability = durability;
+	}
+
+	/**
+	 * Returns true if a storage file has a change log containing records that have
+	 * not been compacted into the file, such as changes written by a previous run
+	 * of the application.
+	 * 
+	 * @param fileName
+	 * @return
+	 */
+	public boolean hasChangeLog(String fileName) {
+		return getStorageFile(fileName + CHANGE_LOG_SUFFIX).length() > 0;
+	}
+
+	/**
+	 * Returns the number of records in the change log of a storage file since it
+	 * was last loaded or written.
+	 * 
+	 * @param fileName
+	 * @return
+	 */
+	public int getChangeLogSize(String fileName) {
+		return changeLogSizes.getOrDefault(fileName, 0);
+	}
+
+	/**
+	 * Maps a .txt file used for storing user information into memory, without
+	 * reading or decoding its users (see MappedUserFile). Returns null if the file
+	 * cannot be mapped, or is a snapshot.
+	 * 
+	 * Changes recorded in the file's change log are not applied; the log is only
+	 * empty once the file has been loaded or written.
+	 * 
+	 * @param fileName
+	 * @return
+	 */
+	public MappedUserFile mapFile(String fileName) {
+		if (UserSnapshotFile.isSnapshot(getStorageFile(fileName))) {
+			System.out.println(fileName + " is a snapshot, which cannot be mapped.");
+			System.out.println();
+			return null;
+		}
+		try {
+			return MappedUserFile.map(getStorageFile(fileName).toPath(), currentUserProperties);
+		} catch (IOException e) {
+			System.out.println(e.getMessage());
+			System.out.println();
+			return null;
+		}
+	}
+
+	/**
+	 * Converts a storage file to the binary snapshot format, applying any changes
+	 * in its change log. Returns false, leaving the file unchanged, if the file
+	 * cannot be loaded.
+	 * 
+	 * @param fileName
+	 * @return
+	 */
+	public boolean convertToSnapshot(String fileName) {
+		return convertFile(fileName, true);
+	}
+
+	/**
+	 * Converts a storage file to the comma-separated text format, applying any
+	 * changes in its change log. Returns false, leaving the file unchanged, if the
+	 * file cannot be loaded.
+	 * 
+	 * @param fileName
+	 * @return
+	 */
+	public boolean convertToText(String fileName) {
+		return convertFile(fileName, false);
+	}
+
+	/**
+	 * Returns true if a storage file is in the binary snapshot format.
+	 * 
+	 * @param fileName
+	 * @return
+	 */
+	public boolean isSnapshot(String fileName) {
+		return UserSnapshotFile.isSnapshot(getStorageFile(fileName));
+	}
+
+	/**
+	 * Returns true if the most recent load failed: the file could not be read, was
+	 * incorrectly formatted, or was a corrupt snapshot. A failed load returns an
+	 * empty list (or the users read before the failure), which should not be
+	 * mistaken for a file without users.
+	 * 
+	 * @return
+	 */
+	public synchronized boolean hasLoadFailed() {
+		return isLoadFailed;
+	}
+
+	/**
+	 * Returns true if a storage file has been modified since it was last loaded or
+	 * written by this object, meaning it was modified by another program. Returns
+	 * false if the file does not exist, as it may be in the middle of being
+	 * replaced.
+	 * 
+	 * @param fileName
+	 * @return
+	 */
+	public synchronized boolean isChangedExternally(String fileName) {
+		try {
+			return !Files.getLastModifiedTime(getStorageFile(fileName).toPath())
+					.equals(knownModifiedTimes.get(fileName));
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the line number (starting at 1) of the first incorrectly formatted
+	 * line found by the most recent call to loadFile() or isCorrectFormat(), or -1
+	 * if no incorrectly formatted line was found.
+	 * 
+	 * @return
+	 */
+	public int getMalformedLineNumber() {
+		return malformedLineNumber;
+	}
+
+	/**
+	 * Splits a line of a user storage file around delimiter ',' into the given
+	 * array, which must have one element per user property. Returns false if the
+	 * line does not contain exactly one field per user property.
+	 * 
+	 * The line is scanned once with indexOf(), rather than with String.split(),
+	 * which compiles and applies a regular expression on every call. Lines are
+	 * accepted and rejected as String.split() did: trailing empty fields (a line
+	 * ending in one or more ',') are ignored, while empty fields before the last
+	 * field are kept.
+	 * 
+	 * @param line
+	 * @param fields
+	 * @return
+	 */
+	private boolean splitLine(String line, String[] fields) {
+
+		// trailing delimiters are ignored, as String.split() discarded trailing empty fields
+		int lineEnd = line.length();
+		while (lineEnd > 0 && line.charAt(lineEnd - 1) == ',') {
+			lineEnd--;
+		}
+
+		int fieldStart = 0; // the index of the first character of the current field
+		for (int i = 0; i < fields.length - 1; i++) {
+			int delimiterIndex = line.indexOf(',', fieldStart);
+			// there are fewer fields than user properties
+			if (delimiterIndex < 0 || delimiterIndex >= lineEnd) {
+				return false;
+			}
+			fields[i] = line.substring(fieldStart, delimiterIndex);
+			fieldStart = delimiterIndex + 1;
+		}
+		// there are more fields than user properties
+		int extraDelimiterIndex = line.indexOf(',', fieldStart);
+		if (extraDelimiterIndex >= 0 && extraDelimiterIndex < lineEnd) {
+			return false;
+		}
+		fields[fields.length - 1] = line.substring(fieldStart, lineEnd);
+
+		/*
+		 * The last field is only empty if the whole line is empty (or made up of
+		 * delimiters), which String.split() also produced too few fields for.
+		 */
+		return !fields[fields.length - 1].isEmpty();
+	}
+
+	/**
+	 * Appends a record to the change log of a storage file. If the log has reached
+	 * COMPACTION_THRESHOLD records, the complete account list is written to the
+	 * storage file instead, which clears the log (see appendChanges()).
+	 * 
+	 * @param fileName
+	 * @param record
+	 * @param accountList
+	 */
+	private void appendChange(String fileName, String record, ObservableList<User> accountList) {
+		appendChanges(fileName, Collections.singletonList(record), () -> accountList);
+	}
+
+	/*
+	 * The following methods return the change log record of an addition, update, or
+	 * deletion of a user.
+	 */
+
+	String additionRecord(User user) {
+		return "ADD," + userToLine(user);
+	}
+
+	String updateRecord(String previousEmailID, User user) {
+		return "UPDATE," + previousEmailID + "," + userToLine(user);
+	}
+
+	String deletionRecord(User user) {
+		return "DELETE," + user.getEmailID();
+	}
+
+	/**
+	 * Applies the records in the change log of a storage file to a list of users
+	 * loaded from that file, and returns the number of records applied. Incorrectly
+	 * formatted records (for example, a record left incomplete by a crash) are
+	 * skipped, as are records that conflict with the users: an addition of an
+	 * emailID that is already held, or an update to an emailID held by another
+	 * user. Each skipped record is reported. If the log cannot be read, the load is
+	 * marked as failed.
+	 * 
+	 * @param fileName
+	 * @param accountList
+	 * @return
+	 */
+	private int replayChangeLog(String fileName, ArrayList<User> accountList) {
+
+		changeLogSizes.put(fileName, 0);
+		File logFile = getStorageFile(fileName + CHANGE_LOG_SUFFIX);
+		if (!logFile.exists()) {
+			return 0;
+		}
+
+		/*
+		 * The users are keyed by emailID so each record can be applied without
+		 * searching the list. The insertion order of the map keeps the order of the
+		 * list.
+		 */
+		LinkedHashMap<String, User> usersByEmailID = new LinkedHashMap<String, User>();
+		for (User currentAccount : accountList) {
+			usersByEmailID.put(currentAccount.getEmailID(), currentAccount);
+		}
+
+		int appliedRecords = 0;
+		String[] parsedUser = new String[currentUserProperties]; // reused for each record
+
+		try (BufferedReader bufferedReader = new BufferedReader(new FileReader(logFile, StandardCharsets.UTF_8))) {
+
+			String currentLine = bufferedReader.readLine();
+			int lineNumber = 1;
+			while (currentLine != null) {
+
+				// the record type is the first field of the record
+				int typeEnd = currentLine.indexOf(',');
+				String recordType = typeEnd < 0 ? currentLine : currentLine.substring(0, typeEnd);
+				String recordBody = typeEnd < 0 ? "" : currentLine.substring(typeEnd + 1);
+				boolean isApplied = false;
+				boolean isConflict = false; // true if the record would replace another user
+
+				switch (recordType) {
+				// ADD,[user properties]
+				case "ADD":
+					if (splitLine(recordBody, parsedUser)) {
+						// an addition never replaces a user already holding the emailID
+						if (usersByEmailID.containsKey(parsedUser[0])) {
+							isConflict = true;
+							break;
+						}
+						User newAccount = new User(parsedUser[0], parsedUser[1], parsedUser[2],
+								stringToRole(parsedUser[3]), stringToStatus(parsedUser[4]));
+						usersByEmailID.put(newAccount.getEmailID(), newAccount);
+						isApplied = true;
+					}
+					break;
+				// UPDATE,[previous emailID],[user properties]
+				case "UPDATE":
+					int previousEmailEnd = recordBody.indexOf(',');
+					if (previousEmailEnd >= 0 && splitLine(recordBody.substring(previousEmailEnd + 1), parsedUser)) {
+						String previousEmailID = recordBody.substring(0, previousEmailEnd);
+						// an update never replaces another user already holding the new emailID
+						if (!parsedUser[0].equals(previousEmailID) && usersByEmailID.containsKey(parsedUser[0])) {
+							isConflict = true;
+							break;
+						}
+						User toUpdate = usersByEmailID.remove(previousEmailID);
+						if (toUpdate != null) {
+							toUpdate.setEmailID(parsedUser[0]);
+							toUpdate.setFirstName(parsedUser[1]);
+							toUpdate.setLastName(parsedUser[2]);
+							toUpdate.setRole(stringToRole(parsedUser[3]));
+							toUpdate.setStatus(stringToStatus(parsedUser[4]));
+							usersByEmailID.put(toUpdate.getEmailID(), toUpdate);
+							isApplied = true;
+						}
+					}
+					break;
+				// DELETE,[emailID]
+				case "DELETE":
+					isApplied = usersByEmailID.remove(recordBody) != null;
+					break;
+				}
+
+				if (isApplied) {
+					appliedRecords++;
+				} else if (isConflict) {
+					System.out.println("Skipped conflicting change log record on line " + lineNumber + " in "
+							+ fileName + CHANGE_LOG_SUFFIX + ": " + parsedUser[0] + " is held by another user.");
+					System.out.println();
+				} else {
+					System.out.println("Skipped change log record on line " + lineNumber + " in " + fileName
+							+ CHANGE_LOG_SUFFIX + ".");
+					System.out.println();
+				}
+				currentLine = bufferedReader.readLine();
+				lineNumber++;
+			}
+
+		} catch (IOException e) {
+			System.out.println(e.getMessage());
+			System.out.println();
+			isLoadFailed = true;
+			return appliedRecords;
+		}
+
+		/*
+		 * The list is replaced with the updated users. Added and updated users are at
+		 * the end of the map (an addition is only put under a new key, and an update is
+		 * removed and put again), so the users are put back in descending order by
+		 * Role.
+		 */
+		accountList.clear();
+		accountList.addAll(new RoleBuckets(usersByEmailID.values()));
+		return appliedRecords;
+	}
+
+	/**
+	 * Deletes the change log of a storage file.
+	 * 
+	 * @param fileName
+	 */
+	private void clearChangeLog(String fileName) {
+		getStorageFile(fileName + CHANGE_LOG_SUFFIX).delete();
+		changeLogSizes.put(fileName, 0);
+	}
+
+	/**
+	 * Returns the line representation of a user in a storage file: the user's
+	 * properties separated by delimiter ','.
+	 * 
+	 * @param user
+	 * @return
+	 */
+	private String userToLine(User user) {
+		return user.getEmailID() + "," + user.getFirstName() + "," + user.getLastName() + ","
+				+ user.getRole().toString() + "," + user.getStatus().toString();
+	}
+
+	/**
+	 * Reads a storage file in the binary snapshot format and applies its change
+	 * log. Returns an empty list if the snapshot cannot be read.
+	 * 
+	 * @param fileName
+	 * @return
+	 */
+	private ObservableList<User> loadSnapshot(String fileName) {
+		try {
+			return applyChangeLog(fileName, UserSnapshotFile.read(getStorageFile(fileName)));
+		} catch (IOException e) {
+			System.out.println(e.getMessage());
+			System.out.println();
+			isLoadFailed = true;
+			return FXCollections.observableArrayList();
+		}
+	}
+
+	/**
+	 * Loads a storage file in either format and writes it in the given format.
+	 * 
+	 * @param fileName
+	 * @param toSnapshot
+	 * @return
+	 */
+	private boolean convertFile(String fileName, boolean toSnapshot) {
+
+		// the file is checked first, as an incorrectly formatted file loads as an empty list
+		if (!isCorrectFormat(fileName)) {
+			return false;
+		}
+		ObservableList<User> accountList = loadFile(fileName);
+
+		try {
+			replaceStorageFile(fileName, inRoleOrder(accountList), toSnapshot);
+			clearChangeLog(fileName);
+			return true;
+		} catch (IOException e) {
+			System.out.println(e.getMessage());
+			System.out.println();
+			return false;
+		}
+	}
+
+	/**
+	 * Replaces a storage file with a list of users, in the snapshot format or the
+	 * comma-separated text format.
+	 * 
+	 * The users are written to a temporary file in the storage directory, which is
+	 * forced to the device (unless the durability is NONE) and then moved over the
+	 * storage file. Within a directory the move is a rename, which is atomic: the
+	 * storage file is never seen partly written. If writing fails, the temporary
+	 * file is deleted and the storage file is unchanged.
+	 * The temporary file is given the permissions and owner of the storage file
+	 * (see copyPermissions()), so replacing the file does not change who can read
+	 * it.
+	 * 
+	 * @param fileName
+	 * @param accountList
+	 * @param asSnapshot
+	 * @throws IOException
+	 */
+	private void replaceStorageFile(String fileName, List<User> accountList, boolean asSnapshot) throws IOException {
+
+		Path storageFile = getStorageFile(fileName).toPath();
+		Path directory = storageFile.toAbsolutePath().getParent();
+		Path tempFile = Files.createTempFile(directory, fileName + ".", ".tmp");
+
+		try {
+			copyPermissions(storageFile, tempFile);
+			if (asSnapshot) {
+				UserSnapshotFile.write(tempFile.toFile(), accountList);
+			} else {
+				writeTextFile(tempFile.toFile(), accountList);
+			}
+			if (durability != Durability.NONE) {
+				// forcing through a new channel also writes data written through the closed one
+				try (FileChannel tempChannel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+					tempChannel.force(true);
+				}
+			}
+
+			try {
+				Files.move(tempFile, storageFile, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile, storageFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+			recordModifiedTime(fileName); // the new file is not an external modification
+
+			/*
+			 * The rename is recorded in the directory, which is forced so the new storage
+			 * file survives a power loss. Directories cannot be opened for forcing on every
+			 * platform (for example, Windows), in which case this is skipped.
+			 */
+			if (durability == Durability.PER_WRITE) {
+				try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+					directoryChannel.force(true);
+				} catch (IOException e) {
+				}
+			}
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	/**
+	 * Writes a list of users to a file in the comma-separated text format.
+	 * 
+	 * @param file
+	 * @param accountList
+	 * @throws IOException
+	 */
+	private void writeTextFile(File file, List<User> accountList) throws IOException {
+
+		/*
+		 * A FileWriter is created to facilitate writing users to the file and the current
+		 * file contents are cleared.
+		 */
+		try (FileWriter fileWriter = new FileWriter(file, StandardCharsets.UTF_8)) {
+
+			/*
+			 * Each account in the list is written to the file, with one account per line
+			 * with properties separated by delimiter ','. The list is iterated rather than
+			 * indexed, as it may be a RoleBuckets.
+			 */
+			boolean isFirstAccount = true;
+			for (User currentAccount : accountList) {
+				// a new line is started before each account after the first, so the file does
+				// not end with an empty line
+				if (!isFirstAccount) {
+					fileWriter.write("\n");
+				}
+				fileWriter.write(userToLine(currentAccount));
+				isFirstAccount = false;
+			}
+		}
+	}
+
+	/**
+	 * Returns a list of users in descending order by Role. A list already in that
+	 * order is returned as it is; otherwise its users are placed in RoleBuckets,
+	 * which takes a single pass and leaves the list unchanged.
+	 * 
+	 * @param accountList
+	 * @return
+	 */
+	private List<User> inRoleOrder(List<User> accountList) {
+		return RoleBuckets.isInRoleOrder(accountList) ? accountList : new RoleBuckets(accountList);
+	}
+
+	/**
+	 * Writes the whole of a String to a channel as UTF-8.
+	 * 
+	 * @param channel
+	 * @param text
+	 * @throws IOException
+	 */
+	private void writeFully(FileChannel channel, String text) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Wraps loaded users as an ObservableList and applies the changes recorded in
+	 * the storage file's change log. If there were any, they are compacted into
+	 * the storage file so the next launch does not replay them. If the log cannot
+	 * be read, an empty list is returned and nothing is compacted.
+	 * 
+	 * @param fileName
+	 * @param loadedUsers
+	 * @return
+	 */
+	private ObservableList<User> applyChangeLog(String fileName, ArrayList<User> loadedUsers) {
+
+		/*
+		 * The users are wrapped (not copied) as an ObservableList. This avoids firing a
+		 * change for every user.
+		 */
+		ObservableList<User> accountList = FXCollections.observableList(loadedUsers);
+		int appliedRecords = replayChangeLog(fileName, loadedUsers);
+		if (isLoadFailed) {
+			return FXCollections.observableArrayList();
+		}
+		/*
+		 * If the compaction fails, the log is kept and is still counted, so compaction
+		 * is tried again once the log reaches COMPACTION_THRESHOLD records.
+		 */
+		if (appliedRecords > 0 && !writeFile(fileName, accountList)) {
+			changeLogSizes.put(fileName, appliedRecords);
+		}
+		return accountList;
+	}
+
+	/**
+	 * Records and prints the line number of an incorrectly formatted line.
+	 * 
+	 * @param fileName
+	 * @param lineNumber
+	 */
+	private void reportMalformedLine(String fileName, int lineNumber) {
+		malformedLineNumber = lineNumber;
+		System.out.println("Incorrectly formatted line " + lineNumber + " in " + fileName + ".");
+		System.out.println();
+	}
+
+	/**
+	 * Records the last modified time of a storage file, as the time it was last
+	 * loaded or written. Nothing is recorded if the file does not exist.
+	 * 
+	 * @param fileName
+	 */
+	private void recordModifiedTime(String fileName) {
+		try {
+			knownModifiedTimes.put(fileName, Files.getLastModifiedTime(getStorageFile(fileName).toPath()));
+		} catch (IOException e) {
+			knownModifiedTimes.remove(fileName);
+		}
+	}
+
+	/**
+	 * Gives a file the POSIX permissions of another file, and its owner and group
+	 * where allowed. Used when a file is replaced by a temporary file, which
+	 * Files.createTempFile() creates readable by its owner only. Nothing is copied
+	 * if the other file does not exist or the file system does not support POSIX
+	 * permissions (for example, on Windows).
+	 * 
+	 * @param source
+	 * @param target
+	 * @throws IOException
+	 */
+	static void copyPermissions(Path source, Path target) throws IOException {
+
+		PosixFileAttributes attributes;
+		try {
+			attributes = Files.readAttributes(source, PosixFileAttributes.class);
+		} catch (NoSuchFileException | UnsupportedOperationException e) {
+			return;
+		}
+
+		/*
+		 * Only a privileged user can give a file to another owner or a group it is not
+		 * a member of, so the owner and group are kept if they cannot be changed. They
+		 * are changed before the permissions, as changing them may clear some
+		 * permission bits.
+		 */
+		PosixFileAttributeView targetView = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+		try {
+			targetView.setOwner(attributes.owner());
+		} catch (IOException e) {
+		}
+		try {
+			targetView.setGroup(attributes.group());
+		} catch (IOException e) {
+		}
+		targetView.setPermissions(attributes.permissions());
+	}
+
+	/**
+	 * Returns the File with the given name in the user storage file directory.
+	 * 
+	 * @param fileName
+	 * @return
+	 */
+	public File getStorageFile(String fileName) {
+		return new File(storageDirectory + fileName);
+	}
+
 	/**
 	 * Returns the Role representation of a given String. Used to create users from
 	 * text retrieved from a .txt file.
@@ -210,7 +1076,7 @@ public class UserFileIO {
 	 * @param role
 	 * @return
 	 */
-	private Role stringToRole(String role) {
+	static Role stringToRole(String role) {
 		switch (role) {
 		case "Senior Manager":
 			return Role.SENIOR_MANAGER;
@@ -234,7 +1100,7 @@ public class UserFileIO {
 	 * @param status
 	 * @return
 	 */
-	private Status stringToStatus(String status) {
+	static Status stringToStatus(String status) {
 		switch (status) {
 		case "Active Employee":
 			return Status.ACTIVE_EMPLOYEE;
@@ -247,16 +1113,4 @@ public class UserFileIO {
 		}
 	}
 
-	/**
-	 * A Comparator used to sort a list of Users in descending order by Role.
-	 */
-	private class LexicographicRoleComparator implements Comparator<User> {
-
-		@Override
-		public int compare(User user1, User user2) {
-			return user1.getRole().compareTo(user2.getRole());
-		}
-
-	}
-
 }
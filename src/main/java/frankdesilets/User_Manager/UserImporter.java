@@ -0,0 +1,439 @@
+package frankdesilets.User_Manager;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An object of this class imports users in bulk from a comma-separated file,
+ * one user per line in the order of the storage .txt file:
+ * 
+ * 		emailID,first name,last name,role,status
+ * 
+ * where the role and status are written as displayed (for example "Level 3
+ * Engineer" and "Active Employee"). A field may be quoted to contain commas, as
+ * in a CSV export (see UserExporter). Blank lines are skipped, as is a first
+ * line naming the columns (see isHeader()), such as the header of a CSV
+ * export.
+ * 
+ * The file is streamed through four stages, a line at a time, so only one batch
+ * of users is held in memory at once:
+ * 
+ * 		parse		the line is split into five fields, and the role and status are
+ * 					read
+ * 		validate	the fields follow the rules of the Add User form: no field is
+ * 					empty or longer than the character limit, and the emailID is
+ * 					correctly formatted (see UserValidator)
+ * 		dedupe		the emailID is not in use, either in the repository or by an
+ * 					earlier line of the file
+ * 		commit		every BATCH_SIZE accepted users are added to the repository
+ * 					as a single modification and queued to the persistence
+ * 					service together, so each batch is a single write
+ * 
+ * Lines failing a stage are rejected and reported with the reason, and do not
+ * stop the import. As in the Add User form, emailIDs are lower-cased and names
+ * capitalized.
+ */
+public class UserImporter {
+
+	public static final int DEFAULT_BATCH_SIZE = 5000; // the number of users committed together
+	/*
+	 * The maximum number of rejected lines kept for the import's result. Every
+	 * rejected line is counted, but only the first are kept, so a file of mostly
+	 * bad lines does not fill memory.
+	 */
+	public static final int MAXIMUM_REPORTED_REJECTIONS = 1000;
+
+	private UserRepository repository; // the repository users are added to
+	private UserPersistenceService persistenceService; // writes each committed batch, or null
+	private int inputCharLimit; // the maximum length of any field
+	private int batchSize = DEFAULT_BATCH_SIZE; // the number of users committed together
+	/*
+	 * Runs each batch commit and returns once it has finished. By default commits
+	 * run on the importing thread; the Dashboard runs them on the JavaFX
+	 * Application Thread, as the user list is displayed.
+	 */
+	private Consumer<Runnable> committer = Runnable::run;
+
+	/**
+	 * The only constructor for this class accepts the repository to add users to,
+	 * the service to write them with (or null for users not to be written), and
+	 * the maximum length of any field.
+	 * 
+	 * @param repository
+	 * @param persistenceService
+	 * @param inputCharLimit
+	 */
+	public UserImporter(UserRepository repository, UserPersistenceService persistenceService, int inputCharLimit) {
+		this.repository = repository;
+		this.persistenceService = persistenceService;
+		this.inputCharLimit = inputCharLimit;
+	}
+
+	/**
+	 * Sets the number of users committed together. Throws an
+	 * IllegalArgumentException if the size is not positive.
+	 * 
+	 * @param batchSize
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("The batch size of an import must be positive.");
+		}
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Sets the function that runs each batch commit, returning once the commit has
+	 * finished.
+	 * 
+	 * @param committer
+	 */
+	public void setCommitter(Consumer<Runnable> committer) {
+		this.committer = committer;
+	}
+
+	/**
+	 * Imports the users of a file, notifying the listener after each batch is
+	 * committed. Throws an IOException if the file cannot be read; batches
+	 * committed before the error remain added.
+	 * 
+	 * If the thread is interrupted, the import stops after the current line and
+	 * the accepted users not yet committed are discarded.
+	 * 
+	 * @param file
+	 * @param listener
+	 * @return
+	 * @throws IOException
+	 */
+	public ImportResult importFile(File file, ProgressListener listener) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			return importLines(reader, listener);
+		}
+	}
+
+	/**
+	 * Imports the users of the lines read from a reader. See importFile().
+	 * 
+	 * @param reader
+	 * @param listener
+	 * @return
+	 * @throws IOException
+	 */
+	public ImportResult importLines(BufferedReader reader, ProgressListener listener) throws IOException {
+
+		ImportResult result = new ImportResult();
+		HashSet<String> importedEmailIDs = new HashSet<String>(); // the emailIDs of the accepted lines
+		ArrayList<User> batch = new ArrayList<User>(batchSize); // the accepted users waiting to be committed
+		ArrayList<Integer> batchLineNumbers = new ArrayList<Integer>(batchSize); // the line of each user of the batch
+
+		String line;
+		int lineNumber = 0;
+		while ((line = reader.readLine()) != null) {
+
+			if (Thread.currentThread().isInterrupted()) {
+				result.isCancelled = true;
+				return result;
+			}
+
+			lineNumber++;
+			if (line.isBlank() || (lineNumber == 1 && isHeader(line))) {
+				continue;
+			}
+			result.rowsRead++;
+
+			// parse
+			List<String> fieldList = splitLine(line);
+			if (fieldList == null) {
+				result.reject(lineNumber, line, "A quoted field is not closed.");
+				continue;
+			}
+			if (fieldList.size() != 5) {
+				result.reject(lineNumber, line, "Expected 5 fields but found " + fieldList.size() + ".");
+				continue;
+			}
+			String[] fields = new String[5];
+			for (int i = 0; i < fields.length; i++) {
+				fields[i] = fieldList.get(i).trim();
+			}
+			Role role = UserFileIO.stringToRole(fields[3]);
+			if (role == Role.UNKNOWN && !fields[3].equals(Role.UNKNOWN.toString())) {
+				result.reject(lineNumber, line, "Unknown role \"" + fields[3] + "\".");
+				continue;
+			}
+			Status status = UserFileIO.stringToStatus(fields[4]);
+			if (status == Status.UNKNOWN && !fields[4].equals(Status.UNKNOWN.toString())) {
+				result.reject(lineNumber, line, "Unknown status \"" + fields[4] + "\".");
+				continue;
+			}
+
+			// validate
+			String rejection = validate(fields);
+			if (rejection != null) {
+				result.reject(lineNumber, line, rejection);
+				continue;
+			}
+
+			// dedupe
+			String emailID = fields[0].toLowerCase();
+			if (!importedEmailIDs.add(emailID)) {
+				result.reject(lineNumber, line, "The email \"" + emailID + "\" appears earlier in the file.");
+				continue;
+			}
+			if (repository.containsEmailID(emailID)) {
+				result.reject(lineNumber, line, "The email \"" + emailID + "\" is already in use.");
+				continue;
+			}
+
+			batch.add(new User(emailID, UserValidator.capitalize(fields[1]), UserValidator.capitalize(fields[2]),
+					role, status));
+			batchLineNumbers.add(lineNumber);
+
+			// commit
+			if (batch.size() == batchSize) {
+				commit(batch, batchLineNumbers, result);
+				batch = new ArrayList<User>(batchSize);
+				batchLineNumbers = new ArrayList<Integer>(batchSize);
+				listener.progressChanged(result);
+			}
+		}
+
+		commit(batch, batchLineNumbers, result);
+		listener.progressChanged(result);
+		return result;
+	}
+
+	/**
+	 * Returns true if a first line is a header naming the columns rather than a
+	 * user: its first field begins with "email" (as "emailID" does in the header of
+	 * a CSV export) but is not a correctly formatted email. A user whose emailID
+	 * begins with "email" is imported, and a first line with any other incorrectly
+	 * formatted emailID is rejected as any other line would be.
+	 * 
+	 * @param line
+	 * @return
+	 */
+	private static boolean isHeader(String line) {
+		List<String> fields = splitLine(line);
+		if (fields == null) {
+			return false;
+		}
+		String firstField = fields.get(0).trim();
+		return firstField.toLowerCase().startsWith("email") && !UserValidator.isEmailCorrectFormat(firstField);
+	}
+
+	/**
+	 * Splits a line into its comma-separated fields. A field may be quoted (as
+	 * written by a UserExporter), in which case it may contain commas, and a quote
+	 * is written as two quotes. Returns null if a quoted field is not closed.
+	 * 
+	 * @param line
+	 * @return
+	 */
+	private static List<String> splitLine(String line) {
+
+		ArrayList<String> fields = new ArrayList<String>(5);
+		StringBuilder field = new StringBuilder();
+		boolean isQuoted = false; // true while inside a quoted field
+		for (int i = 0; i < line.length(); i++) {
+			char currentChar = line.charAt(i);
+			if (isQuoted) {
+				if (currentChar != '"') {
+					field.append(currentChar);
+				} else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					field.append('"'); // a doubled quote is a quote in the field
+					i++;
+				} else {
+					isQuoted = false;
+				}
+			} else if (currentChar == '"' && field.toString().isBlank()) {
+				isQuoted = true; // a quote starting a field opens a quoted field
+				field.setLength(0);
+			} else if (currentChar == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(currentChar);
+			}
+		}
+		if (isQuoted) {
+			return null;
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+	/**
+	 * Returns the reason the fields of a line break the rules of the Add User
+	 * form, or null if they follow them.
+	 * 
+	 * @param fields
+	 * @return
+	 */
+	private String validate(String[] fields) {
+
+		for (int i = 0; i < 3; i++) {
+			if (fields[i].isEmpty()) {
+				return "A field is empty.";
+			}
+			if (fields[i].length() > inputCharLimit) {
+				return "The maximum allowed characters is " + inputCharLimit + ".";
+			}
+		}
+		if (!UserValidator.isEmailCorrectFormat(fields[0])) {
+			return "Incorrectly formatted email.";
+		}
+		return null;
+	}
+
+	/**
+	 * Adds a batch of users to the repository and queues them to be written, as
+	 * run by the committer. Users whose emailID was put in use after the dedupe
+	 * stage (for example, through the Add User form) are rejected.
+	 * 
+	 * @param batch
+	 * @param batchLineNumbers
+	 * @param result
+	 */
+	private void commit(List<User> batch, List<Integer> batchLineNumbers, ImportResult result) {
+
+		if (batch.isEmpty()) {
+			return;
+		}
+
+		ArrayList<List<User>> skippedUsers = new ArrayList<List<User>>(1);
+		committer.accept(() -> {
+			List<User> skipped = repository.addAll(batch);
+			skippedUsers.add(skipped);
+			if (persistenceService != null) {
+				if (skipped.isEmpty()) {
+					persistenceService.recordAdditions(batch);
+				} else {
+					ArrayList<User> added = new ArrayList<User>(batch);
+					added.removeAll(skipped);
+					persistenceService.recordAdditions(added);
+				}
+			}
+		});
+
+		List<User> skipped = skippedUsers.isEmpty() ? Collections.emptyList() : skippedUsers.get(0);
+		if (!skipped.isEmpty()) {
+			IdentityHashMap<User, Integer> lineNumbers = new IdentityHashMap<User, Integer>();
+			for (int i = 0; i < batch.size(); i++) {
+				lineNumbers.put(batch.get(i), batchLineNumbers.get(i));
+			}
+			for (User currentUser : skipped) {
+				result.reject(lineNumbers.get(currentUser), currentUser.getEmailID(),
+						"The email \"" + currentUser.getEmailID() + "\" is already in use.");
+			}
+		}
+		result.importedCount += batch.size() - skipped.size();
+	}
+
+	/**
+	 * A listener notified of an import's progress after each batch is committed.
+	 */
+	public interface ProgressListener {
+
+		/**
+		 * Called with the import's result so far. Called on the importing thread.
+		 * 
+		 * @param progress
+		 */
+		void progressChanged(ImportResult progress);
+
+	}
+
+	/**
+	 * The result of an import: the number of lines read, users imported, and lines
+	 * rejected, and the first MAXIMUM_REPORTED_REJECTIONS rejected lines.
+	 */
+	public static class ImportResult {
+
+		private int rowsRead; // the number of non-blank lines read, excluding a column header
+		private int importedCount; // the number of users added
+		private int rejectedCount; // the number of lines rejected
+		private ArrayList<RejectedRow> rejectedRows = new ArrayList<RejectedRow>(); // the first rejected lines
+		private boolean isCancelled; // true if the import was stopped early
+
+		private void reject(int lineNumber, String line, String reason) {
+			rejectedCount++;
+			if (rejectedRows.size() < MAXIMUM_REPORTED_REJECTIONS) {
+				rejectedRows.add(new RejectedRow(lineNumber, line, reason));
+			}
+		}
+
+		/*
+		 * The following methods are getters.
+		 */
+
+		public int getRowsRead() {
+			return rowsRead;
+		}
+
+		public int getImportedCount() {
+			return importedCount;
+		}
+
+		public int getRejectedCount() {
+			return rejectedCount;
+		}
+
+		public List<RejectedRow> getRejectedRows() {
+			return Collections.unmodifiableList(rejectedRows);
+		}
+
+		public boolean isCancelled() {
+			return isCancelled;
+		}
+
+	}
+
+	/**
+	 * A line rejected by an import, with its line number in the file and the
+	 * reason it was rejected.
+	 */
+	public static class RejectedRow {
+
+		private int lineNumber;
+		private String line;
+		private String reason;
+
+		private RejectedRow(int lineNumber, String line, String reason) {
+			this.lineNumber = lineNumber;
+			this.line = line;
+			this.reason = reason;
+		}
+
+		/*
+		 * The following methods are getters.
+		 */
+
+		public int getLineNumber() {
+			return lineNumber;
+		}
+
+		public String getLine() {
+			return line;
+		}
+
+		public String getReason() {
+			return reason;
+		}
+
+		@Override
+		public String toString() {
+			return "Line " + lineNumber + ": " + reason;
+		}
+
+	}
+
+}
@@ -19,6 +19,8 @@ public class UserManager extends Application {
 	 * The controller class is Controller.
 	 */
 	private static Scene scene;
+	private static Controller controller; // the controller of the scene's root, or null
+
 
 	/**
 	 * The main entry point for the application. The start method is called after
@@ -34,6 +36,17 @@ public class UserManager extends Application {
 		stage.show(); // the stage is set to be visible
 	}
 
+	/**
+	 * Called when the application exits, for example when the window is closed.
+	 * Pending user changes are written to the storage file.
+	 */
+	@Override
+	public void stop() {
+		if (controller != null) {
+			controller.shutdownPersistence();
+		}
+	}
+
 	/**
 	 * Sets the root of the scene.
 	 * 
@@ -53,7 +66,11 @@ public class UserManager extends Application {
 	 */
 	private static Parent loadFXML(String fxml) throws IOException {
 		FXMLLoader fxmlLoader = new FXMLLoader(UserManager.class.getResource(fxml + ".fxml"));
-		return fxmlLoader.load();
+		Parent root = fxmlLoader.load();
+		if (fxmlLoader.getController() instanceof Controller) {
+			controller = fxmlLoader.getController();
+		}
+		return root;
 	}
 
 	/**
@@ -0,0 +1,281 @@
+package frankdesilets.User_Manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * An object of this class writes changes to users to a storage file's change
+ * log on a single background thread, so adding, editing, or deleting a user
+ * never waits for the disk (write-behind persistence).
+ * 
+ * Each change is turned into a change log record when it is made, and queued.
+ * The queue is written a short time (COALESCING_DELAY_MILLIS) after the first
+ * change following the previous write, so a burst of changes is written with a
+ * single append. Changes are written in the order they were made. When the log
+ * is compacted, the complete list of users is retrieved from the account list
+ * supplier on the background thread.
+ * 
+ * If a write fails (for example, because the disk is full), its changes stay
+ * pending ahead of any later changes and are written again after
+ * RETRY_DELAY_MILLIS, and flush() returns false until they are written.
+ * Changes that have not been written are lost if the application exits without
+ * calling flush() or shutdown(). Changes recorded after shutdown() are never
+ * written, and stay pending.
+ */
+public class UserPersistenceService {
+
+	/*
+	 * The time in milliseconds that a change waits for other changes before being
+	 * written.
+	 */
+	public static final long COALESCING_DELAY_MILLIS = 50;
+
+	/*
+	 * The time in milliseconds after which changes that could not be written are
+	 * written again.
+	 */
+	public static final long RETRY_DELAY_MILLIS = 1000;
+
+	private UserFileIO fileIO; // the IO object used to write the change log
+	private String fileName; // the name of the storage file
+	private Supplier<? extends List<User>> accountList; // supplies the complete list of users for compaction
+	private ScheduledExecutorService writer; // the single background thread that changes are written on
+
+	private ArrayList<String> pendingRecords = new ArrayList<String>(); // records waiting to be written
+	private boolean isWriteScheduled; // true if a write of the pending records is scheduled
+	private int pendingWriteCount; // the number of changes queued or being written
+	private IntConsumer pendingWriteListener = count -> {
+	}; // notified when the number of pending changes changes
+
+	/**
+	 * The only constructor for this class accepts the IO object and storage file to
+	 * write changes to, and a supplier of the complete list of users, used when the
+	 * change log is compacted. The supplier is called on the background thread.
+	 * 
+	 * @param fileIO
+	 * @param fileName
+	 * @param accountList
+	 */
+	public UserPersistenceService(UserFileIO fileIO, String fileName, Supplier<? extends List<User>> accountList) {
+		this.fileIO = fileIO;
+		this.fileName = fileName;
+		this.accountList = accountList;
+		this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "User Persistence");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Sets the listener notified with the number of pending changes whenever it
+	 * changes. The listener may be called on any thread.
+	 * 
+	 * @param pendingWriteListener
+	 */
+	public void setPendingWriteListener(IntConsumer pendingWriteListener) {
+		this.pendingWriteListener = pendingWriteListener;
+	}
+
+	/*
+	 * The following methods queue the addition, update, or deletion of a user to be
+	 * written. The previousEmailID of an update is the emailID of the user before
+	 * the update.
+	 */
+
+	public void recordAddition(User user) {
+		enqueue(fileIO.additionRecord(user));
+	}
+
+	public void recordUpdate(String previousEmailID, User user) {
+		enqueue(fileIO.updateRecord(previousEmailID, user));
+	}
+
+	public void recordDeletion(User user) {
+		enqueue(fileIO.deletionRecord(user));
+	}
+
+	/**
+	 * Queues the update of a batch of users together, so the whole batch is
+	 * written with a single append. The emailIDs of the users must not have been
+	 * changed by the update.
+	 * 
+	 * @param users
+	 */
+	public void recordUpdates(List<User> users) {
+		ArrayList<String> records = new ArrayList<String>(users.size());
+		for (User currentUser : users) {
+			records.add(fileIO.updateRecord(currentUser.getEmailID(), currentUser));
+		}
+		enqueue(records);
+	}
+
+	/**
+	 * Queues the deletion of a batch of users together, so the whole batch is
+	 * written with a single append.
+	 * 
+	 * @param users
+	 */
+	public void recordDeletions(List<User> users) {
+		ArrayList<String> records = new ArrayList<String>(users.size());
+		for (User currentUser : users) {
+			records.add(fileIO.deletionRecord(currentUser));
+		}
+		enqueue(records);
+	}
+
+	/**
+	 * Queues the addition of a batch of users together, so the whole batch is
+	 * written with a single append.
+	 * 
+	 * @param users
+	 */
+	public void recordAdditions(List<User> users) {
+		ArrayList<String> records = new ArrayList<String>(users.size());
+		for (User currentUser : users) {
+			records.add(fileIO.additionRecord(currentUser));
+		}
+		enqueue(records);
+	}
+
+	/**
+	 * Returns the number of changes that are queued or being written.
+	 * 
+	 * @return
+	 */
+	public synchronized int getPendingWriteCount() {
+		return pendingWriteCount;
+	}
+
+	/**
+	 * Writes every queued change immediately, waiting up to the given time for the
+	 * write to complete. Returns true if every change made before the call has been
+	 * written, and false if the write failed or did not complete in time. Once the
+	 * service is shut down nothing is written, and true is only returned if no
+	 * changes are pending.
+	 * 
+	 * @param timeout
+	 * @param unit
+	 * @return
+	 */
+	public boolean flush(long timeout, TimeUnit unit) {
+
+		Future<Boolean> write;
+		// the lock is held so the background thread cannot be stopped before the write is submitted
+		synchronized (this) {
+			if (writer.isShutdown()) {
+				return pendingWriteCount == 0;
+			}
+			write = writer.submit(this::writePendingRecords);
+		}
+
+		try {
+			return write.get(timeout, unit);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} catch (ExecutionException | TimeoutException e) {
+			System.out.println(e.getMessage());
+			System.out.println();
+			return false;
+		}
+	}
+
+	/**
+	 * Writes every queued change and stops the background thread, waiting up to
+	 * the given time. Returns true if every change has been written. Changes made
+	 * after shutdown are not written, and stay pending.
+	 * 
+	 * @param timeout
+	 * @param unit
+	 * @return
+	 */
+	public boolean shutdown(long timeout, TimeUnit unit) {
+		boolean isFlushed = flush(timeout, unit);
+		synchronized (this) {
+			writer.shutdown();
+		}
+		return isFlushed;
+	}
+
+	/**
+	 * Queues a record, scheduling a write if none is scheduled.
+	 * 
+	 * @param record
+	 */
+	private void enqueue(String record) {
+		enqueue(Collections.singletonList(record));
+	}
+
+	/**
+	 * Queues records together, scheduling a write if none is scheduled. Once the
+	 * service is shut down, the records are queued but never written.
+	 * 
+	 * @param records
+	 */
+	private void enqueue(List<String> records) {
+
+		int count;
+		synchronized (this) {
+			pendingRecords.addAll(records);
+			pendingWriteCount += records.size();
+			count = pendingWriteCount;
+			if (!isWriteScheduled && !writer.isShutdown()) {
+				isWriteScheduled = true;
+				writer.schedule(this::writePendingRecords, COALESCING_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+			}
+		}
+		pendingWriteListener.accept(count);
+	}
+
+	/**
+	 * Writes every queued record with a single append, returning true if they were
+	 * written. Records that could not be written are queued again, ahead of any
+	 * queued since, and a retry is scheduled. Called on the background thread.
+	 * 
+	 * @return
+	 */
+	private boolean writePendingRecords() {
+
+		List<String> records;
+		synchronized (this) {
+			records = pendingRecords;
+			pendingRecords = new ArrayList<String>();
+			isWriteScheduled = false;
+		}
+		if (records.isEmpty()) {
+			return true;
+		}
+
+		if (!fileIO.appendChanges(fileName, records, accountList)) {
+			// the pending write count is unchanged, as none of the records were written
+			synchronized (this) {
+				pendingRecords.addAll(0, records);
+				// once shut down, the records are left pending rather than retried
+				if (!isWriteScheduled && !writer.isShutdown()) {
+					isWriteScheduled = true;
+					writer.schedule(this::writePendingRecords, RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+				}
+			}
+			return false;
+		}
+
+		int count;
+		synchronized (this) {
+			pendingWriteCount -= records.size();
+			count = pendingWriteCount;
+		}
+		pendingWriteListener.accept(count);
+		return true;
+	}
+
+}
@@ -0,0 +1,128 @@
+package frankdesilets.User_Manager;
+
+/**
+ * An object of this class describes a query for users, run by a
+ * UserQueryEngine. A query may include:
+ * 
+ * 		text			users with any property containing the text, ignoring case
+ * 						and accents
+ * 		role, status	users of the role and/or status
+ * 		sort field		the property the results are sorted by, in lexicographic
+ * 						order (or reverse lexicographic order if descending)
+ * 		offset, limit	the range of the results returned
+ * 
+ * Every part of a query is optional. A query with no text, role, or status
+ * matches every user. Results that are not sorted are in descending order by
+ * Role, the order of the user list.
+ * 
+ * If isOnlyMatching is set to false, the users not matching the text, role, and
+ * status follow the matching users in the results, as in the Filter Users form.
+ */
+public class UserQuery {
+
+	private String text; // the text users must contain, or null to match any text
+	private Role role; // the role users must have, or null to match any role
+	private Status status; // the status users must have, or null to match any status
+	private boolean isOnlyMatching = true; // false if non-matching users follow the matching users
+	private UserSortField sortField; // the property to sort the results by, or null to keep role order
+	private boolean isDescending; // true if the results are in reverse lexicographic order
+	private int offset; // the position in the results of the first user returned
+	private int limit = Integer.MAX_VALUE; // the maximum number of users returned
+
+	/**
+	 * Returns true if the query has text, a role, or a status to match, rather than
+	 * matching every user.
+	 * 
+	 * @return
+	 */
+	public boolean hasCriteria() {
+		return (text != null && !text.isEmpty()) || role != null || status != null;
+	}
+
+	/*
+	 * The following methods are getters and setters.
+	 */
+
+	public String getText() {
+		return text;
+	}
+
+	public void setText(String text) {
+		this.text = text;
+	}
+
+	public Role getRole() {
+		return role;
+	}
+
+	public void setRole(Role role) {
+		this.role = role;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public boolean isOnlyMatching() {
+		return isOnlyMatching;
+	}
+
+	public void setOnlyMatching(boolean isOnlyMatching) {
+		this.isOnlyMatching = isOnlyMatching;
+	}
+
+	public UserSortField getSortField() {
+		return sortField;
+	}
+
+	public void setSortField(UserSortField sortField) {
+		this.sortField = sortField;
+	}
+
+	public boolean isDescending() {
+		return isDescending;
+	}
+
+	public void setDescending(boolean isDescending) {
+		this.isDescending = isDescending;
+	}
+
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Sets the position in the results of the first user returned. Throws an
+	 * IllegalArgumentException if the offset is negative.
+	 * 
+	 * @param offset
+	 */
+	public void setOffset(int offset) {
+		if (offset < 0) {
+			throw new IllegalArgumentException("The offset of a query cannot be negative.");
+		}
+		this.offset = offset;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Sets the maximum number of users returned. Throws an IllegalArgumentException
+	 * if the limit is negative.
+	 * 
+	 * @param limit
+	 */
+	public void setLimit(int limit) {
+		if (limit < 0) {
+			throw new IllegalArgumentException("The limit of a query cannot be negative.");
+		}
+		this.limit = limit;
+	}
+
+}
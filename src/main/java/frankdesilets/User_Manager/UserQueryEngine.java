@@ -0,0 +1,321 @@
+package frankdesilets.User_Manager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * An object of this class runs queries (see UserQuery) against the users of a
+ * repository. It holds the search and filter logic of the application without
+ * any UI, so the Dashboard, tests, and benchmarks run queries the same way.
+ * 
+ * Each query is answered from the cheapest source the repository has: a query
+ * with no criteria is a view of the user list or a sorted index, a role and
+ * status query is built from the role buckets, and text long enough to be
+ * looked up is found in the search index. Other queries check every candidate
+ * user against the criteria. When the engine is given a fork-join pool with
+ * more than one thread, at least PARALLEL_THRESHOLD candidates are checked in
+ * parallel, in ranges that are joined back together in order, so the results
+ * are the same as when checked on a single thread. Fewer candidates are
+ * checked on the calling thread.
+ * 
+ * The results of a query with no criteria are a live view of the user list or
+ * a sorted index (or part of one), which must not be modified. The results of
+ * other queries are a new list.
+ */
+public class UserQueryEngine {
+
+	/*
+	 * The number of candidate users at or above which candidates are checked in
+	 * parallel, when the engine has a fork-join pool with more than one thread.
+	 * Below this, the cost of splitting the work outweighs the time saved.
+	 */
+	public static final int PARALLEL_THRESHOLD = 1 << 15;
+	/*
+	 * The number of users checked by a single task in a parallel check. Ranges are
+	 * split in half until they are no larger than this.
+	 */
+	private static final int PARALLEL_RANGE_SIZE = 1 << 13;
+
+	private UserRepository repository; // the repository holding the users queried
+	private ForkJoinPool pool; // the pool candidates are checked on in parallel, or null
+
+	/**
+	 * Creates an engine that checks candidate users on the calling thread.
+	 * 
+	 * @param repository
+	 */
+	public UserQueryEngine(UserRepository repository) {
+		this(repository, null);
+	}
+
+	/**
+	 * Creates an engine that checks large numbers of candidate users in parallel
+	 * on the given fork-join pool. A null pool checks candidates on the calling
+	 * thread.
+	 * 
+	 * @param repository
+	 * @param pool
+	 */
+	public UserQueryEngine(UserRepository repository, ForkJoinPool pool) {
+		this.repository = repository;
+		this.pool = pool;
+	}
+
+	/**
+	 * Returns the users matching a query, sorted and limited to the query's range.
+	 * 
+	 * A query may be run on a background thread. The repository's lock is only
+	 * held while the users to check are copied (and while results are taken from
+	 * the role buckets or search index); the users are checked after the lock is
+	 * released, so changes to the repository on the JavaFX Application Thread never
+	 * wait for a scan. A change made while a query runs may not be reflected in its
+	 * results, so callers cancel a running query when they change the repository.
+	 * If the thread is interrupted while candidates are checked on it, the query
+	 * stops early and returns incomplete results.
+	 * 
+	 * @param query
+	 * @return
+	 */
+	public List<User> execute(UserQuery query) {
+
+		// with no criteria, every user is returned from a view without copying
+		if (!query.hasCriteria()) {
+			List<User> users = query.getSortField() == null ? repository.getUserList()
+					: repository.getSortedUsers(query.getSortField(), query.isDescending());
+			return range(users, query);
+		}
+
+		boolean isTextQuery = query.getText() != null && !query.getText().isEmpty();
+		List<User> matches = null; // the matching users, if taken from the role buckets or search index
+		List<User> candidates = null; // a copy of the users checked for matches, otherwise
+		List<User> allUsers = null; // a copy of every user, if non-matching users are also returned
+
+		synchronized (repository) {
+			if (!isTextQuery) {
+				// a role and status query is built from the role buckets
+				matches = repository.filterByRoleAndStatus(query.getRole(), query.getStatus(),
+						query.isOnlyMatching() || query.getSortField() != null);
+			} else if (UserRepository.isIndexSearchable(SearchKeys.normalize(query.getText()))) {
+				matches = repository.search(query.getText());
+			} else {
+				candidates = new ArrayList<User>(query.getRole() == null ? repository.getUserList()
+						: repository.getRoleBuckets().getBucket(query.getRole()));
+			}
+			if (!query.isOnlyMatching() && (isTextQuery || query.getSortField() != null)) {
+				allUsers = new ArrayList<User>(repository.getUserList());
+			}
+		}
+
+		// the copies are checked without holding the repository's lock
+		Predicate<User> predicate = getPredicate(query);
+		if (candidates != null) {
+			matches = check(candidates, predicate);
+		} else if (isTextQuery && (query.getRole() != null || query.getStatus() != null)) {
+			// text found in the search index is checked for the role and status
+			matches = check(matches, predicate);
+		}
+
+		List<User> results = sorted(matches, query);
+		if (allUsers != null) {
+			results.addAll(sorted(check(allUsers, predicate.negate()), query));
+		}
+		return range(results, query);
+	}
+
+	/**
+	 * Returns the users of previous results matching a query's text, role, and
+	 * status, in the order of the previous results. Used when a search is narrowed
+	 * (see UserRepository.searchWithin()); the query's sort, range, and
+	 * isOnlyMatching are not applied. The previous results belong to the caller,
+	 * so the repository's lock is not held while they are checked.
+	 * 
+	 * @param previousResults
+	 * @param query
+	 * @return
+	 */
+	public List<User> executeWithin(List<User> previousResults, UserQuery query) {
+		return check(previousResults, getPredicate(query));
+	}
+
+	/**
+	 * Returns the users in a list accepted by a predicate, in the order of the
+	 * list. Large lists are checked in parallel if the engine has a fork-join pool
+	 * with more than one thread, and on the current thread otherwise. Stops early
+	 * if the current thread is interrupted.
+	 * 
+	 * @param users
+	 * @param predicate
+	 * @return
+	 */
+	private List<User> check(List<User> users, Predicate<User> predicate) {
+
+		if (isParallel(users.size())) {
+			return pool.invoke(new CheckTask(users, 0, users.size(), predicate, Thread.currentThread()));
+		}
+
+		ArrayList<User> results = new ArrayList<User>();
+		for (int i = 0; i < users.size(); i++) {
+			// the thread is checked for interruption (a cancelled query) every 4096 users
+			if ((i & 4095) == 0 && Thread.currentThread().isInterrupted()) {
+				break;
+			}
+			User currentUser = users.get(i);
+			if (predicate.test(currentUser)) {
+				results.add(currentUser);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Returns true if the given number of candidate users is checked in parallel.
+	 * 
+	 * @param candidateCount
+	 * @return
+	 */
+	public boolean isParallel(int candidateCount) {
+		return pool != null && pool.getParallelism() > 1 && candidateCount >= PARALLEL_THRESHOLD;
+	}
+
+	/**
+	 * Returns a predicate accepting the users that match a query's text, role, and
+	 * status. Missing criteria accept every user.
+	 * 
+	 * @param query
+	 * @return
+	 */
+	private static Predicate<User> getPredicate(UserQuery query) {
+
+		Role role = query.getRole();
+		Status status = query.getStatus();
+		Predicate<User> predicate = currentUser -> (role == null || currentUser.getRole() == role)
+				&& (status == null || currentUser.getStatus() == status);
+
+		if (query.getText() != null && !query.getText().isEmpty()) {
+			String textKey = SearchKeys.normalize(query.getText());
+			EnumSet<Role> matchingRoles = UserRepository.getMatchingRoles(textKey);
+			EnumSet<Status> matchingStatuses = UserRepository.getMatchingStatuses(textKey);
+			predicate = predicate.and(currentUser -> UserRepository.matchesText(currentUser, textKey,
+					matchingRoles, matchingStatuses));
+		}
+		return predicate;
+	}
+
+	/**
+	 * Returns a comparator ordering users by a query's sort field, then by emailID,
+	 * reversed if the query is descending. The same order as the repository's
+	 * sorted indexes.
+	 * 
+	 * @param query
+	 * @return
+	 */
+	private static Comparator<User> getComparator(UserQuery query) {
+
+		UserSortField field = query.getSortField();
+		Comparator<User> comparator = Comparator.comparing(field::getValue);
+		if (field != UserSortField.EMAIL_ID) {
+			comparator = comparator.thenComparing(User::getEmailID);
+		}
+		return query.isDescending() ? comparator.reversed() : comparator;
+	}
+
+	/**
+	 * Sorts a list of users by a query's sort field, if it has one, and returns the
+	 * list.
+	 * 
+	 * @param users
+	 * @param query
+	 * @return
+	 */
+	private static List<User> sorted(List<User> users, UserQuery query) {
+
+		if (query.getSortField() != null) {
+			users.sort(getComparator(query));
+		}
+		return users;
+	}
+
+	/**
+	 * Returns the part of a list of results within a query's offset and limit.
+	 * 
+	 * @param results
+	 * @param query
+	 * @return
+	 */
+	private static List<User> range(List<User> results, UserQuery query) {
+
+		int fromIndex = Math.min(query.getOffset(), results.size());
+		int toIndex = (int) Math.min((long) fromIndex + query.getLimit(), results.size());
+		if (fromIndex == 0 && toIndex == results.size()) {
+			return results;
+		}
+		return results.subList(fromIndex, toIndex);
+	}
+
+	/**
+	 * A task that checks a range of a list of users against a predicate. Ranges
+	 * larger than PARALLEL_RANGE_SIZE are split in half, the first half forked and
+	 * the second checked by the same thread, and the matches of the first half are
+	 * followed by those of the second, keeping the order of the list. Idle pool
+	 * threads steal forked halves, so the work is spread evenly even when some
+	 * ranges match far more users than others.
+	 * 
+	 * Pool threads are not interrupted when a query is cancelled, so each range
+	 * stops early if the thread that ran the query has been interrupted. The tasks
+	 * check a copy of the users, and the repository's lock is not held while they
+	 * run, so a parallel scan never delays changes to the repository.
+	 */
+	private static class CheckTask extends RecursiveTask<List<User>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private List<User> users; // the list checked
+		private int fromIndex; // the first position of the range, inclusive
+		private int toIndex; // the last position of the range, exclusive
+		private Predicate<User> predicate; // accepts the users returned
+		private Thread queryThread; // the thread that ran the query
+
+		CheckTask(List<User> users, int fromIndex, int toIndex, Predicate<User> predicate, Thread queryThread) {
+			this.users = users;
+			this.fromIndex = fromIndex;
+			this.toIndex = toIndex;
+			this.predicate = predicate;
+			this.queryThread = queryThread;
+		}
+
+		@Override
+		protected List<User> compute() {
+
+			if (toIndex - fromIndex <= PARALLEL_RANGE_SIZE) {
+				ArrayList<User> results = new ArrayList<User>();
+				for (int i = fromIndex; i < toIndex; i++) {
+					// the query thread is checked for interruption every 4096 users
+					if (((i - fromIndex) & 4095) == 0 && queryThread.isInterrupted()) {
+						break;
+					}
+					User currentUser = users.get(i);
+					if (predicate.test(currentUser)) {
+						results.add(currentUser);
+					}
+				}
+				return results;
+			}
+
+			int middleIndex = (fromIndex + toIndex) >>> 1;
+			CheckTask firstHalf = new CheckTask(users, fromIndex, middleIndex, predicate, queryThread);
+			firstHalf.fork();
+			List<User> secondHalfResults = new CheckTask(users, middleIndex, toIndex, predicate, queryThread)
+					.compute();
+			List<User> results = firstHalf.join();
+			results.addAll(secondHalfResults);
+			return results;
+		}
+
+	}
+
+}
@@ -0,0 +1,715 @@
+package frankdesilets.User_Manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import javafx.collections.ObservableList;
+
+/**
+ * An object of this class holds the users of the system. Users are kept in an
+ * ordered list, in descending order by Role (the order displayed in the
+ * Dashboard and written to the storage .txt file), alongside a HashMap keyed by
+ * emailID, so a user can be found and an emailID checked for uniqueness without
+ * searching the list, and a UserSearchIndex used to search for users. The users
+ * are also held in RoleBuckets, which give the position a user of each role is
+ * inserted at without searching the list, and in a SortedUserIndex per sortable
+ * property, built the first time users are sorted by that property and kept
+ * sorted as users are added, edited, and removed.
+ * 
+ * Users should be added, edited, and removed through this class, which keeps the
+ * list, the map, and the search index in sync. Searches may run on a background
+ * thread, so methods that read or modify users are synchronized.
+ * 
+ * The list is the only copy of the users in memory and is changed in place: each
+ * modification notifies the list's listeners of the rows added, removed, or
+ * changed, so a TableView displaying the list never needs to be refreshed or
+ * reloaded from the storage file.
+ */
+public class UserRepository {
+
+	/*
+	 * The number of users at or above which a batch added by addAll() replaces the
+	 * list from the role buckets rather than being inserted one user at a time.
+	 */
+	private static final int BATCH_REPLACE_SIZE = 64;
+	/*
+	 * The number of users at or above which a batch removed or moved to another
+	 * role replaces the list from the role buckets. Removing a single user only
+	 * shifts the list, so replacing the list costs less only for larger batches.
+	 */
+	private static final int BULK_CHANGE_SIZE = 256;
+
+	private ObservableList<User> userList; // the ordered list of users
+	private HashMap<String, User> usersByEmailID; // the users keyed by emailID
+	private UserSearchIndex searchIndex; // the trigram index used to search for users
+	private RoleBuckets roleBuckets; // the users of each role, in the order of the list
+	// the sorted index of each property users have been sorted by, or null if they have not been
+	private EnumMap<UserSortField, SortedUserIndex> sortedIndexes = new EnumMap<UserSortField, SortedUserIndex>(
+			UserSortField.class);
+	private int modificationCount; // the number of additions, removals, and updates made
+
+	/**
+	 * The only constructor for this class accepts the list of users and builds the
+	 * emailID map, search index, and role buckets. A list that is not in
+	 * descending order by Role (for example, a storage .txt file edited by hand) is
+	 * put in that order, keeping the order of users of the same role.
+	 * 
+	 * @param userList
+	 */
+	public UserRepository(ObservableList<User> userList) {
+		this.userList = userList;
+		this.roleBuckets = new RoleBuckets(userList);
+		if (!RoleBuckets.isInRoleOrder(userList)) {
+			replaceListFromBuckets();
+		}
+		this.usersByEmailID = new HashMap<String, User>(userList.size() * 2);
+		for (User currentUser : userList) {
+			usersByEmailID.put(currentUser.getEmailID(), currentUser);
+		}
+		this.searchIndex = new UserSearchIndex(userList);
+	}
+
+	/**
+	 * Returns the ordered list of users.
+	 * 
+	 * @return
+	 */
+	public ObservableList<User> getUserList() {
+		return userList;
+	}
+
+	/**
+	 * Returns the user with the given emailID, or null if no user has the emailID.
+	 * 
+	 * @param emailID
+	 * @return
+	 */
+	public synchronized User getUser(String emailID) {
+		return usersByEmailID.get(emailID);
+	}
+
+	/**
+	 * Returns true if the emailID is in use with a user.
+	 * 
+	 * @param emailID
+	 * @return
+	 */
+	public synchronized boolean containsEmailID(String emailID) {
+		return usersByEmailID.containsKey(emailID);
+	}
+
+	/**
+	 * Returns a copy of every user, in the order of the list. Each user is copied,
+	 * so the copy can be read on another thread (for example, to write the users
+	 * to the storage file) while users continue to be edited.
+	 * 
+	 * @return
+	 */
+	public synchronized List<User> copyUsers() {
+		ArrayList<User> copy = new ArrayList<User>(userList.size());
+		for (User currentUser : userList) {
+			copy.add(new User(currentUser.getEmailID(), currentUser.getFirstName(), currentUser.getLastName(),
+					currentUser.getRole(), currentUser.getStatus()));
+		}
+		return copy;
+	}
+
+	/**
+	 * Returns the number of users.
+	 * 
+	 * @return
+	 */
+	public int size() {
+		return userList.size();
+	}
+
+	/**
+	 * Adds a user, inserting it into the list after the last user with the same or
+	 * a higher role.
+	 * 
+	 * @param toAdd
+	 */
+	public synchronized void add(User toAdd) {
+		modificationCount++;
+		insertInRoleOrder(toAdd);
+		usersByEmailID.put(toAdd.getEmailID(), toAdd);
+		searchIndex.add(toAdd);
+		for (SortedUserIndex currentIndex : sortedIndexes.values()) {
+			currentIndex.add(toAdd);
+		}
+	}
+
+	/**
+	 * Adds a batch of users as a single modification, skipping any user whose
+	 * emailID is already in use (including by an earlier user of the batch).
+	 * Returns the users skipped.
+	 * 
+	 * A large batch is added to the role buckets and the list is replaced from the
+	 * buckets with a single change, and the sorted indexes merge the batch in a
+	 * single pass, so adding a batch costs one pass over the users rather than one
+	 * insertion per user.
+	 * 
+	 * @param toAdd
+	 * @return
+	 */
+	public synchronized List<User> addAll(List<User> toAdd) {
+
+		ArrayList<User> addedUsers = new ArrayList<User>(toAdd.size());
+		ArrayList<User> skippedUsers = new ArrayList<User>();
+		for (User currentUser : toAdd) {
+			if (usersByEmailID.putIfAbsent(currentUser.getEmailID(), currentUser) != null) {
+				skippedUsers.add(currentUser);
+			} else {
+				addedUsers.add(currentUser);
+			}
+		}
+		if (addedUsers.isEmpty()) {
+			return skippedUsers;
+		}
+
+		modificationCount++;
+		if (addedUsers.size() < BATCH_REPLACE_SIZE) {
+			for (User currentUser : addedUsers) {
+				insertInRoleOrder(currentUser);
+			}
+		} else {
+			for (User currentUser : addedUsers) {
+				roleBuckets.add(currentUser);
+			}
+			replaceListFromBuckets();
+		}
+		for (User currentUser : addedUsers) {
+			searchIndex.add(currentUser);
+		}
+		for (SortedUserIndex currentIndex : sortedIndexes.values()) {
+			currentIndex.addAll(addedUsers);
+		}
+		return skippedUsers;
+	}
+
+	/**
+	 * Removes a user.
+	 * 
+	 * @param toRemove
+	 */
+	public synchronized void remove(User toRemove) {
+		modificationCount++;
+		userList.remove(toRemove);
+		roleBuckets.remove(toRemove);
+		usersByEmailID.remove(toRemove.getEmailID());
+		searchIndex.remove(toRemove);
+		for (SortedUserIndex currentIndex : sortedIndexes.values()) {
+			currentIndex.remove(toRemove);
+		}
+	}
+
+	/**
+	 * Removes a batch of users as a single modification. Users not held by the
+	 * repository are ignored.
+	 * 
+	 * A large batch is removed from the role buckets and sorted indexes in a
+	 * single pass over each, and the list is replaced from the buckets with a
+	 * single change, so removing a batch costs one pass over the users rather than
+	 * one search of the list per user removed.
+	 * 
+	 * @param toRemove
+	 */
+	public synchronized void removeAll(List<User> toRemove) {
+
+		Set<User> removedUsers = Collections.newSetFromMap(new IdentityHashMap<User, Boolean>());
+		for (User currentUser : toRemove) {
+			if (usersByEmailID.get(currentUser.getEmailID()) == currentUser) {
+				usersByEmailID.remove(currentUser.getEmailID());
+				removedUsers.add(currentUser);
+			}
+		}
+		if (removedUsers.isEmpty()) {
+			return;
+		}
+
+		modificationCount++;
+		if (removedUsers.size() < BULK_CHANGE_SIZE) {
+			for (User currentUser : removedUsers) {
+				userList.remove(currentUser);
+				roleBuckets.remove(currentUser);
+			}
+		} else {
+			roleBuckets.removeAll(removedUsers);
+			replaceListFromBuckets();
+		}
+		for (User currentUser : removedUsers) {
+			searchIndex.remove(currentUser);
+		}
+		for (SortedUserIndex currentIndex : sortedIndexes.values()) {
+			currentIndex.removeAll(removedUsers);
+		}
+	}
+
+	/**
+	 * Sets the role and status of a batch of users as a single modification, and
+	 * returns the users that were changed, in the order of the batch. A null role
+	 * or status is left unchanged. Users not held by the repository, or already of
+	 * the role and status, are ignored; if no user is changed, no modification is
+	 * made.
+	 * 
+	 * Users whose role is changed are moved to the end of their new role, as
+	 * update() moves a single user, and the rows of users whose status alone is
+	 * changed are redrawn in place. A large batch is moved through the role
+	 * buckets and the list is replaced from the buckets with a single change. As
+	 * the role and status are not covered by the search or sorted indexes, no
+	 * index is changed.
+	 * 
+	 * @param toUpdate
+	 * @param role
+	 * @param status
+	 * @return
+	 */
+	public synchronized List<User> setRoleAndStatus(List<User> toUpdate, Role role, Status status) {
+
+		ArrayList<User> changedUsers = new ArrayList<User>(); // the users whose role or status is changed
+		ArrayList<User> movedUsers = new ArrayList<User>(); // the users whose role is changed
+		ArrayList<User> updatedUsers = new ArrayList<User>(); // the users whose status alone is changed
+		for (User currentUser : toUpdate) {
+			if (usersByEmailID.get(currentUser.getEmailID()) != currentUser) {
+				continue;
+			}
+			if (role != null && currentUser.getRole() != role) {
+				movedUsers.add(currentUser);
+			} else if (status != null && currentUser.getStatus() != status) {
+				updatedUsers.add(currentUser);
+			} else {
+				continue;
+			}
+			changedUsers.add(currentUser);
+			if (status != null) {
+				currentUser.setStatus(status);
+			}
+		}
+		if (changedUsers.isEmpty()) {
+			return changedUsers;
+		}
+		modificationCount++;
+
+		if (movedUsers.size() + updatedUsers.size() < BULK_CHANGE_SIZE) {
+			for (User currentUser : movedUsers) {
+				userList.remove(currentUser);
+				roleBuckets.remove(currentUser);
+				currentUser.setRole(role);
+				insertInRoleOrder(currentUser);
+			}
+			for (User currentUser : updatedUsers) {
+				notifyUpdated(currentUser);
+			}
+		} else {
+			Set<User> movedUserSet = Collections.newSetFromMap(new IdentityHashMap<User, Boolean>());
+			movedUserSet.addAll(movedUsers);
+			roleBuckets.removeAll(movedUserSet);
+			for (User currentUser : movedUsers) {
+				currentUser.setRole(role);
+				roleBuckets.add(currentUser);
+			}
+			replaceListFromBuckets();
+		}
+		return changedUsers;
+	}
+
+	/**
+	 * Returns the differences between the held users and a list of users loaded
+	 * from the storage file, matched by emailID (see UserChanges). If several
+	 * loaded users have the same emailID, the last is used. The loaded users are
+	 * not changed, and the diff takes a single pass over each list.
+	 * 
+	 * @param loadedUsers
+	 * @return
+	 */
+	public synchronized UserChanges diff(List<User> loadedUsers) {
+
+		HashMap<String, User> loadedByEmailID = new HashMap<String, User>(loadedUsers.size() * 2);
+		for (User currentUser : loadedUsers) {
+			loadedByEmailID.put(currentUser.getEmailID(), currentUser);
+		}
+
+		UserChanges changes = new UserChanges();
+		for (User loadedUser : loadedUsers) {
+			if (loadedByEmailID.get(loadedUser.getEmailID()) != loadedUser) {
+				continue; // a later user has the same emailID
+			}
+			User heldUser = usersByEmailID.get(loadedUser.getEmailID());
+			if (heldUser == null) {
+				changes.addAddition(loadedUser);
+			} else if (!heldUser.getFirstName().equals(loadedUser.getFirstName())
+					|| !heldUser.getLastName().equals(loadedUser.getLastName())
+					|| heldUser.getRole() != loadedUser.getRole() || heldUser.getStatus() != loadedUser.getStatus()) {
+				changes.addUpdate(heldUser, loadedUser);
+			}
+		}
+		for (User heldUser : userList) {
+			if (!loadedByEmailID.containsKey(heldUser.getEmailID())) {
+				changes.addRemoval(heldUser);
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * Applies the differences found by diff(), so the held users match the loaded
+	 * users. The changes must have been found since the users were last modified.
+	 * 
+	 * Removed users are removed, and added users added at the end of their role,
+	 * with removeAll() and addAll(). A small number of updated users are updated
+	 * in place, so only their rows change; a large number are replaced by the
+	 * loaded users, as a removal and an addition of the whole batch.
+	 * 
+	 * @param changes
+	 */
+	public synchronized void applyChanges(UserChanges changes) {
+
+		removeAll(changes.getRemovedUsers());
+
+		List<User> updatedUsers = changes.getUpdatedUsers();
+		List<User> updatedValues = changes.getUpdatedValues();
+		if (updatedUsers.size() < BULK_CHANGE_SIZE) {
+			for (int i = 0; i < updatedUsers.size(); i++) {
+				User loadedUser = updatedValues.get(i);
+				update(updatedUsers.get(i), loadedUser.getEmailID(), loadedUser.getFirstName(),
+						loadedUser.getLastName(), loadedUser.getRole(), loadedUser.getStatus());
+			}
+		} else {
+			removeAll(updatedUsers);
+			addAll(updatedValues);
+		}
+
+		addAll(changes.getAddedUsers());
+	}
+
+	/**
+	 * Sets every property of a user. If the emailID is changed the user is re-keyed,
+	 * and if the role is changed the user is moved to keep the list in role order.
+	 * 
+	 * @param toUpdate
+	 * @param emailID
+	 * @param firstName
+	 * @param lastName
+	 * @param role
+	 * @param status
+	 */
+	public synchronized void update(User toUpdate, String emailID, String firstName, String lastName, Role role,
+			Status status) {
+
+		modificationCount++;
+
+		// the user is re-indexed if any of the properties covered by the search and sorted indexes are changed
+		boolean isReindexed = !toUpdate.getEmailID().equals(emailID) || !toUpdate.getFirstName().equals(firstName)
+				|| !toUpdate.getLastName().equals(lastName);
+		if (isReindexed) {
+			searchIndex.remove(toUpdate);
+			// the user is also removed from the sorted indexes, as its position may change
+			for (SortedUserIndex currentIndex : sortedIndexes.values()) {
+				currentIndex.remove(toUpdate);
+			}
+		}
+
+		// the user is re-keyed under its new emailID
+		if (!toUpdate.getEmailID().equals(emailID)) {
+			usersByEmailID.remove(toUpdate.getEmailID());
+			usersByEmailID.put(emailID, toUpdate);
+			toUpdate.setEmailID(emailID);
+		}
+
+		toUpdate.setFirstName(firstName);
+		toUpdate.setLastName(lastName);
+		toUpdate.setStatus(status);
+
+		// the user is moved to the position of its new role, or its row is redrawn in place
+		if (toUpdate.getRole() != role) {
+			userList.remove(toUpdate);
+			roleBuckets.remove(toUpdate);
+			toUpdate.setRole(role);
+			insertInRoleOrder(toUpdate);
+		} else {
+			notifyUpdated(toUpdate);
+		}
+
+		if (isReindexed) {
+			searchIndex.add(toUpdate);
+			for (SortedUserIndex currentIndex : sortedIndexes.values()) {
+				currentIndex.add(toUpdate);
+			}
+		}
+	}
+
+	/**
+	 * Returns the users that have any property containing an occurrence of the
+	 * search text, ignoring case and accents (see SearchKeys), in descending order
+	 * by Role.
+	 * 
+	 * Every user of a role or status whose name contains the text matches. If no
+	 * role or status name matches and the text is long enough, the emailID, first
+	 * name, and last name matches are looked up in the search index. Otherwise
+	 * every user is checked.
+	 * 
+	 * A search may be run on a background thread. If the thread is interrupted
+	 * the search stops early and returns incomplete results.
+	 * 
+	 * @param text
+	 * @return
+	 */
+	public synchronized List<User> search(String text) {
+
+		String textKey = SearchKeys.normalize(text);
+		EnumSet<Role> matchingRoles = getMatchingRoles(textKey);
+		EnumSet<Status> matchingStatuses = getMatchingStatuses(textKey);
+
+		if (matchingRoles.isEmpty() && matchingStatuses.isEmpty()
+				&& textKey.length() >= UserSearchIndex.MINIMUM_QUERY_LENGTH) {
+			/*
+			 * The index returns matches in the order they were indexed, which is sorted
+			 * (stably) into the role order of the user list.
+			 */
+			List<User> results = searchIndex.search(textKey);
+			results.sort(Comparator.comparing(User::getRole));
+			return results;
+		}
+
+		// every user is checked, in the order of the user list
+		return filterMatches(userList, textKey, matchingRoles, matchingStatuses);
+	}
+
+	/**
+	 * Returns the users of a previous search's results that have any property
+	 * containing an occurrence of the search text, ignoring case and accents,
+	 * keeping the order of the previous results. Used when the text of a search is extended: every
+	 * user matching the extended text also matched the previous text, so only the
+	 * previous results need to be checked. The previous results are only valid if
+	 * the modification count has not changed since they were found.
+	 * 
+	 * @param previousResults
+	 * @param text
+	 * @return
+	 */
+	public synchronized List<User> searchWithin(List<User> previousResults, String text) {
+
+		String textKey = SearchKeys.normalize(text);
+		return filterMatches(previousResults, textKey, getMatchingRoles(textKey),
+				getMatchingStatuses(textKey));
+	}
+
+	/**
+	 * Returns a read-only view of every user in lexicographic order by a property,
+	 * or in reverse lexicographic order if descending is true. Users with the same
+	 * value are ordered by emailID. The view is produced from the property's sorted
+	 * index without sorting or copying the users, and stays up to date as users are
+	 * added, edited, and removed.
+	 * 
+	 * @param field
+	 * @param descending
+	 * @return
+	 */
+	public synchronized ObservableList<User> getSortedUsers(UserSortField field, boolean descending) {
+		SortedUserIndex index = sortedIndexes.get(field);
+		if (index == null) {
+			index = new SortedUserIndex(field, userList);
+			sortedIndexes.put(field, index);
+		}
+		return index.getView(descending);
+	}
+
+	/**
+	 * Returns the users of a role and status, in the order of the list, followed
+	 * by the remaining users in the order of the list unless isOnlyMatching is true.
+	 * A null role or status matches every role or status.
+	 * 
+	 * The results are built from the role buckets in a single pass: the bucket of
+	 * a matching role is copied whole when any status matches, or checked user by
+	 * user for the status otherwise, and the buckets of other roles are copied
+	 * whole to the remaining users. No user is checked more than once.
+	 * 
+	 * @param role
+	 * @param status
+	 * @param isOnlyMatching
+	 * @return
+	 */
+	public synchronized List<User> filterByRoleAndStatus(Role role, Status status, boolean isOnlyMatching) {
+
+		ArrayList<User> matchingUsers = new ArrayList<User>();
+		ArrayList<User> remainingUsers = new ArrayList<User>();
+		for (Role currentRole : Role.values()) {
+			List<User> bucket = roleBuckets.getBucket(currentRole);
+			if (role != null && currentRole != role) {
+				if (!isOnlyMatching) {
+					remainingUsers.addAll(bucket);
+				}
+			} else if (status == null) {
+				matchingUsers.addAll(bucket);
+			} else {
+				for (User currentUser : bucket) {
+					if (currentUser.getStatus() == status) {
+						matchingUsers.add(currentUser);
+					} else if (!isOnlyMatching) {
+						remainingUsers.add(currentUser);
+					}
+				}
+			}
+		}
+
+		matchingUsers.addAll(remainingUsers);
+		return matchingUsers;
+	}
+
+	/**
+	 * Returns the number of additions, removals, and updates made through this
+	 * repository. Used to determine whether previous search results are still
+	 * valid.
+	 * 
+	 * @return
+	 */
+	public synchronized int getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Returns the users in a list that match the search key of the text or are of
+	 * a matching role or status, in the order of the list. Stops early if the
+	 * current thread is interrupted.
+	 * 
+	 * @param users
+	 * @param textKey
+	 * @param matchingRoles
+	 * @param matchingStatuses
+	 * @return
+	 */
+	private List<User> filterMatches(List<User> users, String textKey, EnumSet<Role> matchingRoles,
+			EnumSet<Status> matchingStatuses) {
+
+		ArrayList<User> results = new ArrayList<User>();
+		for (int i = 0; i < users.size(); i++) {
+			// the thread is checked for interruption (a cancelled search) every 4096 users
+			if ((i & 4095) == 0 && Thread.currentThread().isInterrupted()) {
+				break;
+			}
+			User currentUser = users.get(i);
+			if (matchesText(currentUser, textKey, matchingRoles, matchingStatuses)) {
+				results.add(currentUser);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Returns true if a user is of a matching role or status, or has an emailID,
+	 * first name, or last name whose search key contains the search key of the
+	 * text. The keys of the user's properties are cached on the user, so checking a
+	 * user allocates nothing.
+	 * 
+	 * @param user
+	 * @param textKey
+	 * @param matchingRoles
+	 * @param matchingStatuses
+	 * @return
+	 */
+	static boolean matchesText(User user, String textKey, EnumSet<Role> matchingRoles,
+			EnumSet<Status> matchingStatuses) {
+		return matchingRoles.contains(user.getRole()) || matchingStatuses.contains(user.getStatus())
+				|| user.getEmailIDKey().contains(textKey)
+				|| user.getFirstNameKey().contains(textKey)
+				|| user.getLastNameKey().contains(textKey);
+	}
+
+	/**
+	 * Returns true if search text is looked up in the search index by search(),
+	 * rather than checked against every user: the text matches no role or status
+	 * name and is long enough to have trigrams.
+	 * 
+	 * @param textKey
+	 * @return
+	 */
+	static boolean isIndexSearchable(String textKey) {
+		return textKey.length() >= UserSearchIndex.MINIMUM_QUERY_LENGTH
+				&& getMatchingRoles(textKey).isEmpty() && getMatchingStatuses(textKey).isEmpty();
+	}
+
+	/**
+	 * Returns the role buckets. Callers must hold the repository's lock while
+	 * reading them.
+	 * 
+	 * @return
+	 */
+	RoleBuckets getRoleBuckets() {
+		return roleBuckets;
+	}
+
+	/**
+	 * Returns the roles whose name's search key contains the search key of the
+	 * text.
+	 * 
+	 * @param textKey
+	 * @return
+	 */
+	static EnumSet<Role> getMatchingRoles(String textKey) {
+		EnumSet<Role> matchingRoles = EnumSet.noneOf(Role.class);
+		for (Role currentRole : Role.values()) {
+			if (SearchKeys.of(currentRole).contains(textKey)) {
+				matchingRoles.add(currentRole);
+			}
+		}
+		return matchingRoles;
+	}
+
+	/**
+	 * Returns the statuses whose name's search key contains the search key of the
+	 * text.
+	 * 
+	 * @param textKey
+	 * @return
+	 */
+	static EnumSet<Status> getMatchingStatuses(String textKey) {
+		EnumSet<Status> matchingStatuses = EnumSet.noneOf(Status.class);
+		for (Status currentStatus : Status.values()) {
+			if (SearchKeys.of(currentStatus).contains(textKey)) {
+				matchingStatuses.add(currentStatus);
+			}
+		}
+		return matchingStatuses;
+	}
+
+	/**
+	 * Notifies the list's listeners that a user's properties were changed in
+	 * place, by replacing the user with itself. A TableView displaying the list
+	 * redraws only that user's row. The user is found in the bucket of its role.
+	 * 
+	 * @param updated
+	 */
+	private void notifyUpdated(User updated) {
+		userList.set(roleBuckets.indexOf(updated), updated);
+	}
+
+	/**
+	 * Replaces the list with the users of the role buckets, in role order, as a
+	 * single change. The buckets are copied into an array first, as the list adds
+	 * a collection by iterating over it.
+	 */
+	private void replaceListFromBuckets() {
+		userList.setAll(new ArrayList<User>(roleBuckets));
+	}
+
+	/**
+	 * Inserts a user into the list after the last user with the same or a higher
+	 * role, keeping the list in descending order by Role. The user is added to the
+	 * end of its role's bucket, and the insertion index is the end of that role in
+	 * the buckets.
+	 * 
+	 * @param toInsert
+	 */
+	private void insertInRoleOrder(User toInsert) {
+		roleBuckets.add(toInsert);
+		userList.add(roleBuckets.getEndOfRole(toInsert.getRole()) - 1, toInsert);
+	}
+
+}
@@ -0,0 +1,213 @@
+package frankdesilets.User_Manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * An object of this class is an inverted trigram index over the emailID, first
+ * name, and last name of users, used to search for users containing a piece of
+ * text without checking every user.
+ * 
+ * Every sequence of three consecutive characters (a trigram) of the search key
+ * (see SearchKeys) of each property is mapped to a posting list of the ids of the users containing it.
+ * Ids are assigned in increasing order as users are added, so each posting list
+ * is sorted. A search intersects the posting lists of the trigrams of the search
+ * text and then checks each remaining candidate for the whole text, as a user
+ * may contain every trigram without containing the text.
+ * 
+ * Removed users leave their id behind in the posting lists; these ids are
+ * skipped during searches, and the index is rebuilt once removed ids outnumber
+ * users. A user whose properties change must be removed before the change and
+ * added again after it.
+ */
+public class UserSearchIndex {
+
+	/*
+	 * The minimum length of search text that can be looked up in the index. Shorter
+	 * text has no trigrams.
+	 */
+	public static final int MINIMUM_QUERY_LENGTH = 3;
+
+	private HashMap<Long, PostingList> postingLists; // the posting list of each trigram
+	private ArrayList<User> usersByID; // the user of each id, or null if the user was removed
+	private IdentityHashMap<User, Integer> idsByUser; // the id of each user in the index
+	private int removedIDCount; // the number of ids of removed users
+
+	/**
+	 * The only constructor for this class accepts the users to index.
+	 * 
+	 * @param users
+	 */
+	public UserSearchIndex(List<User> users) {
+		build(users);
+	}
+
+	/**
+	 * Adds a user to the index.
+	 * 
+	 * @param toAdd
+	 */
+	public void add(User toAdd) {
+
+		int id = usersByID.size();
+		usersByID.add(toAdd);
+		idsByUser.put(toAdd, id);
+
+		addTrigrams(toAdd.getEmailIDKey(), id);
+		addTrigrams(toAdd.getFirstNameKey(), id);
+		addTrigrams(toAdd.getLastNameKey(), id);
+	}
+
+	/**
+	 * Removes a user from the index.
+	 * 
+	 * @param toRemove
+	 */
+	public void remove(User toRemove) {
+
+		Integer id = idsByUser.remove(toRemove);
+		if (id == null) {
+			return;
+		}
+		usersByID.set(id, null);
+		removedIDCount++;
+
+		// the index is rebuilt once removed ids outnumber users
+		if (removedIDCount > idsByUser.size()) {
+			ArrayList<User> remainingUsers = new ArrayList<User>(idsByUser.size());
+			for (User currentUser : usersByID) {
+				if (currentUser != null) {
+					remainingUsers.add(currentUser);
+				}
+			}
+			build(remainingUsers);
+		}
+	}
+
+	/**
+	 * Returns the users with an emailID, first name, or last name containing the
+	 * search key of the text, in the order they were added to the index. The key
+	 * must be at least MINIMUM_QUERY_LENGTH characters long.
+	 * 
+	 * @param textKey
+	 * @return
+	 */
+	public List<User> search(String textKey) {
+
+		ArrayList<User> results = new ArrayList<User>();
+
+		/*
+		 * The posting list of each trigram of the text is retrieved. If any trigram is
+		 * not in the index, no user contains the text.
+		 */
+		PostingList[] candidateLists = new PostingList[textKey.length() - 2];
+		for (int i = 0; i < candidateLists.length; i++) {
+			candidateLists[i] = postingLists.get(trigram(textKey, i));
+			if (candidateLists[i] == null) {
+				return results;
+			}
+		}
+
+		/*
+		 * The posting lists are intersected starting from the shortest list: each id in
+		 * the shortest list is binary searched for in the remaining lists.
+		 */
+		Arrays.sort(candidateLists, (list1, list2) -> Integer.compare(list1.size, list2.size));
+		PostingList shortestList = candidateLists[0];
+		for (int i = 0; i < shortestList.size; i++) {
+
+			int id = shortestList.ids[i];
+			User candidate = usersByID.get(id);
+			// the id of a removed user is skipped
+			if (candidate == null) {
+				continue;
+			}
+
+			boolean isInEveryList = true;
+			for (int j = 1; j < candidateLists.length && isInEveryList; j++) {
+				isInEveryList = Arrays.binarySearch(candidateLists[j].ids, 0, candidateLists[j].size, id) >= 0;
+			}
+
+			// the candidate is checked for the whole text
+			if (isInEveryList && (candidate.getEmailIDKey().contains(textKey)
+					|| candidate.getFirstNameKey().contains(textKey)
+					|| candidate.getLastNameKey().contains(textKey))) {
+				results.add(candidate);
+			}
+		}
+
+		return results;
+	}
+
+	/**
+	 * Clears the index and indexes the given users.
+	 * 
+	 * @param users
+	 */
+	private void build(List<User> users) {
+
+		postingLists = new HashMap<Long, PostingList>();
+		usersByID = new ArrayList<User>(users.size());
+		idsByUser = new IdentityHashMap<User, Integer>(users.size());
+		removedIDCount = 0;
+
+		for (User currentUser : users) {
+			add(currentUser);
+		}
+	}
+
+	/**
+	 * Adds the id of a user to the posting list of each trigram of the search key
+	 * of one of the user's properties.
+	 * 
+	 * @param propertyKey
+	 * @param id
+	 */
+	private void addTrigrams(String propertyKey, int id) {
+
+		for (int i = 0; i + MINIMUM_QUERY_LENGTH <= propertyKey.length(); i++) {
+			PostingList postingList = postingLists.computeIfAbsent(trigram(propertyKey, i),
+					key -> new PostingList());
+			/*
+			 * The id is the largest id in the index, so if the trigram occurs more than
+			 * once for this user it is already at the end of the list.
+			 */
+			if (postingList.size == 0 || postingList.ids[postingList.size - 1] != id) {
+				postingList.add(id);
+			}
+		}
+	}
+
+	/**
+	 * Returns the trigram starting at the given index of a String, packed into a
+	 * long (16 bits per character).
+	 * 
+	 * @param text
+	 * @param start
+	 * @return
+	 */
+	private static long trigram(String text, int start) {
+		return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+	}
+
+	/**
+	 * A growable, sorted array of user ids.
+	 */
+	private static class PostingList {
+
+		private int[] ids = new int[4];
+		private int size;
+
+		private void add(int id) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+			ids[size++] = id;
+		}
+
+	}
+
+}
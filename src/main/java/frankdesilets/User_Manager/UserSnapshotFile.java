@@ -0,0 +1,213 @@
+package frankdesilets.User_Manager;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * This class reads and writes user storage files in the binary snapshot format,
+ * an alternative to the comma-separated text format that is faster to load.
+ * 
+ * A snapshot begins with a header:
+ * 
+ * 		magic number	4 bytes		0x89 'U' 'S' 'R'
+ * 		version			2 bytes		FORMAT_VERSION
+ * 		row count		4 bytes		the number of users
+ * 		checksum		4 bytes		the CRC32 of every byte after the header
+ * 
+ * followed by one record per user, in the order of the list written:
+ * 
+ * 		emailID, first name, last name	each an unsigned 2 byte length followed by
+ * 										that many bytes of UTF-8
+ * 		role, status					each 1 byte, the ordinal of the enum constant
+ * 
+ * Numbers are big-endian. The first byte of the magic number cannot begin a
+ * UTF-8 character, so a snapshot is never mistaken for a text file.
+ */
+public final class UserSnapshotFile {
+
+	public static final short FORMAT_VERSION = 1; // the version of the format written
+
+	static final int HEADER_SIZE = 14; // the size of the header in bytes
+	static final int MAXIMUM_FIELD_LENGTH = 0xFFFF; // the largest encoded field length
+
+	private static final byte[] MAGIC_NUMBER = { (byte) 0x89, 'U', 'S', 'R' };
+	private static final Role[] ROLES = Role.values(); // the role of each stored ordinal
+	private static final Status[] STATUSES = Status.values(); // the status of each stored ordinal
+
+	private UserSnapshotFile() {
+	}
+
+	/**
+	 * Returns true if a file begins with the snapshot magic number. Returns false
+	 * if the file is shorter than the magic number or does not exist.
+	 * 
+	 * @param file
+	 * @return
+	 */
+	public static boolean isSnapshot(File file) {
+		try (InputStream in = new FileInputStream(file)) {
+			byte[] start = new byte[MAGIC_NUMBER.length];
+			int bytesRead = in.readNBytes(start, 0, start.length);
+			return bytesRead == start.length && Arrays.equals(start, MAGIC_NUMBER);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Writes a list of users to a file as a snapshot, replacing its contents.
+	 * Throws an IOException if a property is longer than MAXIMUM_FIELD_LENGTH bytes
+	 * when encoded.
+	 * 
+	 * @param file
+	 * @param users
+	 * @throws IOException
+	 */
+	public static void write(File file, List<User> users) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			/*
+			 * The records are written after space left for the header, and the header is
+			 * written last, once the checksum of the records is known.
+			 */
+			channel.position(HEADER_SIZE);
+			CRC32 checksum = new CRC32();
+			// the checksum is updated as each buffered block is written, not for every byte
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+					new CheckedOutputStream(Channels.newOutputStream(channel), checksum), 1 << 16));
+			for (User currentUser : users) {
+				writeField(out, currentUser.getEmailID());
+				writeField(out, currentUser.getFirstName());
+				writeField(out, currentUser.getLastName());
+				out.writeByte(currentUser.getRole().ordinal());
+				out.writeByte(currentUser.getStatus().ordinal());
+			}
+			out.flush();
+
+			writeHeader(channel, users.size(), checksum);
+		}
+	}
+
+	/**
+	 * Writes a snapshot header at the start of a channel, with the number of users
+	 * and the checksum of the records written after it. The channel's position is
+	 * unchanged.
+	 * 
+	 * @param channel
+	 * @param rowCount
+	 * @param checksum
+	 * @throws IOException
+	 */
+	static void writeHeader(FileChannel channel, int rowCount, CRC32 checksum) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.put(MAGIC_NUMBER);
+		header.putShort(FORMAT_VERSION);
+		header.putInt(rowCount);
+		header.putInt((int) checksum.getValue());
+		header.flip();
+		while (header.hasRemaining()) {
+			channel.write(header, header.position());
+		}
+	}
+
+	/**
+	 * Reads the users of a snapshot. Throws an IOException if the file is not a
+	 * snapshot, was written by an unsupported version, or is corrupt (its checksum
+	 * or length does not match its header).
+	 * 
+	 * The file is mapped into memory, its checksum is verified in a single pass,
+	 * and the records are then decoded directly from the mapped bytes.
+	 * 
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public static ArrayList<User> read(File file) throws IOException {
+
+		ByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException(file.getName() + " is too large to be read as a snapshot.");
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		if (buffer.remaining() < HEADER_SIZE) {
+			throw new IOException(file.getName() + " has an incomplete snapshot header.");
+		}
+		byte[] magicNumber = new byte[MAGIC_NUMBER.length];
+		buffer.get(magicNumber);
+		if (!Arrays.equals(magicNumber, MAGIC_NUMBER)) {
+			throw new IOException(file.getName() + " is not a user snapshot.");
+		}
+		short version = buffer.getShort();
+		if (version != FORMAT_VERSION) {
+			throw new IOException(file.getName() + " has unsupported snapshot version " + version + ".");
+		}
+		int rowCount = buffer.getInt();
+		int expectedChecksum = buffer.getInt();
+
+		// the records are only decoded once their checksum is verified
+		CRC32 checksum = new CRC32();
+		checksum.update(buffer.duplicate());
+		if ((int) checksum.getValue() != expectedChecksum) {
+			throw new IOException(file.getName() + " is corrupt (checksum mismatch).");
+		}
+
+		ArrayList<User> users = new ArrayList<User>(Math.max(rowCount, 0));
+		byte[] fieldBuffer = new byte[MAXIMUM_FIELD_LENGTH]; // reused for every field
+		try {
+			for (int i = 0; i < rowCount; i++) {
+				String emailID = readField(buffer, fieldBuffer);
+				String firstName = readField(buffer, fieldBuffer);
+				String lastName = readField(buffer, fieldBuffer);
+				int role = Byte.toUnsignedInt(buffer.get());
+				int status = Byte.toUnsignedInt(buffer.get());
+				if (role >= ROLES.length || status >= STATUSES.length) {
+					throw new IOException(
+							file.getName() + " is corrupt (invalid role or status in row " + (i + 1) + ").");
+				}
+				users.add(new User(emailID, firstName, lastName, ROLES[role], STATUSES[status]));
+			}
+		} catch (BufferUnderflowException e) {
+			throw new IOException(file.getName() + " is corrupt (fewer rows than its header).");
+		}
+		if (buffer.hasRemaining()) {
+			throw new IOException(file.getName() + " is corrupt (data after the last row).");
+		}
+		return users;
+	}
+
+	private static void writeField(DataOutputStream out, String value) throws IOException {
+		byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+		if (encoded.length > MAXIMUM_FIELD_LENGTH) {
+			throw new IOException("A user property is too long to be written to a snapshot.");
+		}
+		out.writeShort(encoded.length);
+		out.write(encoded);
+	}
+
+	private static String readField(ByteBuffer buffer, byte[] fieldBuffer) {
+		int length = Short.toUnsignedInt(buffer.getShort());
+		buffer.get(fieldBuffer, 0, length);
+		return new String(fieldBuffer, 0, length, StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,36 @@
+package frankdesilets.User_Manager;
+
+/**
+ * This type represents the user properties that users can be sorted by in the
+ * Filter Users form (see UserRepository.getSortedUsers()).
+ */
+public enum UserSortField {
+
+	EMAIL_ID {
+		@Override
+		public String getValue(User user) {
+			return user.getEmailID();
+		}
+	},
+	FIRST_NAME {
+		@Override
+		public String getValue(User user) {
+			return user.getFirstName();
+		}
+	},
+	LAST_NAME {
+		@Override
+		public String getValue(User user) {
+			return user.getLastName();
+		}
+	};
+
+	/**
+	 * Returns the value of this property of a user.
+	 * 
+	 * @param user
+	 * @return
+	 */
+	public abstract String getValue(User user);
+
+}
@@ -0,0 +1,71 @@
+package frankdesilets.User_Manager;
+
+/**
+ * This class holds the rules user properties must follow to be added to the
+ * system, shared by the Add User and Edit User forms and the bulk importer.
+ */
+public final class UserValidator {
+
+	private UserValidator() {
+	}
+
+	/**
+	 * Checks an email for correct format. Correct format is determined by the
+	 * presence of one period (.) and one at (@) sign.
+	 * 
+	 * @param emailToCheck
+	 * @return
+	 */
+	public static boolean isEmailCorrectFormat(String emailToCheck) {
+
+		/*
+		 * The email is checked to ensure it contains exactly one period, returning
+		 * false if not.
+		 */
+		int periodCounter = 0;
+		for (int i = 0; i < emailToCheck.length(); i++) {
+			if (emailToCheck.charAt(i) == '.') {
+				periodCounter++;
+			}
+		}
+		// if there not exactly one period in the String, the email is incorrectly
+		// formatted
+		if (periodCounter != 1) {
+			return false;
+		}
+
+		/*
+		 * The email is checked to ensure it contains exactly one at sign, returning
+		 * false if not.
+		 */
+		int atCounter = 0;
+		for (int i = 0; i < emailToCheck.length(); i++) {
+			if (emailToCheck.charAt(i) == '@') {
+				atCounter++;
+			}
+
+		}
+		// if there not exactly one at sign in the String, the email is incorrectly
+		// formatted
+		if (atCounter != 1) {
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns a name with its first character capitalized, as names are stored.
+	 * An empty name is returned unchanged.
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public static String capitalize(String name) {
+		if (name.isEmpty()) {
+			return name;
+		}
+		return name.substring(0, 1).toUpperCase() + name.substring(1);
+	}
+
+}
@@ -7,7 +7,9 @@ import org.junit.platform.suite.api.Suite;
  * This test suite runs all tests on the application.
  */
 @Suite
-@SelectClasses({ TestFileIO.class })
+@SelectClasses({ TestFileIO.class, TestUserRepository.class, TestColumnarUserStore.class,
+		TestMappedUserFile.class, TestUserPersistenceService.class, TestUserQueryEngine.class, TestUserImporter.class,
+		TestUserExporter.class, TestStorageFileWatcher.class })
 public class RunAllTests {
 
 }
@@ -0,0 +1,130 @@
+package tests;
+
+import frankdesilets.User_Manager.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+/**
+ * The following test cases test the columnar user store. Tests include ensuring
+ * that users read back from the store's columns have the properties they were
+ * added with, and that the store's ObservableList view reflects additions.
+ */
+class TestColumnarUserStore {
+
+	/*
+	 * *---*
+	 * TEST CASES
+	 * *---*
+	 * 
+	 * 		testPropertiesReadBack()
+	 * 		testObservableListView()
+	 * 		testReadOnlyViews()
+	 * 		testAddAfterTrim()
+	 */
+
+	/**
+	 * Tests that every property of every user, including non-ASCII names, is read
+	 * back unchanged after the store grows past its initial capacity.
+	 */
+	@Test
+	void testPropertiesReadBack() {
+
+		ObservableList<User> userList = FXCollections.observableArrayList();
+		userList.add(new User("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER, Status.ACTIVE_EMPLOYEE));
+		userList.add(new User("zoe@gmail.com", "Zoë", "Müller", Role.LEVEL_3_ENGINEER, Status.DISABLED_ACCOUNT));
+		userList.add(new User("john@gmail.com", "John", "Appleseed", Role.LEVEL_2_ENGINEER, Status.INACTIVE_EMPLOYEE));
+
+		ColumnarUserStore store = new ColumnarUserStore(1);
+		for (User currentUser : userList) {
+			store.add(currentUser);
+		}
+
+		assertEquals(3, store.size());
+		for (int i = 0; i < userList.size(); i++) {
+			User expected = userList.get(i);
+			User actual = store.getUser(i);
+			assertEquals(expected.getEmailID(), actual.getEmailID());
+			assertEquals(expected.getFirstName(), actual.getFirstName());
+			assertEquals(expected.getLastName(), actual.getLastName());
+			assertEquals(expected.getRole(), actual.getRole());
+			assertEquals(expected.getStatus(), actual.getStatus());
+		}
+		assertEquals("Müller", store.getLastName(1));
+
+		// a recently produced view is reused
+		assertSame(store.getUser(0), store.getUser(0));
+
+		assertThrows(IndexOutOfBoundsException.class, () -> store.getUser(3));
+	}
+
+	/**
+	 * Tests that the ObservableList view contains the stored users, reports
+	 * additions, and cannot be modified.
+	 */
+	@Test
+	void testObservableListView() {
+
+		ObservableList<User> userList = FXCollections.observableArrayList();
+		userList.add(new User("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER, Status.ACTIVE_EMPLOYEE));
+		ColumnarUserStore store = new ColumnarUserStore(userList);
+
+		ObservableList<User> view = store.asObservableList();
+		int[] addedCount = new int[1];
+		view.addListener((ListChangeListener<User>) change -> {
+			while (change.next()) {
+				addedCount[0] += change.getAddedSize();
+			}
+		});
+
+		store.add("greg@yahoo.com", "Greg", "Jones", Role.LEVEL_3_ENGINEER, Status.DISABLED_ACCOUNT);
+
+		assertEquals(2, view.size());
+		assertEquals(1, addedCount[0]);
+		assertEquals("greg@yahoo.com", view.get(1).getEmailID());
+		assertThrows(UnsupportedOperationException.class, () -> view.remove(0));
+	}
+
+	/**
+	 * Tests that the users produced by the store cannot be changed, rather than
+	 * silently discarding changes.
+	 */
+	@Test
+	void testReadOnlyViews() {
+
+		ColumnarUserStore store = new ColumnarUserStore();
+		store.add("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER, Status.ACTIVE_EMPLOYEE);
+		User view = store.getUser(0);
+
+		assertThrows(UnsupportedOperationException.class, () -> view.setFirstName("Martha"));
+		assertThrows(UnsupportedOperationException.class, () -> view.setRole(Role.MANAGER));
+		assertEquals("George", view.getFirstName());
+		assertEquals(Role.SENIOR_MANAGER, view.getRole());
+	}
+
+	/**
+	 * Tests that users can be added to a store after it is trimmed, including an
+	 * empty store.
+	 */
+	@Test
+	void testAddAfterTrim() {
+
+		ColumnarUserStore store = new ColumnarUserStore(List.of());
+		store.add("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER, Status.ACTIVE_EMPLOYEE);
+		store.add("greg@yahoo.com", "Greg", "Jones", Role.LEVEL_3_ENGINEER, Status.DISABLED_ACCOUNT);
+		store.trimToSize();
+		store.add("john@gmail.com", "John", "Appleseed", Role.LEVEL_2_ENGINEER, Status.INACTIVE_EMPLOYEE);
+
+		assertEquals(3, store.size());
+		assertEquals("george@gmail.com", store.getEmailID(0));
+		assertEquals("Jones", store.getLastName(1));
+		assertEquals(Status.INACTIVE_EMPLOYEE, store.getStatus(2));
+	}
+
+}
@@ -2,8 +2,22 @@ package tests;
 
 import frankdesilets.User_Manager.*;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -24,6 +38,18 @@ class TestFileIO {
 	 * 		testWriteMultipleUsers()
 	 * 		testCorrectFormatDetectionOneUser()
 	 * 		testCorrectFormatDetectionMultipleUsers()
+	 * 		testMalformedLineNumber()
+	 * 		testChangeLogReplay()
+	 * 		testLoadFileParallel()
+	 * 		testSnapshotConversion()
+	 * 		testAtomicWrite()
+	 * 		testWriteKeepsListOrder()
+	 * 		testTrailingDelimiters()
+	 * 		testFailedReadKeepsChangeLog()
+	 * 		testFailedCompactionAppendsChanges()
+	 * 		testChangeLogConflicts()
+	 * 		testCompactionSkippedAfterExternalChange()
+	 * 		testWriteKeepsPermissions()
 	 */
 
 	private final int USER_PROPERTY_COUNT = 5;
@@ -45,12 +71,12 @@ class TestFileIO {
 
 		// the correct users are added to the correct user account list
 		User user1 = new User("jacobbutler@companydomain.com", "Jacob", "Butler", Role.LEVEL_3_ENGINEER,
-				Status.INACTIVE_EMPLOYEE, true);
+				Status.INACTIVE_EMPLOYEE);
 		User user2 = new User("heatherc@companydomain.com", "Heather", "Cameron", Role.LEVEL_2_ENGINEER,
-				Status.ACTIVE_EMPLOYEE, true);
+				Status.ACTIVE_EMPLOYEE);
 		User user3 = new User("frankdesilets1@gmail.com", "Frank", "Desilets", Role.LEVEL_2_ENGINEER,
-				Status.ACTIVE_EMPLOYEE, true);
-		User user4 = new User("rees@icloud.com", "James", "Rees", Role.LEVEL_1_ENGINEER, Status.DISABLED_ACCOUNT, true);
+				Status.ACTIVE_EMPLOYEE);
+		User user4 = new User("rees@icloud.com", "James", "Rees", Role.LEVEL_1_ENGINEER, Status.DISABLED_ACCOUNT);
 		correctAccountList.addAll(user1, user2, user3, user4);
 
 		calculatedAccountList = fileIO.loadFile("testUserList_LoadFile.txt"); // users are loaded from the file
@@ -83,7 +109,7 @@ class TestFileIO {
 
 		// the correct user is added to the correct user account list
 		User user1 = new User("frankdesilets1@gmail.com", "Frank", "Desilets", Role.LEVEL_2_ENGINEER,
-				Status.ACTIVE_EMPLOYEE, true);
+				Status.ACTIVE_EMPLOYEE);
 		correctAccountList.add(user1);
 
 		/*
@@ -119,11 +145,9 @@ class TestFileIO {
 		ObservableList<User> calculatedAccountList = FXCollections.observableArrayList();
 
 		// the correct users are added to the correct user account list
-		User user1 = new User("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER, Status.ACTIVE_EMPLOYEE,
-				true);
-		User user2 = new User("john@gmail.com", "John", "Appleseed", Role.LEVEL_2_ENGINEER, Status.INACTIVE_EMPLOYEE,
-				true);
-		User user3 = new User("greg@yahoo.com", "Greg", "Jones", Role.LEVEL_3_ENGINEER, Status.DISABLED_ACCOUNT, true);
+		User user1 = new User("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER, Status.ACTIVE_EMPLOYEE);
+		User user2 = new User("john@gmail.com", "John", "Appleseed", Role.LEVEL_2_ENGINEER, Status.INACTIVE_EMPLOYEE);
+		User user3 = new User("greg@yahoo.com", "Greg", "Jones", Role.LEVEL_3_ENGINEER, Status.DISABLED_ACCOUNT);
 		correctAccountList.addAll(user1, user2, user3);
 
 		/*
@@ -135,14 +159,17 @@ class TestFileIO {
 
 		/*
 		 * Each user in the correct account list has its properties compared to its
-		 * counterpart in the loaded list. Each property should be equal.
+		 * counterpart in the loaded list. Each property should be equal. The file is
+		 * written in descending order by Role, and the written list is not reordered.
 		 */
+		assertSame(user2, correctAccountList.get(1));
+		List<User> correctFileOrder = List.of(user1, user3, user2);
 		for (int i = 0; i < 3; i++) {
-			assertEquals(correctAccountList.get(i).getEmailID(), calculatedAccountList.get(i).getEmailID());
-			assertEquals(correctAccountList.get(i).getFirstName(), calculatedAccountList.get(i).getFirstName());
-			assertEquals(correctAccountList.get(i).getLastName(), calculatedAccountList.get(i).getLastName());
-			assertEquals(correctAccountList.get(i).getRole(), calculatedAccountList.get(i).getRole());
-			assertEquals(correctAccountList.get(i).getStatus(), calculatedAccountList.get(i).getStatus());
+			assertEquals(correctFileOrder.get(i).getEmailID(), calculatedAccountList.get(i).getEmailID());
+			assertEquals(correctFileOrder.get(i).getFirstName(), calculatedAccountList.get(i).getFirstName());
+			assertEquals(correctFileOrder.get(i).getLastName(), calculatedAccountList.get(i).getLastName());
+			assertEquals(correctFileOrder.get(i).getRole(), calculatedAccountList.get(i).getRole());
+			assertEquals(correctFileOrder.get(i).getStatus(), calculatedAccountList.get(i).getStatus());
 		}
 
 	}
@@ -215,4 +242,414 @@ class TestFileIO {
 
 	}
 
+	/**
+	 * Tests that the line number of the first incorrectly formatted line is
+	 * reported.
+	 */
+	@Test
+	void testMalformedLineNumber() {
+
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true); // testing is enabled
+
+		/*
+		 * The second line of the file is the first incorrectly formatted line. A
+		 * correctly formatted file reports no incorrectly formatted line.
+		 */
+		fileIO.loadFile("testUserList_IncorrectFormat_MultipleUsers.txt");
+		assertEquals(2, fileIO.getMalformedLineNumber());
+		assertEquals(false, fileIO.isCorrectFormat("testUserList_IncorrectFormat_MultipleUsers.txt"));
+		assertEquals(2, fileIO.getMalformedLineNumber());
+
+		fileIO.loadFile("testUserList_LoadFile.txt");
+		assertEquals(-1, fileIO.getMalformedLineNumber());
+
+	}
+
+	/**
+	 * Tests that additions, updates, and deletions recorded in the change log are
+	 * applied when the file is loaded, and that the log is then compacted.
+	 */
+	@Test
+	void testChangeLogReplay() {
+
+		/*
+		 * The fileIO object and user lists are created, and the file is written with two
+		 * users (clearing any existing change log).
+		 */
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true); // testing is enabled
+		ObservableList<User> accountList = FXCollections.observableArrayList();
+		User user1 = new User("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER, Status.ACTIVE_EMPLOYEE);
+		User user2 = new User("john@gmail.com", "John", "Appleseed", Role.LEVEL_2_ENGINEER, Status.INACTIVE_EMPLOYEE);
+		accountList.addAll(user1, user2);
+		fileIO.writeFile("testUserList_ChangeLog.txt", accountList);
+
+		/*
+		 * A user is added, the first user is updated (including their emailID), and the
+		 * second user is deleted. Each change is recorded in the change log.
+		 */
+		User user3 = new User("greg@yahoo.com", "Greg", "Jones", Role.LEVEL_3_ENGINEER, Status.DISABLED_ACCOUNT);
+		accountList.add(user3);
+		fileIO.appendAddition("testUserList_ChangeLog.txt", user3, accountList);
+		user1.setEmailID("gwashington@gmail.com");
+		user1.setStatus(Status.INACTIVE_EMPLOYEE);
+		fileIO.appendUpdate("testUserList_ChangeLog.txt", "george@gmail.com", user1, accountList);
+		accountList.remove(user2);
+		fileIO.appendDeletion("testUserList_ChangeLog.txt", user2, accountList);
+		assertEquals(3, fileIO.getChangeLogSize("testUserList_ChangeLog.txt"));
+
+		/*
+		 * A new fileIO object loads the file, applying the changes in the log in order
+		 * and compacting the log.
+		 */
+		UserFileIO reloadingFileIO = new UserFileIO(USER_PROPERTY_COUNT, true);
+		ObservableList<User> calculatedAccountList = reloadingFileIO.loadFile("testUserList_ChangeLog.txt");
+		assertEquals(2, calculatedAccountList.size());
+		assertEquals("gwashington@gmail.com", calculatedAccountList.get(0).getEmailID());
+		assertEquals(Status.INACTIVE_EMPLOYEE, calculatedAccountList.get(0).getStatus());
+		assertEquals("greg@yahoo.com", calculatedAccountList.get(1).getEmailID());
+		assertEquals(0, reloadingFileIO.getChangeLogSize("testUserList_ChangeLog.txt"));
+
+	}
+
+	/**
+	 * Tests that loading a file in parallel chunks produces the same users, in the
+	 * same order, as loading it sequentially, and reports the same incorrectly
+	 * formatted line.
+	 */
+	@Test
+	void testLoadFileParallel(@TempDir Path storageDirectory) throws IOException {
+
+		/*
+		 * A file of 60000 users (about 4 MB) is generated, so that it is split into
+		 * several chunks.
+		 */
+		Path file = storageDirectory.resolve("testUserList_Parallel.txt");
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 60000; i++) {
+			content.append("user" + i + "@companydomain.com,Zoë" + i + ",Müller,Level 2 Engineer,Active Employee\n");
+		}
+		Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			ObservableList<User> sequentialList = fileIO.loadFile("testUserList_Parallel.txt");
+			ObservableList<User> parallelList = fileIO.loadFileParallel("testUserList_Parallel.txt", pool);
+			assertEquals(60000, parallelList.size());
+			for (int i = 0; i < sequentialList.size(); i++) {
+				assertEquals(sequentialList.get(i).getEmailID(), parallelList.get(i).getEmailID());
+				assertEquals(sequentialList.get(i).getFirstName(), parallelList.get(i).getFirstName());
+			}
+			assertEquals(-1, fileIO.getMalformedLineNumber());
+
+			// line 45001 is made incorrectly formatted, in a chunk after the first
+			content.insert(content.indexOf("user45000@"), "incorrectly,formatted\n");
+			Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+			assertEquals(0, fileIO.loadFileParallel("testUserList_Parallel.txt", pool).size());
+			assertEquals(45001, fileIO.getMalformedLineNumber());
+		} finally {
+			pool.shutdown();
+		}
+
+	}
+
+	/**
+	 * Tests converting a file to the binary snapshot format and back, that a
+	 * snapshot loads the same users as the text file it was converted from, and
+	 * that a corrupt snapshot is detected.
+	 */
+	@Test
+	void testSnapshotConversion(@TempDir Path storageDirectory) throws IOException {
+
+		Path file = storageDirectory.resolve("testUserList_Snapshot.txt");
+		Files.copy(Path.of("src/test/java/testuserstoragefiles/testUserList_LoadFile.txt"), file);
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+
+		ObservableList<User> textList = fileIO.loadFile("testUserList_Snapshot.txt");
+
+		// the file is converted to a snapshot and loads the same users
+		assertTrue(fileIO.convertToSnapshot("testUserList_Snapshot.txt"));
+		assertTrue(fileIO.isSnapshot("testUserList_Snapshot.txt"));
+		assertTrue(fileIO.isCorrectFormat("testUserList_Snapshot.txt"));
+		ObservableList<User> snapshotList = fileIO.loadFile("testUserList_Snapshot.txt");
+		assertEquals(textList.size(), snapshotList.size());
+		for (int i = 0; i < textList.size(); i++) {
+			assertEquals(textList.get(i).getEmailID(), snapshotList.get(i).getEmailID());
+			assertEquals(textList.get(i).getFirstName(), snapshotList.get(i).getFirstName());
+			assertEquals(textList.get(i).getLastName(), snapshotList.get(i).getLastName());
+			assertEquals(textList.get(i).getRole(), snapshotList.get(i).getRole());
+			assertEquals(textList.get(i).getStatus(), snapshotList.get(i).getStatus());
+		}
+
+		// writing a snapshot keeps it a snapshot
+		snapshotList.add(new User("zoe@gmail.com", "Zoë", "Müller", Role.MANAGER, Status.ACTIVE_EMPLOYEE));
+		fileIO.writeFile("testUserList_Snapshot.txt", snapshotList);
+		assertTrue(fileIO.isSnapshot("testUserList_Snapshot.txt"));
+		assertEquals("Müller", fileIO.loadFile("testUserList_Snapshot.txt").get(0).getLastName());
+
+		// the file is converted back to the text format
+		assertTrue(fileIO.convertToText("testUserList_Snapshot.txt"));
+		assertFalse(fileIO.isSnapshot("testUserList_Snapshot.txt"));
+		assertEquals(textList.size() + 1, fileIO.loadFile("testUserList_Snapshot.txt").size());
+
+		// a snapshot with a changed byte fails its checksum
+		assertTrue(fileIO.convertToSnapshot("testUserList_Snapshot.txt"));
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[bytes.length - 3] ^= 1;
+		Files.write(file, bytes);
+		assertFalse(fileIO.isCorrectFormat("testUserList_Snapshot.txt"));
+		assertEquals(0, fileIO.loadFile("testUserList_Snapshot.txt").size());
+
+	}
+
+	/**
+	 * Tests that writing a storage file at each durability level replaces it
+	 * completely without leaving temporary files, and that a failed write is
+	 * reported and leaves the previous file unchanged.
+	 */
+	@Test
+	void testAtomicWrite(@TempDir Path storageDirectory) throws IOException {
+
+		Path file = storageDirectory.resolve("testUserList_Atomic.txt");
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+		assertEquals(Durability.PER_BATCH, fileIO.getDurability());
+
+		ObservableList<User> accountList = FXCollections.observableArrayList();
+		for (Durability durability : Durability.values()) {
+			fileIO.setDurability(durability);
+			accountList.add(new User(durability.name().toLowerCase() + "@gmail.com", "First", "Last",
+					Role.MANAGER, Status.ACTIVE_EMPLOYEE));
+			assertTrue(fileIO.writeFile("testUserList_Atomic.txt", accountList));
+			fileIO.appendAddition("testUserList_Atomic.txt",
+					new User("log" + durability.ordinal() + "@gmail.com", "Log", "Record",
+							Role.LEVEL_1_ENGINEER, Status.ACTIVE_EMPLOYEE),
+					accountList);
+
+			// the file and its change log are the only files in the directory
+			try (Stream<Path> files = Files.list(storageDirectory)) {
+				assertEquals(2, files.count());
+			}
+			assertEquals(accountList.size() + 1, fileIO.loadFile("testUserList_Atomic.txt").size());
+		}
+
+		/*
+		 * A user property too long for a snapshot makes the write fail after it has
+		 * begun. The failure is reported and the previous snapshot is left in place.
+		 */
+		assertTrue(fileIO.convertToSnapshot("testUserList_Atomic.txt"));
+		byte[] snapshotBytes = Files.readAllBytes(file);
+		accountList.add(new User("long@gmail.com", "x".repeat(70000), "Last", Role.MANAGER,
+				Status.ACTIVE_EMPLOYEE));
+		assertFalse(fileIO.writeFile("testUserList_Atomic.txt", accountList));
+		assertArrayEquals(snapshotBytes, Files.readAllBytes(file));
+		try (Stream<Path> files = Files.list(storageDirectory)) {
+			assertEquals(1, files.count());
+		}
+
+	}
+
+	/**
+	 * Tests that a list that is not in descending order by Role is written in that
+	 * order, without the list itself being reordered.
+	 */
+	@Test
+	void testWriteKeepsListOrder(@TempDir Path storageDirectory) throws IOException {
+
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+
+		User engineer = new User("john@gmail.com", "John", "Appleseed", Role.LEVEL_2_ENGINEER,
+				Status.INACTIVE_EMPLOYEE);
+		User seniorManager = new User("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER,
+				Status.ACTIVE_EMPLOYEE);
+		User manager = new User("anthonyo@gmail.com", "Anthony", "Odgen", Role.MANAGER, Status.ACTIVE_EMPLOYEE);
+		ObservableList<User> accountList = FXCollections.observableArrayList(engineer, seniorManager, manager);
+
+		fileIO.writeFile("testUserList_Order.txt", accountList);
+		assertEquals(List.of(engineer, seniorManager, manager), accountList);
+
+		ObservableList<User> loadedList = fileIO.loadFile("testUserList_Order.txt");
+		assertEquals("george@gmail.com", loadedList.get(0).getEmailID());
+		assertEquals("anthonyo@gmail.com", loadedList.get(1).getEmailID());
+		assertEquals("john@gmail.com", loadedList.get(2).getEmailID());
+
+	}
+
+	/**
+	 * Tests that lines ending in a delimiter are loaded, as they were when lines
+	 * were split with String.split(), by each of the loaders.
+	 */
+	@Test
+	void testTrailingDelimiters(@TempDir Path storageDirectory) throws IOException {
+
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+		Path storageFile = storageDirectory.resolve("testUserList_TrailingDelimiters.txt");
+
+		Files.writeString(storageFile, "george@gmail.com,George,Washington,Senior Manager,Active Employee,\n"
+				+ "john@gmail.com,,Appleseed,Level 2 Engineer,Inactive Employee,,", StandardCharsets.UTF_8);
+
+		assertTrue(fileIO.isCorrectFormat("testUserList_TrailingDelimiters.txt"));
+		ObservableList<User> loadedList = fileIO.loadFile("testUserList_TrailingDelimiters.txt");
+		assertEquals(2, loadedList.size());
+		assertEquals(Status.ACTIVE_EMPLOYEE, loadedList.get(0).getStatus());
+		assertEquals("", loadedList.get(1).getFirstName());
+		assertEquals(2, fileIO.loadFileParallel("testUserList_TrailingDelimiters.txt").size());
+		MappedUserFile mappedFile = fileIO.mapFile("testUserList_TrailingDelimiters.txt");
+		assertEquals(Status.INACTIVE_EMPLOYEE, mappedFile.getUser(1).getStatus());
+
+		// a line with too few fields is still incorrectly formatted
+		Files.writeString(storageFile, "george@gmail.com,George,Washington,Senior Manager,", StandardCharsets.UTF_8);
+		assertFalse(fileIO.isCorrectFormat("testUserList_TrailingDelimiters.txt"));
+		assertTrue(fileIO.loadFileParallel("testUserList_TrailingDelimiters.txt").isEmpty());
+
+	}
+
+	/**
+	 * Tests that the change log is neither applied nor compacted when the storage
+	 * file cannot be read, by either loader, so the users of a file that failed to
+	 * load are not replaced by the users in the log.
+	 */
+	@Test
+	void testFailedReadKeepsChangeLog(@TempDir Path storageDirectory) throws IOException {
+
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+		Path storageFile = storageDirectory.resolve("testUserList_FailedRead.txt");
+
+		// the change log holds an addition, but the storage file cannot be read
+		User user = new User("greg@yahoo.com", "Greg", "Jones", Role.LEVEL_3_ENGINEER, Status.DISABLED_ACCOUNT);
+		fileIO.appendAddition("testUserList_FailedRead.txt", user, FXCollections.observableArrayList(user));
+		assertTrue(fileIO.hasChangeLog("testUserList_FailedRead.txt"));
+
+		assertTrue(fileIO.loadFile("testUserList_FailedRead.txt").isEmpty());
+		assertTrue(fileIO.hasLoadFailed());
+		assertTrue(fileIO.loadFileParallel("testUserList_FailedRead.txt").isEmpty());
+		assertTrue(fileIO.hasLoadFailed());
+		assertFalse(Files.exists(storageFile));
+		assertTrue(fileIO.hasChangeLog("testUserList_FailedRead.txt"));
+
+	}
+
+	/**
+	 * Tests that changes are appended to the change log when compacting the log
+	 * into the storage file fails, rather than being lost.
+	 */
+	@Test
+	void testFailedCompactionAppendsChanges(@TempDir Path storageDirectory) throws IOException {
+
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+
+		ObservableList<User> accountList = FXCollections.observableArrayList(
+				new User("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER, Status.ACTIVE_EMPLOYEE));
+		fileIO.writeFile("testUserList_FailedCompaction.txt", accountList);
+		assertTrue(fileIO.convertToSnapshot("testUserList_FailedCompaction.txt"));
+
+		/*
+		 * Enough records to compact the log are appended, but a user property too long
+		 * for a snapshot makes the compaction fail. The records are appended instead.
+		 */
+		User longUser = new User("long@gmail.com", "x".repeat(70000), "Last", Role.MANAGER,
+				Status.ACTIVE_EMPLOYEE);
+		accountList.add(longUser);
+		List<String> records = Collections.nCopies(1000, "DELETE,nobody@gmail.com");
+		assertTrue(fileIO.appendChanges("testUserList_FailedCompaction.txt", records, () -> accountList));
+		assertEquals(1000, fileIO.getChangeLogSize("testUserList_FailedCompaction.txt"));
+		assertTrue(fileIO.hasChangeLog("testUserList_FailedCompaction.txt"));
+
+	}
+
+	/**
+	 * Tests that change log records that would replace another user (an addition
+	 * of a held emailID, or an update to another user's emailID) are skipped when
+	 * the log is replayed.
+	 */
+	@Test
+	void testChangeLogConflicts(@TempDir Path storageDirectory) {
+
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+		User george = new User("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER,
+				Status.ACTIVE_EMPLOYEE);
+		User john = new User("john@gmail.com", "John", "Appleseed", Role.LEVEL_2_ENGINEER, Status.INACTIVE_EMPLOYEE);
+		ObservableList<User> accountList = FXCollections.observableArrayList(george, john);
+		fileIO.writeFile("testUserList_Conflicts.txt", accountList);
+
+		// John is added again, and George is updated to John's emailID, then to a new emailID
+		fileIO.appendAddition("testUserList_Conflicts.txt",
+				new User("john@gmail.com", "Johnny", "Appleseed", Role.MANAGER, Status.ACTIVE_EMPLOYEE), accountList);
+		fileIO.appendUpdate("testUserList_Conflicts.txt", "george@gmail.com",
+				new User("john@gmail.com", "George", "Washington", Role.SENIOR_MANAGER, Status.ACTIVE_EMPLOYEE),
+				accountList);
+		fileIO.appendUpdate("testUserList_Conflicts.txt", "george@gmail.com",
+				new User("gwashington@gmail.com", "George", "Washington", Role.SENIOR_MANAGER,
+						Status.ACTIVE_EMPLOYEE),
+				accountList);
+
+		// only the last update is applied, and John is unchanged
+		ObservableList<User> loadedList = fileIO.loadFile("testUserList_Conflicts.txt");
+		assertEquals(2, loadedList.size());
+		assertEquals("gwashington@gmail.com", loadedList.get(0).getEmailID());
+		assertEquals("john@gmail.com", loadedList.get(1).getEmailID());
+		assertEquals("John", loadedList.get(1).getFirstName());
+		assertEquals(Role.LEVEL_2_ENGINEER, loadedList.get(1).getRole());
+	}
+
+	/**
+	 * Tests that the change log is not compacted into a storage file modified by
+	 * another program, which would overwrite the modification. The records are
+	 * appended instead, and are applied to the modified file when it is loaded.
+	 */
+	@Test
+	void testCompactionSkippedAfterExternalChange(@TempDir Path storageDirectory) throws IOException {
+
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+		ObservableList<User> accountList = FXCollections.observableArrayList(
+				new User("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER, Status.ACTIVE_EMPLOYEE));
+		fileIO.writeFile("testUserList_ExternalChange.txt", accountList);
+
+		/*
+		 * Another program replaces the storage file. Its modified time is set
+		 * explicitly, so the modification is seen even if it is made within the
+		 * resolution of the file system's clock.
+		 */
+		UserFileIO otherFileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+		otherFileIO.writeFile("testUserList_ExternalChange.txt", FXCollections.observableArrayList(
+				new User("john@gmail.com", "John", "Appleseed", Role.LEVEL_2_ENGINEER, Status.INACTIVE_EMPLOYEE)));
+		Path storageFile = storageDirectory.resolve("testUserList_ExternalChange.txt");
+		Files.setLastModifiedTime(storageFile,
+				FileTime.fromMillis(Files.getLastModifiedTime(storageFile).toMillis() - 60000));
+		assertTrue(fileIO.isChangedExternally("testUserList_ExternalChange.txt"));
+
+		// enough records to compact the log are appended, but the log is kept
+		List<String> records = Collections.nCopies(1000, "DELETE,nobody@gmail.com");
+		assertTrue(fileIO.appendChanges("testUserList_ExternalChange.txt", records, () -> accountList));
+		assertEquals(1000, fileIO.getChangeLogSize("testUserList_ExternalChange.txt"));
+		assertTrue(fileIO.isChangedExternally("testUserList_ExternalChange.txt"));
+
+		// the other program's users are loaded
+		ObservableList<User> loadedList = fileIO.loadFile("testUserList_ExternalChange.txt");
+		assertEquals(1, loadedList.size());
+		assertEquals("john@gmail.com", loadedList.get(0).getEmailID());
+	}
+
+	/**
+	 * Tests that writing a storage file keeps the file's permissions, rather than
+	 * those of the temporary file it is replaced with. Skipped on file systems
+	 * without POSIX permissions.
+	 */
+	@Test
+	void testWriteKeepsPermissions(@TempDir Path storageDirectory) throws IOException {
+
+		assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+		ObservableList<User> accountList = FXCollections.observableArrayList(
+				new User("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER, Status.ACTIVE_EMPLOYEE));
+		fileIO.writeFile("testUserList_Permissions.txt", accountList);
+		Path storageFile = storageDirectory.resolve("testUserList_Permissions.txt");
+		Files.setPosixFilePermissions(storageFile, PosixFilePermissions.fromString("rw-rw-r--"));
+
+		// the file is replaced as text and as a snapshot
+		assertTrue(fileIO.writeFile("testUserList_Permissions.txt", accountList));
+		assertEquals("rw-rw-r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(storageFile)));
+		assertTrue(fileIO.convertToSnapshot("testUserList_Permissions.txt"));
+		assertEquals("rw-rw-r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(storageFile)));
+	}
+
 }
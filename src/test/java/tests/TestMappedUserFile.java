@@ -0,0 +1,185 @@
+package tests;
+
+import frankdesilets.User_Manager.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+import javafx.collections.ObservableList;
+
+/**
+ * The following test cases test reading user storage files through a
+ * MappedUserFile. Tests include ensuring the mapped file decodes the same users
+ * as UserFileIO.loadFile(), and that line terminators, non-ASCII characters,
+ * region boundaries, and incorrect formatting are handled.
+ */
+class TestMappedUserFile {
+
+	/*
+	 * *---*
+	 * TEST CASES
+	 * *---*
+	 * 
+	 * 		testMatchesLoadFile()
+	 * 		testRowsAcrossRegions()
+	 * 		testMalformedLineNumber()
+	 * 		testPagedUserList()
+	 * 		testPagedUserListMalformedRow()
+	 */
+
+	private final int USER_PROPERTY_COUNT = 5;
+
+	/**
+	 * Tests that the users decoded from a mapped file match the users loaded by
+	 * UserFileIO.loadFile().
+	 */
+	@Test
+	void testMatchesLoadFile() {
+
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true); // testing is enabled
+		ObservableList<User> loadedUsers = fileIO.loadFile("testUserList_LoadFile.txt");
+		MappedUserFile mappedFile = fileIO.mapFile("testUserList_LoadFile.txt");
+
+		assertNotNull(mappedFile);
+		assertEquals(loadedUsers.size(), mappedFile.size());
+		for (int i = 0; i < loadedUsers.size(); i++) {
+			User expected = loadedUsers.get(i);
+			User actual = mappedFile.getUser(i);
+			assertEquals(expected.getEmailID(), actual.getEmailID());
+			assertEquals(expected.getFirstName(), actual.getFirstName());
+			assertEquals(expected.getLastName(), actual.getLastName());
+			assertEquals(expected.getRole(), actual.getRole());
+			assertEquals(expected.getStatus(), actual.getStatus());
+		}
+		assertEquals(-1, mappedFile.findMalformedLineNumber());
+	}
+
+	/**
+	 * Tests rows that cross region boundaries, contain non-ASCII characters, and
+	 * end in "\r\n", with a line terminator at the end of the file.
+	 */
+	@Test
+	void testRowsAcrossRegions() throws IOException {
+
+		String content = "george@gmail.com,George,Washington,Senior Manager,Active Employee\r\n"
+				+ "zoe@gmail.com,Zoë,Müller,Level 3 Engineer,Disabled Account\n"
+				+ "john@gmail.com,John,Appleseed,Level 2 Engineer,Inactive Employee\n";
+		Path file = Files.createTempFile("mappedUserFile", ".txt");
+		try {
+			Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+			// regions of 7 bytes place every row, and some characters, across a boundary
+			MappedUserFile mappedFile = MappedUserFile.map(file, USER_PROPERTY_COUNT, 7);
+
+			assertEquals(3, mappedFile.size());
+			assertEquals("Active Employee", mappedFile.getField(0, 4));
+			assertEquals("Zoë", mappedFile.getField(1, 1));
+			assertEquals("Müller", mappedFile.getUser(1).getLastName());
+			assertEquals(Role.LEVEL_2_ENGINEER, mappedFile.getUser(2).getRole());
+			assertEquals(Status.INACTIVE_EMPLOYEE, mappedFile.getUser(2).getStatus());
+			assertNull(mappedFile.getField(0, 5));
+			assertEquals(content.indexOf("zoe"), mappedFile.getRowOffset(1));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	/**
+	 * Tests that the first incorrectly formatted line is found, and that its row
+	 * cannot be decoded as a user.
+	 */
+	@Test
+	void testMalformedLineNumber() throws IOException {
+
+		MappedUserFile mappedFile = MappedUserFile.map(
+				Paths.get("src/test/java/testuserstoragefiles/testUserList_IncorrectFormat_MultipleUsers.txt"),
+				USER_PROPERTY_COUNT);
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true); // testing is enabled
+		fileIO.isCorrectFormat("testUserList_IncorrectFormat_MultipleUsers.txt");
+
+		int malformedLineNumber = mappedFile.findMalformedLineNumber();
+		assertEquals(fileIO.getMalformedLineNumber(), malformedLineNumber);
+		assertFalse(mappedFile.isCorrectFormat(malformedLineNumber - 1));
+		assertNull(mappedFile.getUser(malformedLineNumber - 1));
+	}
+
+	/**
+	 * Tests that a PagedUserList over a mapped file returns the users of the file,
+	 * decodes each page once while it is cached, and evicts the least recently used
+	 * page once the cache is full.
+	 */
+	@Test
+	void testPagedUserList() throws IOException {
+
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 10; i++) {
+			content.append("user" + i + "@gmail.com,First" + i + ",Last,Manager,Active Employee\n");
+		}
+		Path file = Files.createTempFile("pagedUserList", ".txt");
+		try {
+			Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+			// pages of 3 users, at most 2 of which are cached
+			PagedUserList pagedList = new PagedUserList(MappedUserFile.map(file, USER_PROPERTY_COUNT), 3, 2);
+
+			// the size is known before any user is decoded
+			assertEquals(10, pagedList.size());
+			assertEquals(0, pagedList.getDecodedPageCount());
+
+			assertEquals("user0@gmail.com", pagedList.get(0).getEmailID());
+			assertEquals("First2", pagedList.get(2).getFirstName());
+			assertEquals(1, pagedList.getDecodedPageCount());
+
+			// the last page holds a single user
+			assertEquals("user9@gmail.com", pagedList.get(9).getEmailID());
+			assertEquals(2, pagedList.getDecodedPageCount());
+
+			// the first page is used again, so the last page is evicted when a third is decoded
+			pagedList.get(1);
+			pagedList.get(4);
+			assertEquals(3, pagedList.getDecodedPageCount());
+			assertEquals(2, pagedList.getCachedPageCount());
+			pagedList.get(0);
+			assertEquals(3, pagedList.getDecodedPageCount());
+			pagedList.get(9);
+			assertEquals(4, pagedList.getDecodedPageCount());
+
+			assertThrows(IndexOutOfBoundsException.class, () -> pagedList.get(10));
+			assertThrows(UnsupportedOperationException.class,
+					() -> pagedList.add(new User("a@gmail.com", "A", "A", Role.MANAGER, Status.ACTIVE_EMPLOYEE)));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	/**
+	 * Tests that an incorrectly formatted row fails the load of a PagedUserList,
+	 * reporting its line number once, rather than being returned as null.
+	 */
+	@Test
+	void testPagedUserListMalformedRow() throws IOException {
+
+		MappedUserFile mappedFile = MappedUserFile.map(
+				Paths.get("src/test/java/testuserstoragefiles/testUserList_IncorrectFormat_MultipleUsers.txt"),
+				USER_PROPERTY_COUNT);
+		int malformedLineNumber = mappedFile.findMalformedLineNumber();
+		PagedUserList pagedList = new PagedUserList(mappedFile, 2, 2);
+		int[] failureCount = new int[1];
+		pagedList.setLoadFailedListener(() -> failureCount[0]++);
+		assertFalse(pagedList.hasLoadFailed());
+
+		// every row, including the incorrectly formatted row, is returned as a user
+		for (int i = 0; i < pagedList.size(); i++) {
+			assertNotNull(pagedList.get(i));
+		}
+		assertTrue(pagedList.hasLoadFailed());
+		assertEquals(malformedLineNumber, pagedList.getMalformedLineNumber());
+		assertEquals(1, failureCount[0]);
+		assertEquals("", pagedList.get(malformedLineNumber - 1).getEmailID());
+	}
+
+}
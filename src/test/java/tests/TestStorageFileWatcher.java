@@ -0,0 +1,130 @@
+package tests;
+
+import frankdesilets.User_Manager.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * The following test cases test reloading the storage file when it is modified
+ * by another program. Tests include ensuring the watcher is notified of
+ * modifications, that the application's own writes are not mistaken for
+ * external modifications, and that only the differences from the loaded users
+ * are applied.
+ */
+class TestStorageFileWatcher {
+
+	/*
+	 * *---*
+	 * TEST CASES
+	 * *---*
+	 * 
+	 * 		testWatcherNotifiesModifications()
+	 * 		testReloadAppliesDifferences()
+	 */
+
+	private final int USER_PROPERTY_COUNT = 5;
+
+	/**
+	 * Returns a list of three users, in descending order by Role.
+	 * 
+	 * @return
+	 */
+	private ObservableList<User> createUsers() {
+		ObservableList<User> accountList = FXCollections.observableArrayList();
+		accountList.add(new User("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER,
+				Status.ACTIVE_EMPLOYEE));
+		accountList.add(new User("greg@yahoo.com", "Greg", "Jones", Role.LEVEL_3_ENGINEER, Status.DISABLED_ACCOUNT));
+		accountList.add(new User("john@gmail.com", "John", "Appleseed", Role.LEVEL_2_ENGINEER,
+				Status.INACTIVE_EMPLOYEE));
+		return accountList;
+	}
+
+	/**
+	 * Tests that the watcher is notified when the storage file is modified by
+	 * another program, and that the file is only reported as changed externally
+	 * after a modification not made through the UserFileIO.
+	 */
+	@Test
+	void testWatcherNotifiesModifications(@TempDir Path storageDirectory) throws IOException, InterruptedException {
+
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+		fileIO.writeFile("testUserList_Watched.txt", createUsers());
+		assertFalse(fileIO.isChangedExternally("testUserList_Watched.txt"));
+		fileIO.loadFile("testUserList_Watched.txt");
+		assertFalse(fileIO.isChangedExternally("testUserList_Watched.txt"));
+
+		CountDownLatch notified = new CountDownLatch(1);
+		try (StorageFileWatcher watcher = new StorageFileWatcher(
+				fileIO.getStorageFile("testUserList_Watched.txt"), notified::countDown)) {
+			watcher.start();
+
+			// another program appends a user
+			Path storageFile = fileIO.getStorageFile("testUserList_Watched.txt").toPath();
+			Files.writeString(storageFile, "\nrees@icloud.com,James,Rees,Manager,Active Employee",
+					StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+			// the modified time is moved forward, in case the file system records it coarsely
+			Files.setLastModifiedTime(storageFile,
+					FileTime.fromMillis(Files.getLastModifiedTime(storageFile).toMillis() + 2000));
+
+			assertTrue(notified.await(10, TimeUnit.SECONDS));
+			assertTrue(fileIO.isChangedExternally("testUserList_Watched.txt"));
+			assertEquals(4, fileIO.loadFile("testUserList_Watched.txt").size());
+			assertFalse(fileIO.isChangedExternally("testUserList_Watched.txt"));
+		}
+	}
+
+	/**
+	 * Tests that the differences between the held users and the reloaded users are
+	 * found by emailID and applied in place, and that an incorrectly formatted file
+	 * is reported as a failed load rather than a file without users.
+	 */
+	@Test
+	void testReloadAppliesDifferences(@TempDir Path storageDirectory) throws IOException {
+
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+		UserRepository repository = new UserRepository(createUsers());
+		User george = repository.getUser("george@gmail.com");
+
+		// another program edits George, removes Greg, and adds James
+		Path storageFile = fileIO.getStorageFile("testUserList_Reloaded.txt").toPath();
+		Files.writeString(storageFile, "george@gmail.com,George,Washington,Senior Manager,Inactive Employee\n"
+				+ "rees@icloud.com,James,Rees,Manager,Active Employee\n"
+				+ "john@gmail.com,John,Appleseed,Level 2 Engineer,Inactive Employee\n", StandardCharsets.UTF_8);
+		List<User> loadedUsers = fileIO.loadFile("testUserList_Reloaded.txt");
+		assertFalse(fileIO.hasLoadFailed());
+
+		UserChanges changes = repository.diff(loadedUsers);
+		assertEquals("1 Added, 1 Updated, 1 Removed", changes.toString());
+		assertSame(george, changes.getUpdatedUsers().get(0));
+		repository.applyChanges(changes);
+
+		// George is edited in place, keeping his position
+		assertSame(george, repository.getUserList().get(0));
+		assertEquals(Status.INACTIVE_EMPLOYEE, george.getStatus());
+		assertEquals("rees@icloud.com", repository.getUserList().get(1).getEmailID());
+		assertNull(repository.getUser("greg@yahoo.com"));
+		assertEquals(3, repository.size());
+		assertTrue(repository.diff(fileIO.loadFile("testUserList_Reloaded.txt")).isEmpty());
+
+		// a partly written line fails the load, rather than removing every user
+		Files.writeString(storageFile, "george@gmail.com,George,Washing", StandardCharsets.UTF_8);
+		assertTrue(fileIO.loadFile("testUserList_Reloaded.txt").isEmpty());
+		assertTrue(fileIO.hasLoadFailed());
+	}
+
+}
@@ -0,0 +1,173 @@
+package tests;
+
+import frankdesilets.User_Manager.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * The following test cases test the streaming exporter. Tests include ensuring
+ * users are exported in each format, that the results of a query are exported
+ * in order, and that a cancelled export leaves the file unchanged.
+ */
+class TestUserExporter {
+
+	/*
+	 * *---*
+	 * TEST CASES
+	 * *---*
+	 * 
+	 * 		testExportFormats()
+	 * 		testExportQueryResults()
+	 * 		testCancelledExport()
+	 * 		testExportKeepsPermissions()
+	 */
+
+	/**
+	 * Tests that users are exported as CSV that can be imported, as JSON Lines
+	 * with properties escaped, and as a snapshot that can be read as a storage
+	 * file.
+	 */
+	@Test
+	void testExportFormats(@TempDir Path exportDirectory) throws IOException {
+
+		ObservableList<User> accountList = FXCollections.observableArrayList();
+		accountList.add(new User("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER,
+				Status.ACTIVE_EMPLOYEE));
+		accountList.add(new User("jose@gmail.com", "José", "O\"Brien", Role.LEVEL_3_ENGINEER,
+				Status.DISABLED_ACCOUNT));
+
+		// the CSV export is imported into an empty repository
+		File csvFile = exportDirectory.resolve("users.csv").toFile();
+		assertEquals(2, new UserExporter(ExportFormat.CSV).export(accountList, csvFile));
+		List<String> csvLines = Files.readAllLines(csvFile.toPath(), StandardCharsets.UTF_8);
+		assertEquals(3, csvLines.size());
+		assertEquals("george@gmail.com,George,Washington,Senior Manager,Active Employee", csvLines.get(1));
+		UserRepository importedRepository = new UserRepository(FXCollections.observableArrayList());
+		UserImporter.ImportResult result = new UserImporter(importedRepository, null, 35).importFile(csvFile,
+				progress -> {
+				});
+		assertEquals(2, result.getImportedCount());
+		assertEquals("O\"Brien", importedRepository.getUser("jose@gmail.com").getLastName());
+
+		File jsonFile = exportDirectory.resolve("users.jsonl").toFile();
+		new UserExporter(ExportFormat.JSON_LINES).export(accountList, jsonFile);
+		List<String> jsonLines = Files.readAllLines(jsonFile.toPath(), StandardCharsets.UTF_8);
+		assertEquals(2, jsonLines.size());
+		assertEquals("{\"emailID\":\"jose@gmail.com\",\"firstName\":\"José\",\"lastName\":\"O\\\"Brien\","
+				+ "\"role\":\"Level 3 Engineer\",\"status\":\"Disabled Account\"}", jsonLines.get(1));
+
+		File snapshotFile = exportDirectory.resolve("users.usr").toFile();
+		new UserExporter(ExportFormat.SNAPSHOT).export(accountList, snapshotFile);
+		assertTrue(UserSnapshotFile.isSnapshot(snapshotFile));
+		List<User> readUsers = UserSnapshotFile.read(snapshotFile);
+		assertEquals(2, readUsers.size());
+		assertEquals("José", readUsers.get(1).getFirstName());
+		assertEquals(Status.DISABLED_ACCOUNT, readUsers.get(1).getStatus());
+
+		// characters of every UTF-8 length are encoded as String.getBytes() would
+		String name = "Zoë \u2603 \uD83D\uDE00";
+		accountList.get(0).setFirstName(name);
+		new UserExporter(ExportFormat.SNAPSHOT).export(accountList, snapshotFile);
+		assertEquals(name, UserSnapshotFile.read(snapshotFile).get(0).getFirstName());
+		new UserExporter(ExportFormat.JSON_LINES).export(accountList, jsonFile);
+		assertTrue(Files.readAllLines(jsonFile.toPath(), StandardCharsets.UTF_8).get(0).contains(name));
+
+		assertEquals(ExportFormat.JSON_LINES, ExportFormat.forFileName("Users.JSONL"));
+		assertNull(ExportFormat.forFileName("users.txt"));
+	}
+
+	/**
+	 * Tests that the results of a sorted query are exported in the order of the
+	 * results, with enough users to fill the exporter's buffer several times.
+	 */
+	@Test
+	void testExportQueryResults(@TempDir Path exportDirectory) throws IOException {
+
+		ObservableList<User> accountList = FXCollections.observableArrayList();
+		Role[] roles = Role.values();
+		for (int i = 0; i < 20000; i++) {
+			accountList.add(new User("user" + i + "@gmail.com", "First" + i, "Last" + i, roles[i % 5],
+					Status.ACTIVE_EMPLOYEE));
+		}
+		UserRepository repository = new UserRepository(accountList);
+		UserQuery query = new UserQuery();
+		query.setRole(Role.MANAGER);
+		query.setSortField(UserSortField.EMAIL_ID);
+		List<User> results = new UserQueryEngine(repository).execute(query);
+
+		File snapshotFile = exportDirectory.resolve("managers.usr").toFile();
+		List<Integer> progressCounts = new ArrayList<Integer>();
+		UserExporter exporter = new UserExporter(ExportFormat.SNAPSHOT);
+		exporter.setProgressListener(progressCounts::add);
+		assertEquals(4000, exporter.export(results, snapshotFile));
+		assertEquals(List.of(4000), progressCounts);
+
+		List<User> readUsers = UserSnapshotFile.read(snapshotFile);
+		assertEquals(results.size(), readUsers.size());
+		for (int i = 0; i < results.size(); i++) {
+			assertEquals(results.get(i).getEmailID(), readUsers.get(i).getEmailID());
+			assertEquals(Role.MANAGER, readUsers.get(i).getRole());
+		}
+	}
+
+	/**
+	 * Tests that an export stopped by an interrupt throws an
+	 * InterruptedIOException and leaves the existing file unchanged.
+	 */
+	@Test
+	void testCancelledExport(@TempDir Path exportDirectory) throws IOException {
+
+		ObservableList<User> accountList = FXCollections.observableArrayList();
+		accountList.add(new User("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER,
+				Status.ACTIVE_EMPLOYEE));
+		Path exportFile = exportDirectory.resolve("users.csv");
+		Files.writeString(exportFile, "previous export");
+
+		Thread.currentThread().interrupt();
+		try {
+			assertThrows(InterruptedIOException.class,
+					() -> new UserExporter(ExportFormat.CSV).export(accountList, exportFile.toFile()));
+		} finally {
+			Thread.interrupted(); // the interrupt is cleared so later tests are unaffected
+		}
+		assertEquals("previous export", Files.readString(exportFile));
+		assertEquals(1, exportDirectory.toFile().list().length); // the temporary file was deleted
+	}
+
+	/**
+	 * Tests that exporting over an existing file keeps the file's permissions.
+	 * Skipped on file systems without POSIX permissions.
+	 */
+	@Test
+	void testExportKeepsPermissions(@TempDir Path exportDirectory) throws IOException {
+
+		assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+		ObservableList<User> accountList = FXCollections.observableArrayList();
+		accountList.add(new User("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER,
+				Status.ACTIVE_EMPLOYEE));
+		Path exportFile = exportDirectory.resolve("users.csv");
+		Files.writeString(exportFile, "previous export");
+		Files.setPosixFilePermissions(exportFile, PosixFilePermissions.fromString("rw-rw-r--"));
+
+		assertEquals(1, new UserExporter(ExportFormat.CSV).export(accountList, exportFile.toFile()));
+		assertEquals("rw-rw-r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(exportFile)));
+	}
+
+}
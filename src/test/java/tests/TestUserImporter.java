@@ -0,0 +1,183 @@
+package tests;
+
+import frankdesilets.User_Manager.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * The following test cases test the bulk importer. Tests include ensuring lines
+ * are parsed, validated, and deduplicated, with rejected lines reported, and
+ * that each batch is committed together and written in a single write.
+ */
+class TestUserImporter {
+
+	/*
+	 * *---*
+	 * TEST CASES
+	 * *---*
+	 * 
+	 * 		testImportRejectsInvalidRows()
+	 * 		testImportCommitsBatches()
+	 * 		testImportHeaderDetection()
+	 */
+
+	private final int USER_PROPERTY_COUNT = 5;
+	private final int INPUT_CHAR_LIMIT = 35;
+
+	/**
+	 * Tests that valid lines are imported in role order, and that lines with the
+	 * wrong number of fields, an unknown role or status, an empty or too long
+	 * field, an incorrectly formatted email, or an email already in use are
+	 * rejected with their line numbers.
+	 */
+	@Test
+	void testImportRejectsInvalidRows() throws IOException {
+
+		ObservableList<User> accountList = FXCollections.observableArrayList();
+		accountList.add(new User("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER,
+				Status.ACTIVE_EMPLOYEE));
+		UserRepository repository = new UserRepository(accountList);
+
+		String file = "emailID,First Name,Last Name,Role,Status\n" // line 1, the column header
+				+ "Greg@Yahoo.com, greg, jones, Level 3 Engineer, Disabled Account\n" // line 2, imported
+				+ "john@gmail.com,John,Appleseed,Level 2 Engineer\n" // line 3, four fields
+				+ "\n" // line 4, blank
+				+ "mary@gmail.com,Mary,Smith,Chief Engineer,Active Employee\n" // line 5, unknown role
+				+ "mary@gmail.com,Mary,Smith,Manager,Retired\n" // line 6, unknown status
+				+ "mary@gmail.com,,Smith,Manager,Active Employee\n" // line 7, empty first name
+				+ "marygmail.com,Mary,Smith,Manager,Active Employee\n" // line 8, incorrectly formatted
+				+ "george@gmail.com,George,Washington,Manager,Active Employee\n" // line 9, in the repository
+				+ "greg@yahoo.com,Greg,Jones,Manager,Active Employee\n" // line 10, earlier in the file
+				+ "mary@gmail.com,Mary,Smith,Manager,Active Employee\n" // line 11, imported
+				+ "ann@gmail.com,Annabelle-Josephine-Alexandra-Smithson,Smith,Manager,Active Employee\n"; // too long
+
+		UserImporter importer = new UserImporter(repository, null, INPUT_CHAR_LIMIT);
+		UserImporter.ImportResult result = importer.importLines(new BufferedReader(new StringReader(file)),
+				progress -> {
+				});
+
+		assertEquals(10, result.getRowsRead());
+		assertEquals(2, result.getImportedCount());
+		assertEquals(8, result.getRejectedCount());
+		assertFalse(result.isCancelled());
+
+		List<Integer> rejectedLineNumbers = new ArrayList<Integer>();
+		for (UserImporter.RejectedRow currentRow : result.getRejectedRows()) {
+			rejectedLineNumbers.add(currentRow.getLineNumber());
+		}
+		assertEquals(List.of(3, 5, 6, 7, 8, 9, 10, 12), rejectedLineNumbers);
+		assertTrue(result.getRejectedRows().get(5).getReason().contains("already in use"));
+		assertTrue(result.getRejectedRows().get(6).getReason().contains("earlier in the file"));
+
+		// imported emailIDs are lower-cased and names capitalized, in role order
+		assertEquals(3, repository.size());
+		User greg = repository.getUser("greg@yahoo.com");
+		assertEquals("Greg", greg.getFirstName());
+		assertEquals("Jones", greg.getLastName());
+		assertEquals(Role.LEVEL_3_ENGINEER, greg.getRole());
+		assertEquals(Status.DISABLED_ACCOUNT, greg.getStatus());
+		assertEquals("mary@gmail.com", repository.getUserList().get(1).getEmailID());
+		assertEquals(1, repository.search("smith").size());
+	}
+
+	/**
+	 * Tests that users are committed in batches, the listener is notified after
+	 * each batch, and each batch is written through the persistence service so the
+	 * imported users are loaded with the storage file.
+	 */
+	@Test
+	void testImportCommitsBatches(@TempDir Path storageDirectory) throws IOException {
+
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+		ObservableList<User> accountList = FXCollections.observableArrayList();
+		fileIO.writeFile("testUserList_Import.txt", accountList);
+		UserRepository repository = new UserRepository(accountList);
+		UserPersistenceService persistenceService = new UserPersistenceService(fileIO, "testUserList_Import.txt",
+				repository::copyUsers);
+
+		try {
+			StringBuilder file = new StringBuilder();
+			Role[] roles = { Role.LEVEL_1_ENGINEER, Role.MANAGER, Role.SENIOR_MANAGER, Role.LEVEL_2_ENGINEER };
+			for (int i = 0; i < 250; i++) {
+				file.append("user" + i + "@gmail.com,First" + i + ",Last" + i + "," + roles[i % roles.length]
+						+ ",Active Employee\n");
+			}
+
+			// the commits are counted as they are run
+			int[] commitCount = new int[1];
+			List<Integer> progressCounts = new ArrayList<Integer>();
+			UserImporter importer = new UserImporter(repository, persistenceService, INPUT_CHAR_LIMIT);
+			importer.setBatchSize(100);
+			importer.setCommitter(commit -> {
+				commitCount[0]++;
+				commit.run();
+			});
+			UserImporter.ImportResult result = importer.importLines(
+					new BufferedReader(new StringReader(file.toString())),
+					progress -> progressCounts.add(progress.getImportedCount()));
+
+			assertEquals(250, result.getImportedCount());
+			assertEquals(0, result.getRejectedCount());
+			assertEquals(3, commitCount[0]);
+			assertEquals(List.of(100, 200, 250), progressCounts);
+
+			// the users are in role order
+			assertEquals(250, repository.size());
+			for (int i = 1; i < repository.size(); i++) {
+				assertTrue(repository.getUserList().get(i - 1).getRole().ordinal() <= repository.getUserList().get(i)
+						.getRole().ordinal());
+			}
+
+			assertTrue(persistenceService.flush(5, TimeUnit.SECONDS));
+			UserFileIO reloadingFileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+			assertEquals(250, reloadingFileIO.loadFile("testUserList_Import.txt").size());
+
+			assertThrows(IllegalArgumentException.class, () -> importer.setBatchSize(0));
+		} finally {
+			persistenceService.shutdown(5, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Tests that a first line naming the columns is skipped, while a first line
+	 * holding a user whose emailID begins with "email" is imported.
+	 */
+	@Test
+	void testImportHeaderDetection() throws IOException {
+
+		UserRepository repository = new UserRepository(FXCollections.observableArrayList());
+		UserImporter importer = new UserImporter(repository, null, INPUT_CHAR_LIMIT);
+
+		// the header of a CSV export, and a header naming the columns as the Dashboard does
+		List<String> headers = List.of("emailID,firstName,lastName,role,status",
+				"Email/ID,First Name,Last Name,Role,Status");
+		for (String header : headers) {
+			UserImporter.ImportResult result = importer.importLines(new BufferedReader(
+					new StringReader(header + "\ngreg@yahoo.com,Greg,Jones,Manager,Active Employee\n")), progress -> {
+					});
+			assertEquals(1, result.getRowsRead());
+			assertEquals(0, result.getRejectedCount());
+			repository.remove(repository.getUser("greg@yahoo.com"));
+		}
+
+		UserImporter.ImportResult result = importer.importLines(new BufferedReader(
+				new StringReader("emailme@gmail.com,Emma,Jones,Manager,Active Employee\n")), progress -> {
+				});
+		assertEquals(1, result.getImportedCount());
+		assertEquals("Emma", repository.getUser("emailme@gmail.com").getFirstName());
+	}
+
+}
@@ -0,0 +1,153 @@
+package tests;
+
+import frankdesilets.User_Manager.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * The following test cases test the write-behind persistence service. Tests
+ * include ensuring queued changes are written to the change log when flushed,
+ * that a burst of changes is written together, and that changes that cannot be
+ * written are kept.
+ */
+class TestUserPersistenceService {
+
+	/*
+	 * *---*
+	 * TEST CASES
+	 * *---*
+	 *
+	 * 		testFlushWritesChanges()
+	 * 		testFailedWriteStaysPending()
+	 * 		testChangesAfterShutdownStayPending()
+	 */
+
+	private final int USER_PROPERTY_COUNT = 5;
+
+	/**
+	 * Tests that changes recorded through the service are pending until written,
+	 * and are applied when the storage file is loaded after a flush.
+	 */
+	@Test
+	void testFlushWritesChanges(@TempDir Path storageDirectory) throws IOException {
+
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+
+		// the storage file is written with one user
+		ObservableList<User> accountList = FXCollections.observableArrayList();
+		User george = new User("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER,
+				Status.ACTIVE_EMPLOYEE);
+		accountList.add(george);
+		fileIO.writeFile("testUserList_Persistence.txt", accountList);
+		UserRepository repository = new UserRepository(accountList);
+
+		UserPersistenceService persistenceService = new UserPersistenceService(fileIO,
+				"testUserList_Persistence.txt", repository::copyUsers);
+		try {
+			/*
+			 * A burst of changes is recorded. The changes are pending until the background
+			 * thread writes them.
+			 */
+			User greg = new User("greg@yahoo.com", "Greg", "Jones", Role.LEVEL_3_ENGINEER, Status.DISABLED_ACCOUNT);
+			repository.add(greg);
+			persistenceService.recordAddition(greg);
+			repository.update(george, "gwashington@gmail.com", "George", "Washington", Role.SENIOR_MANAGER,
+					Status.INACTIVE_EMPLOYEE);
+			persistenceService.recordUpdate("george@gmail.com", george);
+			User john = new User("john@gmail.com", "John", "Appleseed", Role.LEVEL_2_ENGINEER,
+					Status.INACTIVE_EMPLOYEE);
+			repository.add(john);
+			persistenceService.recordAddition(john);
+			repository.remove(john);
+			persistenceService.recordDeletion(john);
+			assertTrue(persistenceService.getPendingWriteCount() > 0);
+
+			// once flushed, every change has been written to the change log
+			assertTrue(persistenceService.flush(5, TimeUnit.SECONDS));
+			assertEquals(0, persistenceService.getPendingWriteCount());
+			assertEquals(4, fileIO.getChangeLogSize("testUserList_Persistence.txt"));
+
+			UserFileIO reloadingFileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+			ObservableList<User> reloadedList = reloadingFileIO.loadFile("testUserList_Persistence.txt");
+			assertEquals(2, reloadedList.size());
+			assertEquals("gwashington@gmail.com", reloadedList.get(0).getEmailID());
+			assertEquals(Status.INACTIVE_EMPLOYEE, reloadedList.get(0).getStatus());
+			assertEquals("greg@yahoo.com", reloadedList.get(1).getEmailID());
+		} finally {
+			persistenceService.shutdown(5, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Tests that changes that cannot be written stay pending, and are written once
+	 * writing succeeds again.
+	 */
+	@Test
+	void testFailedWriteStaysPending(@TempDir Path storageDirectory) throws IOException {
+
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+		ObservableList<User> accountList = FXCollections.observableArrayList();
+		fileIO.writeFile("testUserList_FailedWrite.txt", accountList);
+		UserRepository repository = new UserRepository(accountList);
+
+		// a directory in place of the change log makes every append fail
+		Path changeLog = Files.createDirectory(storageDirectory.resolve("testUserList_FailedWrite.txt.log"));
+
+		UserPersistenceService persistenceService = new UserPersistenceService(fileIO,
+				"testUserList_FailedWrite.txt", repository::copyUsers);
+		try {
+			User greg = new User("greg@yahoo.com", "Greg", "Jones", Role.LEVEL_3_ENGINEER, Status.DISABLED_ACCOUNT);
+			repository.add(greg);
+			persistenceService.recordAddition(greg);
+
+			assertFalse(persistenceService.flush(5, TimeUnit.SECONDS));
+			assertEquals(1, persistenceService.getPendingWriteCount());
+
+			// once the change log can be written, the pending change is written
+			Files.delete(changeLog);
+			assertTrue(persistenceService.flush(5, TimeUnit.SECONDS));
+			assertEquals(0, persistenceService.getPendingWriteCount());
+			assertEquals(1, fileIO.getChangeLogSize("testUserList_FailedWrite.txt"));
+			assertEquals("greg@yahoo.com",
+					fileIO.loadFile("testUserList_FailedWrite.txt").get(0).getEmailID());
+		} finally {
+			persistenceService.shutdown(5, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Tests that changes recorded after the service is shut down stay pending,
+	 * rather than being rejected by the stopped background thread.
+	 */
+	@Test
+	void testChangesAfterShutdownStayPending(@TempDir Path storageDirectory) {
+
+		UserFileIO fileIO = new UserFileIO(USER_PROPERTY_COUNT, true, storageDirectory.toString());
+		ObservableList<User> accountList = FXCollections.observableArrayList();
+		fileIO.writeFile("testUserList_Shutdown.txt", accountList);
+		UserRepository repository = new UserRepository(accountList);
+
+		UserPersistenceService persistenceService = new UserPersistenceService(fileIO, "testUserList_Shutdown.txt",
+				repository::copyUsers);
+		assertTrue(persistenceService.shutdown(5, TimeUnit.SECONDS));
+
+		User greg = new User("greg@yahoo.com", "Greg", "Jones", Role.LEVEL_3_ENGINEER, Status.DISABLED_ACCOUNT);
+		repository.add(greg);
+		persistenceService.recordAddition(greg);
+		assertEquals(1, persistenceService.getPendingWriteCount());
+		assertFalse(persistenceService.flush(5, TimeUnit.SECONDS));
+		assertFalse(persistenceService.shutdown(5, TimeUnit.SECONDS));
+		assertEquals(0, fileIO.getChangeLogSize("testUserList_Shutdown.txt"));
+	}
+
+}
@@ -0,0 +1,239 @@
+package tests;
+
+import frankdesilets.User_Manager.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * The following test cases test the headless query engine. Tests include
+ * ensuring queries combining text, role, status, sort, and range return the
+ * expected users, and that checking users in parallel returns the same results,
+ * in the same order, as checking them on a single thread, and that a running
+ * query does not block changes to the repository.
+ */
+class TestUserQueryEngine {
+
+	/*
+	 * *---*
+	 * TEST CASES
+	 * *---*
+	 * 
+	 * 		testQueries()
+	 * 		testParallelMatchesSequential()
+	 * 		testQueryDoesNotBlockChanges()
+	 * 		testParallelQueryDoesNotBlockChanges()
+	 */
+
+	/**
+	 * Returns a repository containing the given number of generated users, of
+	 * every role and status.
+	 * 
+	 * @param userCount
+	 * @return
+	 */
+	private UserRepository createRepository(int userCount) {
+		String[] firstNames = { "George", "Greg", "John", "James", "Joanna" };
+		String[] lastNames = { "Washington", "Jones", "Appleseed", "Rees", "Smith" };
+		ObservableList<User> userList = FXCollections.observableArrayList();
+		for (int i = 0; i < userCount; i++) {
+			userList.add(new User("user" + i + "@gmail.com", firstNames[i % firstNames.length],
+					lastNames[(i / firstNames.length) % lastNames.length], Role.values()[i % Role.values().length],
+					Status.values()[(i / 3) % Status.values().length]));
+		}
+		return new UserRepository(userList);
+	}
+
+	/**
+	 * Tests that text, role, status, sort, and range are each applied to the
+	 * results of a query.
+	 */
+	@Test
+	void testQueries() {
+
+		UserRepository repository = createRepository(100);
+		UserQueryEngine queryEngine = new UserQueryEngine(repository);
+
+		// a query with no criteria returns the user list itself
+		assertSame(repository.getUserList(), queryEngine.execute(new UserQuery()));
+
+		// a text query returns the same users as a repository search
+		UserQuery query = new UserQuery();
+		query.setText("jo");
+		List<User> textMatches = repository.search("jo");
+		assertEquals(textMatches, queryEngine.execute(query));
+
+		// text, role, and status are all matched
+		User lastMatch = textMatches.get(textMatches.size() - 1);
+		query.setRole(lastMatch.getRole());
+		query.setStatus(lastMatch.getStatus());
+		List<User> results = queryEngine.execute(query);
+		assertTrue(results.contains(lastMatch));
+		for (User currentUser : results) {
+			assertEquals(lastMatch.getRole(), currentUser.getRole());
+			assertEquals(lastMatch.getStatus(), currentUser.getStatus());
+			assertTrue(currentUser.getFirstName().toLowerCase().contains("jo")
+					|| currentUser.getLastName().toLowerCase().contains("jo"));
+		}
+
+		// non-matching users follow the matching users if isOnlyMatching is false
+		query.setOnlyMatching(false);
+		List<User> allResults = queryEngine.execute(query);
+		assertEquals(repository.size(), allResults.size());
+		assertEquals(results, allResults.subList(0, results.size()));
+
+		// an edited property is matched by its new value, not its cached value
+		User edited = textMatches.get(0);
+		repository.update(edited, edited.getEmailID(), "Zoe", "Quill", edited.getRole(), edited.getStatus());
+		query = new UserQuery();
+		query.setText("qu");
+		assertEquals(List.of(edited), queryEngine.execute(query));
+		query.setText("jo");
+		assertFalse(queryEngine.execute(query).contains(edited));
+
+		// a sorted role query is in order by the sort field, limited to the range
+		query = new UserQuery();
+		query.setRole(Role.SENIOR_MANAGER);
+		query.setSortField(UserSortField.LAST_NAME);
+		query.setDescending(true);
+		List<User> sortedResults = queryEngine.execute(query);
+		for (int i = 1; i < sortedResults.size(); i++) {
+			assertTrue(sortedResults.get(i - 1).getLastName().compareTo(sortedResults.get(i).getLastName()) >= 0);
+		}
+		query.setOffset(2);
+		query.setLimit(3);
+		assertEquals(sortedResults.subList(2, 5), queryEngine.execute(query));
+
+		// a sorted query with no criteria is a range of the sorted index
+		query = new UserQuery();
+		query.setSortField(UserSortField.EMAIL_ID);
+		query.setLimit(10);
+		assertEquals(repository.getSortedUsers(UserSortField.EMAIL_ID, false).subList(0, 10),
+				queryEngine.execute(query));
+	}
+
+	/**
+	 * Tests that an engine checking users in parallel returns the same results, in
+	 * the same order, as an engine checking users on a single thread.
+	 */
+	@Test
+	void testParallelMatchesSequential() {
+
+		UserRepository repository = createRepository(UserQueryEngine.PARALLEL_THRESHOLD * 2);
+		UserQueryEngine sequentialEngine = new UserQueryEngine(repository);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			UserQueryEngine parallelEngine = new UserQueryEngine(repository, pool);
+			assertTrue(parallelEngine.isParallel(repository.size()));
+			assertFalse(parallelEngine.isParallel(UserQueryEngine.PARALLEL_THRESHOLD - 1));
+
+			UserQuery query = new UserQuery();
+			query.setText("es"); // too short to be looked up in the search index, so every user is checked
+			List<User> expected = sequentialEngine.execute(query);
+			assertFalse(expected.isEmpty());
+			assertEquals(emailIDs(expected), emailIDs(parallelEngine.execute(query)));
+
+			query.setStatus(Status.DISABLED_ACCOUNT);
+			query.setOnlyMatching(false);
+			assertEquals(emailIDs(sequentialEngine.execute(query)), emailIDs(parallelEngine.execute(query)));
+
+			// narrowing previous results keeps their order
+			UserQuery narrowedQuery = new UserQuery();
+			narrowedQuery.setText("ess");
+			assertEquals(emailIDs(sequentialEngine.executeWithin(expected, narrowedQuery)),
+					emailIDs(parallelEngine.executeWithin(expected, narrowedQuery)));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private List<String> emailIDs(List<User> users) {
+		return users.stream().map(User::getEmailID).collect(Collectors.toList());
+	}
+
+	/**
+	 * Tests that the repository can be changed while a query is checking users on
+	 * the calling thread, as the repository's lock is not held during the check.
+	 */
+	@Test
+	void testQueryDoesNotBlockChanges() throws InterruptedException {
+		assertQueryDoesNotBlockChanges(100, null);
+	}
+
+	/**
+	 * Tests that the repository can be changed while a query is checking users in
+	 * parallel on a fork-join pool.
+	 */
+	@Test
+	void testParallelQueryDoesNotBlockChanges() throws InterruptedException {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			assertQueryDoesNotBlockChanges(Role.values().length * UserQueryEngine.PARALLEL_THRESHOLD, pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Holds up a query while it checks a user, and asserts that a user can be added
+	 * to the repository in the meantime and that the query then completes.
+	 * 
+	 * @param userCount
+	 * @param pool
+	 * @throws InterruptedException
+	 */
+	private void assertQueryDoesNotBlockChanges(int userCount, ForkJoinPool pool) throws InterruptedException {
+
+		UserRepository repository = createRepository(userCount);
+		CountDownLatch isChecking = new CountDownLatch(1);
+		CountDownLatch isChanged = new CountDownLatch(1);
+		Thread testThread = Thread.currentThread();
+
+		// a user that holds up the query while it is checked, until the repository is changed
+		User blockingUser = new User("blocking@gmail.com", "Joanna", "Smith", Role.MANAGER, Status.ACTIVE_EMPLOYEE) {
+			@Override
+			public Role getRole() {
+				if (Thread.currentThread() != testThread) {
+					isChecking.countDown();
+					try {
+						isChanged.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return super.getRole();
+			}
+		};
+		repository.add(blockingUser);
+
+		// text too short for the search index makes the query check every Manager
+		UserQuery query = new UserQuery();
+		query.setText("j");
+		query.setRole(Role.MANAGER);
+		UserQueryEngine queryEngine = new UserQueryEngine(repository, pool);
+		assertEquals(pool != null, queryEngine.isParallel(userCount / Role.values().length));
+		List<List<User>> results = new ArrayList<List<User>>();
+		Thread queryThread = new Thread(() -> results.add(queryEngine.execute(query)), "Query");
+		queryThread.start();
+		assertTrue(isChecking.await(5, TimeUnit.SECONDS));
+
+		// the repository is changed while the query is held up
+		assertTimeoutPreemptively(Duration.ofSeconds(2), () -> repository
+				.add(new User("new@gmail.com", "Jim", "Jones", Role.MANAGER, Status.ACTIVE_EMPLOYEE)));
+		isChanged.countDown();
+		queryThread.join(5000);
+		assertTrue(results.get(0).contains(blockingUser));
+	}
+
+}
@@ -0,0 +1,427 @@
+package tests;
+
+import frankdesilets.User_Manager.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+/**
+ * The following test cases test the user repository. Tests include ensuring
+ * emailID lookups stay in sync with additions, edits, and deletions, and that
+ * the user list stays in descending order by Role.
+ */
+class TestUserRepository {
+
+	/* 
+	 * *---*
+	 * TEST CASES
+	 * *---*
+	 * 
+	 * 		testLookupAfterAddAndRemove()
+	 * 		testEmailIDChange()
+	 * 		testRoleOrder()
+	 * 		testSortedUsers()
+	 * 		testFilterByRoleAndStatus()
+	 * 		testBulkSetRoleAndStatus()
+	 * 		testBulkRemove()
+	 * 		testUpdateNotifiesChangedRows()
+	 */
+
+	/**
+	 * Returns a repository containing three users, in descending order by Role.
+	 * 
+	 * @return
+	 */
+	private UserRepository createRepository() {
+		ObservableList<User> userList = FXCollections.observableArrayList();
+		userList.add(new User("george@gmail.com", "George", "Washington", Role.SENIOR_MANAGER, Status.ACTIVE_EMPLOYEE));
+		userList.add(new User("greg@yahoo.com", "Greg", "Jones", Role.LEVEL_3_ENGINEER, Status.DISABLED_ACCOUNT));
+		userList.add(new User("john@gmail.com", "John", "Appleseed", Role.LEVEL_2_ENGINEER, Status.INACTIVE_EMPLOYEE));
+		return new UserRepository(userList);
+	}
+
+	/**
+	 * Tests that added users can be found by emailID and removed users cannot.
+	 */
+	@Test
+	void testLookupAfterAddAndRemove() {
+
+		UserRepository repository = createRepository();
+		User user = new User("rees@icloud.com", "James", "Rees", Role.LEVEL_1_ENGINEER, Status.DISABLED_ACCOUNT);
+
+		repository.add(user);
+		assertSame(user, repository.getUser("rees@icloud.com"));
+		assertTrue(repository.containsEmailID("rees@icloud.com"));
+		assertEquals(4, repository.size());
+
+		repository.remove(user);
+		assertNull(repository.getUser("rees@icloud.com"));
+		assertFalse(repository.containsEmailID("rees@icloud.com"));
+		assertEquals(3, repository.size());
+	}
+
+	/**
+	 * Tests that a user whose emailID is changed is found by the new emailID only.
+	 */
+	@Test
+	void testEmailIDChange() {
+
+		UserRepository repository = createRepository();
+		User user = repository.getUser("greg@yahoo.com");
+
+		repository.update(user, "gjones@yahoo.com", "Greg", "Jones", Role.LEVEL_3_ENGINEER, Status.ACTIVE_EMPLOYEE);
+		assertSame(user, repository.getUser("gjones@yahoo.com"));
+		assertFalse(repository.containsEmailID("greg@yahoo.com"));
+		assertEquals(Status.ACTIVE_EMPLOYEE, user.getStatus());
+	}
+
+	/**
+	 * Tests that added users and users whose role is changed are positioned in
+	 * descending order by Role.
+	 */
+	@Test
+	void testRoleOrder() {
+
+		UserRepository repository = createRepository();
+		User manager = new User("anthonyo@gmail.com", "Anthony", "Odgen", Role.MANAGER, Status.ACTIVE_EMPLOYEE);
+		repository.add(manager);
+		assertSame(manager, repository.getUserList().get(1));
+
+		// the Level 2 Engineer becomes a Senior Manager, following the existing Senior Manager
+		User john = repository.getUser("john@gmail.com");
+		repository.update(john, "john@gmail.com", "John", "Appleseed", Role.SENIOR_MANAGER, Status.INACTIVE_EMPLOYEE);
+		assertSame(john, repository.getUserList().get(1));
+		for (int i = 1; i < repository.size(); i++) {
+			assertTrue(repository.getUserList().get(i - 1).getRole().compareTo(repository.getUserList().get(i).getRole()) <= 0);
+		}
+
+		// a list that is not in role order is put in role order, keeping the order within each role
+		ObservableList<User> unorderedList = FXCollections.observableArrayList();
+		User engineer1 = new User("a@gmail.com", "A", "A", Role.LEVEL_1_ENGINEER, Status.ACTIVE_EMPLOYEE);
+		User seniorManager = new User("b@gmail.com", "B", "B", Role.SENIOR_MANAGER, Status.ACTIVE_EMPLOYEE);
+		User engineer2 = new User("c@gmail.com", "C", "C", Role.LEVEL_1_ENGINEER, Status.ACTIVE_EMPLOYEE);
+		unorderedList.addAll(engineer1, seniorManager, engineer2);
+		UserRepository unorderedRepository = new UserRepository(unorderedList);
+		assertEquals(List.of(seniorManager, engineer1, engineer2), unorderedRepository.getUserList());
+		User engineer3 = new User("d@gmail.com", "D", "D", Role.LEVEL_1_ENGINEER, Status.ACTIVE_EMPLOYEE);
+		unorderedRepository.add(engineer3);
+		assertSame(engineer3, unorderedRepository.getUserList().get(3));
+	}
+
+	/**
+	 * Tests searching with text looked up in the search index, text matching a
+	 * role name, and text too short for the index, including after users are
+	 * edited and removed.
+	 */
+	@Test
+	void testSearch() {
+
+		UserRepository repository = createRepository();
+		User greg = repository.getUser("greg@yahoo.com");
+		User john = repository.getUser("john@gmail.com");
+
+		// "GMAIL" is looked up in the index, ignoring case
+		assertEquals(2, repository.search("GMAIL").size());
+		// "engineer" matches the roles of two users
+		assertEquals(List.of(greg, john), repository.search("engineer"));
+		// "jo" is too short for the index and matches a first name and a last name
+		assertEquals(List.of(greg, john), repository.search("jo"));
+		assertTrue(repository.search("xyz").isEmpty());
+
+		// edited properties are found by their new value only
+		repository.update(greg, "greg@yahoo.com", "Gregory", "Smith", Role.LEVEL_3_ENGINEER, Status.DISABLED_ACCOUNT);
+		assertEquals(List.of(greg), repository.search("smith"));
+		assertTrue(repository.search("jones").isEmpty());
+
+		// removed users are not found
+		repository.remove(john);
+		assertTrue(repository.search("appleseed").isEmpty());
+	}
+
+	/**
+	 * Tests that searching within previous results for extended search text finds
+	 * the same users as a full search, and that modifications are counted.
+	 */
+	@Test
+	void testSearchWithinPreviousResults() {
+
+		UserRepository repository = createRepository();
+		int modificationCount = repository.getModificationCount();
+
+		List<User> previousResults = repository.search("g");
+		assertEquals(repository.search("gre"), repository.searchWithin(previousResults, "gre"));
+		assertEquals(repository.search("gmail"), repository.searchWithin(previousResults, "gmail"));
+		assertEquals(modificationCount, repository.getModificationCount());
+
+		repository.remove(repository.getUser("greg@yahoo.com"));
+		assertEquals(modificationCount + 1, repository.getModificationCount());
+	}
+
+	/**
+	 * Tests that searches ignore accents and case in both the search text and the
+	 * user's properties, whether looked up in the search index or checked against
+	 * every user.
+	 */
+	@Test
+	void testAccentInsensitiveSearch() {
+
+		UserRepository repository = createRepository();
+		User jose = new User("jose@gmail.com", "José", "Núñez", Role.MANAGER, Status.ACTIVE_EMPLOYEE);
+		repository.add(jose);
+
+		// looked up in the search index
+		assertEquals(List.of(jose), repository.search("NUNEZ"));
+		assertEquals(List.of(jose), repository.search("núñ"));
+		// too short for the index, so every user is checked
+		assertEquals(List.of(jose), repository.search("ÉZ"));
+		// the accented first name is matched by its unaccented emailID too
+		assertEquals(List.of(jose), repository.search("JOSÉ"));
+
+		// an edited property is matched by the key of its new value
+		repository.update(jose, "jose@gmail.com", "Zoë", "Núñez", Role.MANAGER, Status.ACTIVE_EMPLOYEE);
+		assertEquals(List.of(jose), repository.search("zoe"));
+		assertEquals(List.of(jose), repository.searchWithin(List.of(jose), "ZOË"));
+		assertTrue(repository.search("zoë n").isEmpty());
+	}
+
+	/**
+	 * Tests that the sorted views of users are in lexicographic and reverse
+	 * lexicographic order, and stay in order as users are added, edited, and
+	 * removed.
+	 */
+	@Test
+	void testSortedUsers() {
+
+		UserRepository repository = createRepository();
+		ObservableList<User> ascending = repository.getSortedUsers(UserSortField.FIRST_NAME, false);
+		ObservableList<User> descending = repository.getSortedUsers(UserSortField.FIRST_NAME, true);
+		assertEquals(List.of("George", "Greg", "John"), firstNames(ascending));
+		assertEquals(List.of("John", "Greg", "George"), firstNames(descending));
+
+		// the reversed view notifies its listeners of the reversed position of an added user
+		int[] addedIndex = { -1 };
+		descending.addListener((ListChangeListener<User>) change -> {
+			while (change.next()) {
+				if (change.wasAdded()) {
+					addedIndex[0] = change.getFrom();
+				}
+			}
+		});
+		User anthony = new User("anthonyo@gmail.com", "Anthony", "Odgen", Role.MANAGER, Status.ACTIVE_EMPLOYEE);
+		repository.add(anthony);
+		assertEquals(List.of("John", "Greg", "George", "Anthony"), firstNames(descending));
+		assertEquals(3, addedIndex[0]);
+
+		// users with the same first name are ordered by emailID
+		User john = repository.getUser("john@gmail.com");
+		repository.update(john, "john@gmail.com", "Greg", "Appleseed", Role.LEVEL_2_ENGINEER,
+				Status.INACTIVE_EMPLOYEE);
+		assertEquals(List.of("Anthony", "George", "Greg", "Greg"), firstNames(ascending));
+		assertSame(repository.getUser("greg@yahoo.com"), ascending.get(2));
+		assertSame(john, ascending.get(3));
+
+		repository.remove(repository.getUser("george@gmail.com"));
+		assertEquals(List.of("Greg", "Greg", "Anthony"), firstNames(descending));
+		assertEquals(List.of("anthonyo@gmail.com", "greg@yahoo.com", "john@gmail.com"),
+				repository.getSortedUsers(UserSortField.EMAIL_ID, false).stream().map(User::getEmailID)
+						.collect(Collectors.toList()));
+	}
+
+	/**
+	 * Returns the first names of a list of users, in order.
+	 * 
+	 * @param users
+	 * @return
+	 */
+	private List<String> firstNames(List<User> users) {
+		return users.stream().map(User::getFirstName).collect(Collectors.toList());
+	}
+
+	/**
+	 * Tests that filtering by role, status, or both lists the matching users first
+	 * and then the remaining users, each in role order.
+	 */
+	@Test
+	void testFilterByRoleAndStatus() {
+
+		UserRepository repository = createRepository();
+		User george = repository.getUser("george@gmail.com");
+		User greg = repository.getUser("greg@yahoo.com");
+		User john = repository.getUser("john@gmail.com");
+		User rees = new User("rees@icloud.com", "James", "Rees", Role.LEVEL_3_ENGINEER, Status.INACTIVE_EMPLOYEE);
+		repository.add(rees);
+
+		assertEquals(List.of(greg, rees, george, john),
+				repository.filterByRoleAndStatus(Role.LEVEL_3_ENGINEER, null, false));
+		assertEquals(List.of(greg, rees), repository.filterByRoleAndStatus(Role.LEVEL_3_ENGINEER, null, true));
+		assertEquals(List.of(rees, john, george, greg),
+				repository.filterByRoleAndStatus(null, Status.INACTIVE_EMPLOYEE, false));
+		assertEquals(List.of(rees, george, greg, john),
+				repository.filterByRoleAndStatus(Role.LEVEL_3_ENGINEER, Status.INACTIVE_EMPLOYEE, false));
+		assertEquals(List.of(rees),
+				repository.filterByRoleAndStatus(Role.LEVEL_3_ENGINEER, Status.INACTIVE_EMPLOYEE, true));
+
+		// a user whose status is changed matches its new status
+		repository.update(greg, "greg@yahoo.com", "Greg", "Jones", Role.LEVEL_3_ENGINEER, Status.INACTIVE_EMPLOYEE);
+		assertEquals(List.of(greg, rees),
+				repository.filterByRoleAndStatus(Role.LEVEL_3_ENGINEER, Status.INACTIVE_EMPLOYEE, true));
+		assertTrue(repository.filterByRoleAndStatus(Role.MANAGER, null, true).isEmpty());
+	}
+
+	/**
+	 * Returns a repository containing a number of users, in descending order by
+	 * Role, with their roles repeating every five users.
+	 * 
+	 * @param userCount
+	 * @return
+	 */
+	private UserRepository createLargeRepository(int userCount) {
+		ObservableList<User> userList = FXCollections.observableArrayList();
+		Role[] roles = Role.values();
+		for (int i = 0; i < userCount; i++) {
+			userList.add(new User("user" + i + "@gmail.com", "First" + i, "Last" + i, roles[i % 5],
+					Status.ACTIVE_EMPLOYEE));
+		}
+		userList.sort((first, second) -> first.getRole().compareTo(second.getRole()));
+		return new UserRepository(userList);
+	}
+
+	/**
+	 * Tests that setting the role and status of a small and a large batch of users
+	 * moves the users whose role changed to the end of their new role, sets each
+	 * status, and counts as a single modification. Only the changed users are
+	 * returned, and a batch that changes no user is not a modification.
+	 */
+	@Test
+	void testBulkSetRoleAndStatus() {
+
+		for (int batchSize : new int[] { 3, 300 }) {
+
+			UserRepository repository = createLargeRepository(2000);
+			List<User> sortedUsers = repository.getSortedUsers(UserSortField.EMAIL_ID, false);
+			List<User> batch = List.copyOf(
+					repository.filterByRoleAndStatus(Role.LEVEL_1_ENGINEER, null, true).subList(0, batchSize));
+			User stranger = new User("stranger@gmail.com", "Stranger", "Smith", Role.MANAGER, Status.ACTIVE_EMPLOYEE);
+			List<User> toUpdate = new ArrayList<User>(batch);
+			toUpdate.add(stranger);
+
+			int modificationCount = repository.getModificationCount();
+			assertEquals(batch, repository.setRoleAndStatus(toUpdate, Role.MANAGER, Status.INACTIVE_EMPLOYEE));
+			assertEquals(modificationCount + 1, repository.getModificationCount());
+
+			// the batch is at the end of the managers, in the order given
+			List<User> managers = repository.filterByRoleAndStatus(Role.MANAGER, null, true);
+			assertEquals(400 + batchSize, managers.size());
+			assertEquals(batch, managers.subList(400, managers.size()));
+			for (User currentUser : batch) {
+				assertEquals(Status.INACTIVE_EMPLOYEE, currentUser.getStatus());
+			}
+			for (int i = 1; i < repository.size(); i++) {
+				assertTrue(repository.getUserList().get(i - 1).getRole().compareTo(
+						repository.getUserList().get(i).getRole()) <= 0);
+			}
+
+			// a user not held is unchanged, and a null role leaves each role unchanged
+			assertEquals(Role.MANAGER, stranger.getRole());
+			assertEquals(Status.ACTIVE_EMPLOYEE, stranger.getStatus());
+			assertEquals(batch, repository.setRoleAndStatus(batch, null, Status.DISABLED_ACCOUNT));
+			assertEquals(Role.MANAGER, batch.get(0).getRole());
+			assertEquals(Status.DISABLED_ACCOUNT, batch.get(0).getStatus());
+
+			// setting the same role and status again changes nothing
+			modificationCount = repository.getModificationCount();
+			assertTrue(repository.setRoleAndStatus(batch, Role.MANAGER, Status.DISABLED_ACCOUNT).isEmpty());
+			assertEquals(modificationCount, repository.getModificationCount());
+			assertEquals(2000, repository.size());
+			assertEquals(2000, sortedUsers.size());
+		}
+	}
+
+	/**
+	 * Tests that removing a small and a large batch of users removes them from the
+	 * list, emailID lookups, searches, and sorted views, as a single modification.
+	 */
+	@Test
+	void testBulkRemove() {
+
+		for (int batchSize : new int[] { 3, 300 }) {
+
+			UserRepository repository = createLargeRepository(2000);
+			List<User> sortedUsers = repository.getSortedUsers(UserSortField.LAST_NAME, false);
+			List<User> batch = List.copyOf(repository.getUserList().subList(100, 100 + batchSize));
+
+			int modificationCount = repository.getModificationCount();
+			repository.removeAll(batch);
+			assertEquals(modificationCount + 1, repository.getModificationCount());
+
+			assertEquals(2000 - batchSize, repository.size());
+			assertEquals(2000 - batchSize, sortedUsers.size());
+			for (User currentUser : batch) {
+				assertFalse(repository.containsEmailID(currentUser.getEmailID()));
+				assertFalse(repository.getUserList().contains(currentUser));
+				assertFalse(sortedUsers.contains(currentUser));
+				assertFalse(repository.search(currentUser.getLastName()).contains(currentUser));
+			}
+			for (int i = 1; i < sortedUsers.size(); i++) {
+				assertTrue(sortedUsers.get(i - 1).getLastName().compareTo(sortedUsers.get(i).getLastName()) <= 0);
+			}
+			assertEquals(400 - batchSize, repository.filterByRoleAndStatus(Role.SENIOR_MANAGER, null, true).size());
+
+			// removing users no longer held changes nothing
+			repository.removeAll(batch);
+			assertEquals(modificationCount + 1, repository.getModificationCount());
+		}
+	}
+
+	/**
+	 * Tests that editing users in place notifies listeners of the list with a
+	 * replacement of each edited row by itself (which a TableView redraws alone),
+	 * and that a large batch is a single change.
+	 */
+	@Test
+	void testUpdateNotifiesChangedRows() {
+
+		UserRepository repository = createLargeRepository(2000);
+		List<User> replacedRows = new ArrayList<User>();
+		int[] changeCount = { 0 };
+		repository.getUserList().addListener((ListChangeListener<User>) change -> {
+			changeCount[0]++;
+			while (change.next()) {
+				if (change.wasReplaced() && change.getRemoved().equals(change.getAddedSubList())) {
+					replacedRows.addAll(change.getAddedSubList());
+				}
+			}
+		});
+
+		// an edit that keeps the role replaces the user's row with itself
+		User user = repository.getUserList().get(1234);
+		repository.update(user, user.getEmailID(), "Edited", user.getLastName(), user.getRole(),
+				Status.DISABLED_ACCOUNT);
+		assertEquals(List.of(user), replacedRows);
+		assertSame(user, repository.getUserList().get(1234));
+		assertEquals(1234, repository.getUserList().indexOf(user));
+
+		// a small batch whose status alone is changed replaces each row
+		replacedRows.clear();
+		List<User> batch = List.copyOf(repository.getUserList().subList(500, 505));
+		repository.setRoleAndStatus(batch, batch.get(0).getRole(), Status.INACTIVE_EMPLOYEE);
+		assertEquals(batch, replacedRows);
+		assertEquals(batch, repository.getUserList().subList(500, 505));
+
+		// a large batch is a single change
+		changeCount[0] = 0;
+		repository.setRoleAndStatus(List.copyOf(repository.getUserList().subList(0, 300)), null,
+				Status.DISABLED_ACCOUNT);
+		assertEquals(1, changeCount[0]);
+		assertEquals(Status.DISABLED_ACCOUNT, repository.getUserList().get(299).getStatus());
+	}
+
+}